@@ -5,18 +5,23 @@ package org.jenkinsci.plugins.deploy.weblogic;
 
 import hudson.EnvVars;
 import hudson.FilePath;
+import hudson.FilePath.FileCallable;
+import hudson.Util;
 import hudson.model.AbstractBuild;
 import hudson.model.BuildListener;
+import hudson.remoting.VirtualChannel;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
-import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.plugins.deploy.weblogic.util.VarUtils;
 
@@ -26,69 +31,70 @@ import org.jenkinsci.plugins.deploy.weblogic.util.VarUtils;
  */
 public class FreeStyleJobArtifactSelectorImpl implements ArtifactSelector {
 	
+	/**
+	 * Noms des repertoires ignores lors du parcours
+	 */
+	private final Set<String> excludedDirectories;
+	
+	/**
+	 * 
+	 */
+	public FreeStyleJobArtifactSelectorImpl() {
+		this(null);
+	}
+	
+	/**
+	 * 
+	 * @param excludedDirectories the names of the directories not scanned, separated by a comma
+	 */
+	public FreeStyleJobArtifactSelectorImpl(String excludedDirectories) {
+		this.excludedDirectories = new HashSet<String>();
+		for(String name : StringUtils.split(StringUtils.defaultString(excludedDirectories), ",")){
+			if(StringUtils.isNotBlank(name)){
+				this.excludedDirectories.add(name.trim());
+			}
+		}
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see org.jenkinsci.plugins.deploy.weblogic.ArtifactSelector#selectArtifactRecorded(hudson.model.AbstractBuild, hudson.model.BuildListener, java.lang.String, java.lang.String)
 	 */
 	public FilePath selectArtifactRecorded(AbstractBuild<?, ?> build, BuildListener listener, String filteredResource, String baseDirectory) throws IOException, InterruptedException  {
 		
-		FilePath selectedArtifact = null;
-		
         listener.getLogger().println("[WeblogicDeploymentPlugin] - Retrieving artifacts recorded [filtered resources on "+filteredResource+"]...");
-        List<FilePath> artifactsRecorded = new ArrayList<FilePath>();
         
         // On parcours le workspace si aucun repertoire de base specifie a la recherche d'un fichier correspondant a l'expression reguliere
-        Collection<?> filesToCheck = CollectionUtils.EMPTY_COLLECTION;
-        String baseDirName = "";
-        if(StringUtils.isBlank(baseDirectory)){
-	        FilePath workspace = build.getWorkspace();
-            baseDirName = workspace.getName();
-            filesToCheck = FileUtils.listFiles(new File(workspace.toURI()), null, true);
-        } else {
+        FilePath workspace = build.getWorkspace();
+        FilePath baseDir = workspace;
+        if(StringUtils.isNotBlank(baseDirectory)){
 
             //Recuperation des variables
             EnvVars vars = VarUtils.getEnvVars(build, listener);
             String resolvedBaseDirectory = vars.expand(baseDirectory);
 
-            File baseDir = new File(resolvedBaseDirectory);
+            // Le repertoire est recherche sur le noeud ayant execute le build
+            baseDir = new FilePath(workspace.getChannel(), resolvedBaseDirectory);
 
         	//si un repertoire est specifie mais qu'il est inacessible ou invalide on renvoit une erreur
-            if(! baseDir.exists() || ! baseDir.isDirectory() || ! baseDir.canRead()){
+            if(! baseDir.exists() || ! baseDir.isDirectory()){
             	listener.getLogger().println("[WeblogicDeploymentPlugin] - the base directory specified ["+resolvedBaseDirectory+"] is invalid (doesn't exists or is not a directory or has insufficient privilege). Please check the job configuration");
             	throw new RuntimeException("The base directory specified ["+resolvedBaseDirectory+"] is invalid (doesn't exists or is not a directory or has insufficient privilege)");
             }
-
-            baseDirName = baseDir.getName();
-            filesToCheck = FileUtils.listFiles(baseDir, null, true);
          }
 
-        listener.getLogger().println("[WeblogicDeploymentPlugin] - "+filesToCheck.size() +" files found under "+baseDirName);
-        for(File file : (Collection<File>) filesToCheck){
-            if(! file.isDirectory() && Pattern.matches(filteredResource, file.getName())){
-                listener.getLogger().println("[WeblogicDeploymentPlugin] - the following resource recorded "+file.getAbsolutePath()+" is eligible.");
-                artifactsRecorded.add(new FilePath(file));
-            } else {
-                listener.getLogger().println("[WeblogicDeploymentPlugin] - the following resource ['"+file.getName()+"'] doesn't match "+filteredResource);
-            }
-        }
+        // Parcours sur le noeud, arrete des la premiere ressource eligible
+        ArtifactScanResult result = baseDir.act(new ArtifactScan(filteredResource, excludedDirectories));
+        listener.getLogger().println("[WeblogicDeploymentPlugin] - "+result.getScannedFiles()+" files scanned in "+result.getScannedDirectories()
+        		+" directories under "+baseDir.getName()+" ("+result.getPrunedDirectories()+" excluded directories skipped).");
         
-        if(artifactsRecorded.size() < 1){
+		// Erreur si l'artifact n'existe pas
+        if(result.getArtifactPath() == null){
         	throw new RuntimeException("No artifact to deploy ["+filteredResource+"] found.");
         }
         
-        if(artifactsRecorded.size() > 1){
-        	listener.getLogger().println("[WeblogicDeploymentPlugin] - More than 1 artifact found : The first one "+artifactsRecorded.get(0)+ " will be deployed!!!");
-        }
-        
-        selectedArtifact = artifactsRecorded.get(0);
-        
-    	
-		
-		// Erreur si l'artifact n'existe pas
-		if(selectedArtifact == null){
-			throw new RuntimeException("No artifact to deploy found.");
-		}        
-		return selectedArtifact;
+        listener.getLogger().println("[WeblogicDeploymentPlugin] - the following resource recorded "+result.getArtifactPath()+" is eligible.");
+		return new FilePath(workspace.getChannel(), result.getArtifactPath());
 	}
 	
 	/*
@@ -99,4 +105,106 @@ public class FreeStyleJobArtifactSelectorImpl implements ArtifactSelector {
 		return "FreeStyleProject";
 	}
 
+	/**
+	 * Streaming directory walk run on the node : the directories are listed one at a time,
+	 * the excluded ones are not entered and the walk stops on the first matching file.
+	 */
+	private static final class ArtifactScan implements FileCallable<ArtifactScanResult> {
+
+		private static final long serialVersionUID = 5383562190454622736L;
+
+		private final String filteredResource;
+		
+		private final Set<String> excludedDirectories;
+		
+		ArtifactScan(String filteredResource, Set<String> excludedDirectories) {
+			this.filteredResource = filteredResource;
+			this.excludedDirectories = excludedDirectories;
+		}
+		
+		public ArtifactScanResult invoke(File baseDir, VirtualChannel channel) throws IOException, InterruptedException {
+			Pattern pattern = Pattern.compile(filteredResource);
+			int scannedFiles = 0;
+			int scannedDirectories = 0;
+			int prunedDirectories = 0;
+			
+			LinkedList<File> pendingDirectories = new LinkedList<File>();
+			pendingDirectories.add(baseDir);
+			while(! pendingDirectories.isEmpty()){
+				if(Thread.interrupted()){
+					throw new InterruptedException();
+				}
+				File directory = pendingDirectories.removeLast();
+				String[] names = directory.list();
+				scannedDirectories++;
+				if(names == null){
+					continue;
+				}
+				// ordre stable d'un parcours a l'autre
+				Arrays.sort(names);
+				
+				List<File> subDirectories = new ArrayList<File>();
+				for(String name : names){
+					File file = new File(directory, name);
+					if(file.isDirectory()){
+						if(excludedDirectories.contains(name) || Util.isSymlink(file)){
+							prunedDirectories++;
+						} else {
+							subDirectories.add(file);
+						}
+						continue;
+					}
+					scannedFiles++;
+					if(pattern.matcher(name).matches()){
+						return new ArtifactScanResult(file.getAbsolutePath(), scannedFiles, scannedDirectories, prunedDirectories);
+					}
+				}
+				// parcours en profondeur dans l'ordre alphabetique
+				for(int i = subDirectories.size() - 1; i >= 0; i--){
+					pendingDirectories.add(subDirectories.get(i));
+				}
+			}
+			return new ArtifactScanResult(null, scannedFiles, scannedDirectories, prunedDirectories);
+		}
+	}
+	
+	/**
+	 * 
+	 */
+	private static final class ArtifactScanResult implements Serializable {
+		
+		private static final long serialVersionUID = -3022465813393318498L;
+
+		private final String artifactPath;
+		
+		private final int scannedFiles;
+		
+		private final int scannedDirectories;
+		
+		private final int prunedDirectories;
+		
+		ArtifactScanResult(String artifactPath, int scannedFiles, int scannedDirectories, int prunedDirectories) {
+			this.artifactPath = artifactPath;
+			this.scannedFiles = scannedFiles;
+			this.scannedDirectories = scannedDirectories;
+			this.prunedDirectories = prunedDirectories;
+		}
+
+		String getArtifactPath() {
+			return artifactPath;
+		}
+
+		int getScannedFiles() {
+			return scannedFiles;
+		}
+
+		int getScannedDirectories() {
+			return scannedDirectories;
+		}
+
+		int getPrunedDirectories() {
+			return prunedDirectories;
+		}
+	}
+
 }
@@ -0,0 +1,220 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.TaskListener;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.listeners.RunListener;
+import hudson.util.XStream2;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicDeployment;
+import org.jenkinsci.plugins.deploy.weblogic.task.TaskStatusUnSuccesfullPredicate;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Index of the last successful deployment of each project, read by {@link PrintingWebLogicDeploymentLastSuccessResultAction}.
+ * <p>
+ * The index is kept in <code>weblogic-deployment-last-success.xml</code> in the project directory and updated when
+ * a build completes or is deleted. The builds are scanned only when this file doesn't exist yet
+ * or when the build indexed is deleted.
+ *
+ * @author rchaumie
+ *
+ */
+public final class LastSuccessfulDeploymentIndex {
+
+	private static final Logger LOGGER = Logger.getLogger(LastSuccessfulDeploymentIndex.class.getName());
+
+	static final String INDEX_FILE_NAME = "weblogic-deployment-last-success.xml";
+
+	private static final XStream2 XSTREAM = new XStream2();
+
+	static {
+		XSTREAM.processAnnotations(Entry.class);
+	}
+
+	/**
+	 * Index charge par projet
+	 */
+	private static final Map<AbstractProject<?, ?>, Entry> INDEX = new WeakHashMap<AbstractProject<?, ?>, Entry>();
+
+	private LastSuccessfulDeploymentIndex(){}
+
+	/**
+	 *
+	 * @param project
+	 * @return the last successful deployment of the project, null if none
+	 */
+	public static WebLogicDeployment get(AbstractProject<?, ?> project) {
+		synchronized (INDEX) {
+			return getEntry(project).lastDeployment;
+		}
+	}
+
+	/**
+	 *
+	 * @param build the build completed
+	 */
+	static void onCompleted(AbstractBuild<?, ?> build) {
+		if(! isSuccessfulDeployment(build)){
+			return;
+		}
+		AbstractProject<?, ?> project = build.getProject();
+		synchronized (INDEX) {
+			Entry entry = getEntry(project);
+			if(entry.lastDeployment == null || entry.lastDeployment.getBuildNumber() < build.getNumber()){
+				entry.lastDeployment = new WebLogicDeployment(build.getNumber(), build.getTime(), null);
+				save(project, entry);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param build the build being deleted
+	 */
+	static void onDeleted(AbstractBuild<?, ?> build) {
+		AbstractProject<?, ?> project = build.getProject();
+		synchronized (INDEX) {
+			// projet sans deploiement indexe
+			if(! INDEX.containsKey(project) && ! getFile(project).exists()){
+				return;
+			}
+			Entry entry = getEntry(project);
+			if(entry.lastDeployment != null && entry.lastDeployment.getBuildNumber() == build.getNumber()){
+				entry.lastDeployment = scan(project, build.getNumber());
+				save(project, entry);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param project
+	 * @return
+	 */
+	private static Entry getEntry(AbstractProject<?, ?> project) {
+		Entry entry = INDEX.get(project);
+		if(entry != null){
+			return entry;
+		}
+
+		XmlFile file = getFile(project);
+		if(file.exists()){
+			try {
+				entry = (Entry) file.read();
+			} catch (IOException ioe) {
+				LOGGER.log(Level.WARNING, "Unable to read " + file + ". The builds of " + project.getFullName() + " are scanned.", ioe);
+			}
+		}
+		if(entry == null){
+			entry = new Entry();
+			entry.lastDeployment = scan(project, -1);
+			save(project, entry);
+		}
+		INDEX.put(project, entry);
+		return entry;
+	}
+
+	/**
+	 *
+	 * @param project
+	 * @param excludedBuildNumber
+	 * @return the last successful deployment found in the builds of the project
+	 */
+	private static WebLogicDeployment scan(AbstractProject<?, ?> project, int excludedBuildNumber) {
+		for(AbstractBuild<?, ?> build : project.getBuilds()){
+			if(build.getNumber() != excludedBuildNumber && isSuccessfulDeployment(build)){
+				return new WebLogicDeployment(build.getNumber(), build.getTime(), null);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 *
+	 * @param build
+	 * @return
+	 */
+	private static boolean isSuccessfulDeployment(AbstractBuild<?, ?> build) {
+		WatchingWeblogicDeploymentAction action = build.getAction(WatchingWeblogicDeploymentAction.class);
+		// sans resultat (deploiement interrompu ou en cours), le build n'est pas un deploiement reussi
+		return action != null && CollectionUtils.isNotEmpty(action.getResults())
+				&& ! CollectionUtils.exists(action.getResults(), new TaskStatusUnSuccesfullPredicate());
+	}
+
+	/**
+	 *
+	 * @param project
+	 * @param entry
+	 */
+	private static void save(AbstractProject<?, ?> project, Entry entry) {
+		XmlFile file = getFile(project);
+		try {
+			file.write(entry);
+		} catch (IOException ioe) {
+			LOGGER.log(Level.WARNING, "Unable to save " + file, ioe);
+		}
+	}
+
+	/**
+	 *
+	 * @param project
+	 * @return
+	 */
+	private static XmlFile getFile(AbstractProject<?, ?> project) {
+		return new XmlFile(XSTREAM, new File(project.getRootDir(), INDEX_FILE_NAME));
+	}
+
+	/**
+	 *
+	 */
+	@XStreamAlias("weblogic-deployment-last-success")
+	private static final class Entry {
+
+		private WebLogicDeployment lastDeployment;
+	}
+
+	/**
+	 * Mise a jour de l'index a la fin et a la suppression des builds
+	 */
+	@Extension
+	public static class Listener extends RunListener<AbstractBuild<?, ?>> {
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		public Listener() {
+			super((Class) AbstractBuild.class);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.listeners.RunListener#onCompleted(hudson.model.Run, hudson.model.TaskListener)
+		 */
+		@Override
+		public void onCompleted(AbstractBuild<?, ?> build, TaskListener listener) {
+			LastSuccessfulDeploymentIndex.onCompleted(build);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.listeners.RunListener#onDeleted(hudson.model.Run)
+		 */
+		@Override
+		public void onDeleted(AbstractBuild<?, ?> build) {
+			LastSuccessfulDeploymentIndex.onDeleted(build);
+		}
+	}
+}
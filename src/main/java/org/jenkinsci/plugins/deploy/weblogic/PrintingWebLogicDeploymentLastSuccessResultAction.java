@@ -1,15 +1,10 @@
 package org.jenkinsci.plugins.deploy.weblogic;
 
 import hudson.model.Action;
-import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 
-import java.util.List;
-
-import org.apache.commons.collections.CollectionUtils;
 import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicDeployment;
 import org.jenkinsci.plugins.deploy.weblogic.properties.WebLogicDeploymentPluginConstantes;
-import org.jenkinsci.plugins.deploy.weblogic.task.TaskStatusUnSuccesfullPredicate;
 
 
 public class PrintingWebLogicDeploymentLastSuccessResultAction implements Action  {
@@ -32,18 +27,8 @@ public class PrintingWebLogicDeploymentLastSuccessResultAction implements Action
 	 */
 	public PrintingWebLogicDeploymentLastSuccessResultAction(AbstractProject<?, ?> project){
 		super();
-		
-		List<AbstractBuild<?, ?>> builds = (List<AbstractBuild<?, ?>>) project.getBuilds();
-
-        if(builds == null) { return;}
-
-		for (AbstractBuild<?, ?> build : builds) {
-			WatchingWeblogicDeploymentAction action = build.getAction(WatchingWeblogicDeploymentAction.class);
-				if(action != null && ! CollectionUtils.exists(action.getResults(), new TaskStatusUnSuccesfullPredicate())){
-					lastDeploymentSucessfull = new WebLogicDeployment(build.getNumber(), build.getTime(), null);
-					break;
-				}
-		}
+		// lecture de l'index maintenu a la fin de chaque build (pas de parcours des builds)
+		lastDeploymentSucessfull = LastSuccessfulDeploymentIndex.get(project);
 	}
 	
 	/*
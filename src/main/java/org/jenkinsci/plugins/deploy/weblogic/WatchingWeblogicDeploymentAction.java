@@ -6,11 +6,21 @@ package org.jenkinsci.plugins.deploy.weblogic;
 import hudson.model.Action;
 import hudson.model.AbstractBuild;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTask;
 import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTaskResult;
 import org.jenkinsci.plugins.deploy.weblogic.properties.WebLogicDeploymentPluginConstantes;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
 import org.kohsuke.stapler.export.Exported;
 import org.kohsuke.stapler.export.ExportedBean;
 
@@ -30,11 +40,21 @@ public class WatchingWeblogicDeploymentAction implements Action, Serializable {
 	
 	private static transient final String urlName = "deployment";
 	
+	/**
+	 * Taille maximale d'une portion de log renvoyee par {@link #doProgressiveLog(StaplerRequest, StaplerResponse)}
+	 */
+	private static transient final int LOG_CHUNK_SIZE = 256 * 1024;
+	
 	private AbstractBuild<?, ?> build;
 	
 	@Exported(name="results")
 	public List<DeploymentTaskResult> results;
 	
+	/**
+	 * Taches en cours (avant la fin du deploiement)
+	 */
+	private transient List<DeploymentTask> tasks;
+	
 	/**
 	 * 
 	 */
@@ -52,6 +72,17 @@ public class WatchingWeblogicDeploymentAction implements Action, Serializable {
 		this.results = results;
 	}
 	
+	/**
+	 * Action added when the deployment starts, its results are set at the end (see {@link #setResults(List)}).
+	 * 
+	 * @param b
+	 * @param tasks the tasks being run
+	 */
+	public WatchingWeblogicDeploymentAction(AbstractBuild<?, ?> b, List<DeploymentTask> tasks){
+		this.build = b;
+		this.tasks = tasks;
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see hudson.model.Action#getDisplayName()
@@ -83,6 +114,85 @@ public class WatchingWeblogicDeploymentAction implements Action, Serializable {
 	public List<DeploymentTaskResult> getResults() {
 		return results;
 	}
+	
+	/**
+	 * @param results the results of deployment tasks
+	 */
+	public void setResults(List<DeploymentTaskResult> results) {
+		this.results = results;
+	}
+	
+	/**
+	 * @return true while the tasks are running
+	 */
+	public boolean isDeploying() {
+		return results == null;
+	}
+	
+	/**
+	 * @return the tasks being run (empty once the deployment is over)
+	 */
+	public List<DeploymentTask> getTasks() {
+		return results == null && tasks != null ? tasks : new ArrayList<DeploymentTask>();
+	}
+	
+	/**
+	 * Serves a range of a task log, as {@link hudson.console.AnnotatedLargeText#doProgressiveText} does :
+	 * the <code>start</code> parameter is the offset to read from, the <code>X-Text-Size</code> header the offset
+	 * to ask next and <code>X-More-Data</code> is true while the log may grow or has not been entirely sent.
+	 * 
+	 * @param req
+	 * @param rsp
+	 * @throws IOException
+	 */
+	public void doProgressiveLog(StaplerRequest req, StaplerResponse rsp) throws IOException {
+		String taskId = req.getParameter("id");
+		if(! isKnownTask(taskId)){
+			rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		
+		// etat lu avant la taille : la fin d'un log complet n'est jamais manquee
+		boolean deploying = isDeploying();
+		long length = WeblogicDeploymentPluginLog.getLogLength(build, taskId);
+		long start = Math.min(Math.max(NumberUtils.toLong(req.getParameter("start"), 0), 0), length);
+		// un log complet (compresse) est servi d'un seul tenant : il n'est decompresse qu'une fois
+		long end = WeblogicDeploymentPluginLog.isCompressed(build, taskId) ? length : Math.min(length, start + LOG_CHUNK_SIZE);
+		
+		rsp.setContentType("text/plain;charset=UTF-8");
+		rsp.setStatus(HttpServletResponse.SC_OK);
+		rsp.addHeader("X-Text-Size", String.valueOf(end));
+		if(deploying || end < length){
+			rsp.addHeader("X-More-Data", "true");
+		}
+		OutputStream out = rsp.getOutputStream();
+		WeblogicDeploymentPluginLog.writeLogTo(build, taskId, start, (int) Math.min(end - start, Integer.MAX_VALUE), out);
+		out.flush();
+	}
+	
+	/**
+	 * 
+	 * @param taskId
+	 * @return
+	 */
+	private boolean isKnownTask(String taskId) {
+		if(StringUtils.isBlank(taskId)){
+			return false;
+		}
+		if(results != null){
+			for(DeploymentTaskResult result : results){
+				if(result.getTask() != null && taskId.equals(result.getTask().getId())){
+					return true;
+				}
+			}
+		}
+		for(DeploymentTask task : getTasks()){
+			if(taskId.equals(task.getId())){
+				return true;
+			}
+		}
+		return false;
+	}
 
 	/**
 	 * 
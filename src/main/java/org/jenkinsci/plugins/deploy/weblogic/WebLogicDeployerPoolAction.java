@@ -0,0 +1,133 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic;
+
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Computer;
+import hudson.model.TransientComputerActionFactory;
+import hudson.remoting.Callable;
+import hudson.remoting.VirtualChannel;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jenkins.model.Jenkins;
+
+import org.jenkinsci.plugins.deploy.weblogic.WeblogicDeploymentPlugin.WeblogicDeploymentPluginDescriptor;
+import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicDeployerEngineMode;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerPool;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerPoolStatistics;
+import org.jenkinsci.plugins.deploy.weblogic.properties.WebLogicDeploymentPluginConstantes;
+
+/**
+ * Displays the statistics of the warm deployer JVM pool of a node.
+ *
+ * @author rchaumie
+ *
+ */
+public class WebLogicDeployerPoolAction implements Action {
+
+	private static final Logger LOGGER = Logger.getLogger(WebLogicDeployerPoolAction.class.getName());
+
+	private static transient final String iconFileName = WebLogicDeploymentPluginConstantes.PLUGIN_RESOURCES_PATH + "/icons/48x48/BEA.png";
+
+	private static transient final String urlName = "weblogic-deployer-pool";
+
+	private final Computer computer;
+
+	/**
+	 *
+	 * @param computer
+	 */
+	public WebLogicDeployerPoolAction(Computer computer) {
+		this.computer = computer;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getDisplayName()
+	 */
+	public String getDisplayName() {
+		return Messages.WebLogicDeployerPoolAction_DisplayName();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getIconFileName()
+	 */
+	public String getIconFileName() {
+		// lien affiche uniquement si le pool est utilise
+		WeblogicDeploymentPluginDescriptor descriptor = Jenkins.getInstance().getDescriptorByType(WeblogicDeploymentPluginDescriptor.class);
+		if(descriptor == null || descriptor.getDeployerEngineMode() != WebLogicDeployerEngineMode.POOLED){
+			return null;
+		}
+		return iconFileName;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getUrlName()
+	 */
+	public String getUrlName() {
+		return urlName;
+	}
+
+	/**
+	 * @return the computer
+	 */
+	public Computer getComputer() {
+		return computer;
+	}
+
+	/**
+	 *
+	 * @return the statistics of the pool, null if the node is offline
+	 */
+	public WebLogicDeployerPoolStatistics getStatistics() {
+		VirtualChannel channel = computer.getChannel();
+		if(channel == null){
+			return null;
+		}
+		try {
+			return channel.call(new StatisticsCallable());
+		} catch (IOException ioe) {
+			LOGGER.log(Level.FINE, "Unable to get the WebLogic deployer pool statistics of " + computer.getName(), ioe);
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		return null;
+	}
+
+	/**
+	 *
+	 */
+	private static final class StatisticsCallable implements Callable<WebLogicDeployerPoolStatistics, IOException> {
+
+		private static final long serialVersionUID = 3365427712981574520L;
+
+		public WebLogicDeployerPoolStatistics call() throws IOException {
+			return WebLogicDeployerPool.get().getStatistics();
+		}
+	}
+
+	/**
+	 *
+	 */
+	@Extension
+	public static class Factory extends TransientComputerActionFactory {
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.TransientComputerActionFactory#createFor(hudson.model.Computer)
+		 */
+		@Override
+		public Collection<? extends Action> createFor(Computer target) {
+			return Collections.singletonList(new WebLogicDeployerPoolAction(target));
+		}
+	}
+}
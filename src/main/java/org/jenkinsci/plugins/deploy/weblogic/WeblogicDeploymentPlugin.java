@@ -18,6 +18,7 @@ import hudson.model.JDK;
 import hudson.model.Job;
 import hudson.model.Result;
 import hudson.model.Saveable;
+import hudson.model.TaskListener;
 import hudson.model.TopLevelItem;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.BuildStepMonitor;
@@ -30,8 +31,6 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URI;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -47,29 +46,35 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.deploy.weblogic.configuration.ConfigurationFileWatcher;
+import org.jenkinsci.plugins.deploy.weblogic.configuration.HttpConfigurationSource;
 import org.jenkinsci.plugins.deploy.weblogic.configuration.WeblogicDeploymentConfiguration;
+import org.jenkinsci.plugins.deploy.weblogic.configuration.WeblogicEnvironmentSnapshot;
 import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTask;
 import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTaskResult;
+import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicDeployerEngineMode;
 import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicDeploymentStatus;
 import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicOperationProcotol;
 import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicPreRequisteStatus;
 import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicStageMode;
 import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment;
 import org.jenkinsci.plugins.deploy.weblogic.data.policy.AbstractDeploymentPolicy;
-import org.jenkinsci.plugins.deploy.weblogic.exception.DeploymentTaskException;
 import org.jenkinsci.plugins.deploy.weblogic.exception.LoadingFileException;
 import org.jenkinsci.plugins.deploy.weblogic.jdk.JdkToolService;
 import org.jenkinsci.plugins.deploy.weblogic.properties.WebLogicDeploymentPluginConstantes;
+import org.jenkinsci.plugins.deploy.weblogic.task.DeploymentTaskExecutor;
 import org.jenkinsci.plugins.deploy.weblogic.task.DeploymentTaskService;
 import org.jenkinsci.plugins.deploy.weblogic.task.PreRequisiteStatusUnSuccesfullPredicate;
 import org.jenkinsci.plugins.deploy.weblogic.task.TaskStatusUnSuccesfullPredicate;
 import org.jenkinsci.plugins.deploy.weblogic.util.BuildCauseUtils;
 import org.jenkinsci.plugins.deploy.weblogic.util.DeployerClassPathUtils;
+import org.jenkinsci.plugins.deploy.weblogic.util.FTPUtils;
 import org.jenkinsci.plugins.deploy.weblogic.util.URLUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
+import org.xml.sax.SAXException;
 
 import com.google.inject.Inject;
 
@@ -84,6 +89,12 @@ public class WeblogicDeploymentPlugin extends Recorder {
 
 	public static transient final String DEFAULT_JAVA_OPTIONS_DEPLOYER = "-Xms256M -Xmx256M";
 	
+	public static transient final String DEFAULT_EXCLUDED_SCAN_DIRECTORIES = ".git,.svn,.hg,CVS";
+	
+	public static transient final int DEFAULT_DEPLOYER_POOL_MAX_SIZE = 2;
+	
+	public static transient final int DEFAULT_DEPLOYER_POOL_IDLE_TIMEOUT = 30;
+	
 	@Inject
 	private DeploymentTaskService deploymentTaskService;
 	
@@ -97,6 +108,16 @@ public class WeblogicDeploymentPlugin extends Recorder {
 	 */
 	private boolean forceStopOnFirstFailure = false;
 	
+	/**
+	 * Nombre maximum de taches de deploiement executees en parallele (1 : execution sequentielle)
+	 */
+	private int maxParallelTasks = 1;
+	
+	/**
+	 * Nombre maximum de taches executees en parallele sur un meme environnement (0 : pas de limite)
+	 */
+	private int maxParallelTasksPerEnvironment = 1;
+	
 	/**
 	 * strategies de deploiement (rattache a un trigger de build)
 	 */
@@ -152,6 +173,8 @@ public class WeblogicDeploymentPlugin extends Recorder {
 	 * @param baseResourcesGeneratedDirectory
 	 * @param deploymentPlan
 	 * @param policies
+	 * @param maxParallelTasks
+	 * @param maxParallelTasksPerEnvironment
 	 * @since 2.0
 	 */
 	@DataBoundConstructor
@@ -159,11 +182,11 @@ public class WeblogicDeploymentPlugin extends Recorder {
     		String deployedProjectsDependencies, boolean isDeployingOnlyWhenUpdates, boolean forceStopOnFirstFailure,
     		boolean buildUnstableWhenDeploymentUnstable, String weblogicEnvironmentTargetedName, String deploymentName, 
     		String deploymentTargets, boolean isLibrary, String builtResourceRegexToDeploy, String baseResourcesGeneratedDirectory, 
-    		String deploymentPlan, List<AbstractDeploymentPolicy> policies) {
+    		String deploymentPlan, List<AbstractDeploymentPolicy> policies, int maxParallelTasks, int maxParallelTasksPerEnvironment) {
         // ATTENTION : Appele au moment de la sauvegarde : On conserve la compatibilite ascendante
 		this.tasks = CollectionUtils.isNotEmpty(tasks) ? tasks : Arrays.asList(new DeploymentTask[]{
 				new DeploymentTask(null, null, weblogicEnvironmentTargetedName, deploymentName, deploymentTargets, isLibrary,
-						builtResourceRegexToDeploy, baseResourcesGeneratedDirectory , null, null, null, null, deploymentPlan, null)
+						builtResourceRegexToDeploy, baseResourcesGeneratedDirectory , null, null, null, null, deploymentPlan, null, false, null, false, false, 0, 0, false, null)
 				});
 		this.mustExitOnFailure = mustExitOnFailure;
 		this.selectedDeploymentStrategyIds = selectedDeploymentStrategyIds;
@@ -171,11 +194,20 @@ public class WeblogicDeploymentPlugin extends Recorder {
         this.isDeployingOnlyWhenUpdates = isDeployingOnlyWhenUpdates;
         this.forceStopOnFirstFailure = forceStopOnFirstFailure;
         this.buildUnstableWhenDeploymentUnstable = buildUnstableWhenDeploymentUnstable;
+        this.maxParallelTasks = maxParallelTasks;
+        this.maxParallelTasksPerEnvironment = maxParallelTasksPerEnvironment;
 		this.policies = new DescribableList<AbstractDeploymentPolicy, Descriptor<AbstractDeploymentPolicy>>(Saveable.NOOP, Util.fixNull(policies));
 		// TODO Si on veut faire du controle
     }
 
 	protected Object readResolve() {
+		// Configuration anterieure a l'execution parallele : execution sequentielle
+		if (maxParallelTasks < 1) {
+			maxParallelTasks = 1;
+		}
+		if (maxParallelTasksPerEnvironment < 1) {
+			maxParallelTasksPerEnvironment = 1;
+		}
 		if (CollectionUtils.isNotEmpty(selectedDeploymentStrategyIds)) {
 			this.policies = new DescribableList<AbstractDeploymentPolicy, Descriptor<AbstractDeploymentPolicy>>(Saveable.NOOP, Util.fixNull(toDeploymentPolicyList(clearDeploymentStrategyIds(selectedDeploymentStrategyIds), isDeployingOnlyWhenUpdates)));
 		}
@@ -269,6 +301,20 @@ public class WeblogicDeploymentPlugin extends Recorder {
 		return forceStopOnFirstFailure;
 	}
 
+	/**
+	 * @return the maxParallelTasks
+	 */
+	public int getMaxParallelTasks() {
+		return maxParallelTasks;
+	}
+
+	/**
+	 * @return the maxParallelTasksPerEnvironment
+	 */
+	public int getMaxParallelTasksPerEnvironment() {
+		return maxParallelTasksPerEnvironment;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see hudson.tasks.BuildStepCompatibilityLayer#getProjectAction(hudson.model.AbstractProject)
@@ -286,9 +332,9 @@ public class WeblogicDeploymentPlugin extends Recorder {
 	public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
 
         //Pre-requis ko , arret du traitement
-        List<DeploymentTaskResult> results = new ArrayList<DeploymentTaskResult>();
         WebLogicPreRequisteStatus check = checkPreRequisites(build, listener);
         if(check != WebLogicPreRequisteStatus.OK){
+        	List<DeploymentTaskResult> results = new ArrayList<DeploymentTaskResult>();
         	results.add(new DeploymentTaskResult(check, WebLogicDeploymentStatus.DISABLED, null, null));
         	return exitPerformAction(build, listener, results);
         }
@@ -298,16 +344,30 @@ public class WeblogicDeploymentPlugin extends Recorder {
 			this.deploymentTaskService = Jenkins.getInstance().getInjector().getInstance(DeploymentTaskService.class);
 		}
 		
-		// Parcours des taches de deploiement
-		for(DeploymentTask task : getTasks()){
-			try {
-				results.add(this.deploymentTaskService.perform(task, getDescriptor().getJdkSelected(), build, listener, launcher));
-			} catch(DeploymentTaskException dte) {
-				results.add(dte.getResult());
-				if(getForceStopOnFirstFailure()){
-					break;
+		// Action ajoutee des le debut pour suivre les logs pendant le deploiement
+		WatchingWeblogicDeploymentAction deploymentAction = new WatchingWeblogicDeploymentAction(build, getTasks());
+		build.addAction(deploymentAction);
+		
+		// Parcours des taches de deploiement (sequentiel ou parallele)
+		DeploymentTaskExecutor executor = new DeploymentTaskExecutor(this.deploymentTaskService, maxParallelTasks,
+				maxParallelTasksPerEnvironment, getForceStopOnFirstFailure());
+		List<DeploymentTaskResult> results = null;
+		try {
+			results = executor.execute(getTasks(), getDescriptor().getJdkSelected(), build, listener, launcher);
+		} finally {
+			// Execution interrompue (abandon, erreur) : le deploiement est termine, les taches sont abandonnees
+			if(results == null){
+				List<DeploymentTaskResult> abortedResults = new ArrayList<DeploymentTaskResult>();
+				for(DeploymentTask task : getTasks()){
+					abortedResults.add(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.ABORTED, task, null));
 				}
+				deploymentAction.setResults(abortedResults);
 			}
+			// Fermeture des sessions FTP partagees par les taches
+			FTPUtils.releaseSessions(build, listener);
+			// Compression des logs de deploiement et purge de ceux des anciens builds
+			WeblogicDeploymentPluginLog.compressLogs(build);
+			WeblogicDeploymentPluginLog.purgeLogs(build, getDescriptor().getLogRetentionBuildCount());
 		}
 		
         return exitPerformAction(build, listener, results);
@@ -418,13 +478,18 @@ public class WeblogicDeploymentPlugin extends Recorder {
 		
 		private boolean pluginDisabled;
 		
-		private transient WeblogicEnvironment[] weblogicEnvironments;
+		private transient volatile WeblogicEnvironmentSnapshot weblogicEnvironments;
 		
 		/**
 		 * Pattern des artifacts a exclure
 		 */
 		private String excludedArtifactNamePattern;
 		
+		/**
+		 * repertoires ignores lors de la recherche de l'artifact dans le workspace
+		 */
+		private String excludedScanDirectories;
+		
 		/**
 		 * 
 		 */
@@ -440,6 +505,31 @@ public class WeblogicDeploymentPlugin extends Recorder {
 		 */
 		private String javaOpts;
 		
+		/**
+		 * mode d'execution des commandes weblogic.Deployer
+		 */
+		private WebLogicDeployerEngineMode deployerEngineMode;
+		
+		/**
+		 * nombre maximum de JVM chaudes par noeud (mode POOLED)
+		 */
+		private int deployerPoolMaxSize;
+		
+		/**
+		 * duree (minutes) au dela de laquelle une JVM inutilisee est arretee (mode POOLED)
+		 */
+		private int deployerPoolIdleTimeout;
+		
+		/**
+		 * nombre de builds dont les logs de deploiement sont conserves (0 : tous)
+		 */
+		private int logRetentionBuildCount;
+		
+		/**
+		 * fichier de configuration servi en HTTP (copie locale et revalidation)
+		 */
+		private transient HttpConfigurationSource httpConfigurationSource;
+		
 		/**
 		 * 
 		 */
@@ -448,7 +538,8 @@ public class WeblogicDeploymentPlugin extends Recorder {
 			
 			//on charge les annotations XStream
 			Jenkins.XSTREAM2.processAnnotations(
-	        		new Class[]{org.jenkinsci.plugins.deploy.weblogic.configuration.WeblogicDeploymentConfiguration.class, org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment.class});
+	        		new Class[]{org.jenkinsci.plugins.deploy.weblogic.configuration.WeblogicDeploymentConfiguration.class, org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment.class,
+	        		org.jenkinsci.plugins.deploy.weblogic.data.WeblogicCluster.class, org.jenkinsci.plugins.deploy.weblogic.data.WeblogicClusterMember.class});
 			
 			//charge les donnees de configuration du plugin dans l'instance
 			load();
@@ -466,6 +557,23 @@ public class WeblogicDeploymentPlugin extends Recorder {
 			if(StringUtils.isBlank(javaOpts)){
 				javaOpts = DEFAULT_JAVA_OPTIONS_DEPLOYER;
 			}
+			if(excludedScanDirectories == null){
+				excludedScanDirectories = DEFAULT_EXCLUDED_SCAN_DIRECTORIES;
+			}
+			//un nouveau JVM par commande par defaut
+			if(deployerEngineMode == null){
+				deployerEngineMode = WebLogicDeployerEngineMode.FORKED;
+			}
+			//l'execution dans la JVM de l'agent est remplacee par les JVM pretes du noeud
+			if(deployerEngineMode == WebLogicDeployerEngineMode.IN_PROCESS){
+				deployerEngineMode = WebLogicDeployerEngineMode.POOLED;
+			}
+			if(deployerPoolMaxSize < 1){
+				deployerPoolMaxSize = DEFAULT_DEPLOYER_POOL_MAX_SIZE;
+			}
+			if(deployerPoolIdleTimeout < 1){
+				deployerPoolIdleTimeout = DEFAULT_DEPLOYER_POOL_IDLE_TIMEOUT;
+			}
 		}
 		
 		/**
@@ -473,12 +581,22 @@ public class WeblogicDeploymentPlugin extends Recorder {
 		 * @return
 		 */
 		public WeblogicEnvironment[] getWeblogicEnvironments() {
-			
-			if(weblogicEnvironments == null){
+			WeblogicEnvironmentSnapshot snapshot = getWeblogicEnvironmentSnapshot();
+			return snapshot.isEmpty() ? null : snapshot.getEnvironments();
+		}
+		
+		/**
+		 * The snapshot is replaced as a whole when the configuration is reloaded : it can be read without lock.
+		 * 
+		 * @return the environments loaded (indexed)
+		 */
+		public WeblogicEnvironmentSnapshot getWeblogicEnvironmentSnapshot() {
+			WeblogicEnvironmentSnapshot snapshot = weblogicEnvironments;
+			if(snapshot == null){
 				loadWeblogicEnvironments();
+				snapshot = weblogicEnvironments;
 			}
-			
-			return weblogicEnvironments;
+			return snapshot == null ? WeblogicEnvironmentSnapshot.EMPTY : snapshot;
 		}
 		
 		/*
@@ -530,6 +648,20 @@ public class WeblogicDeploymentPlugin extends Recorder {
 			return excludedArtifactNamePattern;
 		}
 		
+		/**
+		 * @return the excludedScanDirectories
+		 */
+		public String getExcludedScanDirectories() {
+			return excludedScanDirectories;
+		}
+
+		/**
+		 * @param excludedScanDirectories the excludedScanDirectories to set
+		 */
+		public void setExcludedScanDirectories(String excludedScanDirectories) {
+			this.excludedScanDirectories = excludedScanDirectories;
+		}
+		
 		/**
 		 * @return the extraClasspath
 		 */
@@ -574,6 +706,69 @@ public class WeblogicDeploymentPlugin extends Recorder {
 			this.jdkSelected = jdkSelected;
 		}
 
+		/**
+		 * @return the deployerEngineMode
+		 */
+		public WebLogicDeployerEngineMode getDeployerEngineMode() {
+			return deployerEngineMode;
+		}
+
+		/**
+		 * @param deployerEngineMode the deployerEngineMode to set
+		 */
+		public void setDeployerEngineMode(WebLogicDeployerEngineMode deployerEngineMode) {
+			this.deployerEngineMode = deployerEngineMode;
+		}
+		
+		/**
+		 * @return the deployerPoolMaxSize
+		 */
+		public int getDeployerPoolMaxSize() {
+			return deployerPoolMaxSize;
+		}
+
+		/**
+		 * @param deployerPoolMaxSize the deployerPoolMaxSize to set
+		 */
+		public void setDeployerPoolMaxSize(int deployerPoolMaxSize) {
+			this.deployerPoolMaxSize = deployerPoolMaxSize;
+		}
+
+		/**
+		 * @return the deployerPoolIdleTimeout (minutes)
+		 */
+		public int getDeployerPoolIdleTimeout() {
+			return deployerPoolIdleTimeout;
+		}
+
+		/**
+		 * @param deployerPoolIdleTimeout the deployerPoolIdleTimeout to set (minutes)
+		 */
+		public void setDeployerPoolIdleTimeout(int deployerPoolIdleTimeout) {
+			this.deployerPoolIdleTimeout = deployerPoolIdleTimeout;
+		}
+		
+		/**
+		 * @return the number of builds whose deployment logs are kept (0 : all)
+		 */
+		public int getLogRetentionBuildCount() {
+			return logRetentionBuildCount;
+		}
+
+		/**
+		 * @param logRetentionBuildCount the logRetentionBuildCount to set (0 : all)
+		 */
+		public void setLogRetentionBuildCount(int logRetentionBuildCount) {
+			this.logRetentionBuildCount = logRetentionBuildCount;
+		}
+		
+		/**
+		 * @return the list of available deployer engine modes
+		 */
+		public WebLogicDeployerEngineMode[] getDeployerEngineModes() {
+			return new WebLogicDeployerEngineMode[]{WebLogicDeployerEngineMode.FORKED, WebLogicDeployerEngineMode.POOLED};
+		}
+		
 		/**
 		 * @return the list of available stage modes
 		 */
@@ -597,6 +792,7 @@ public class WeblogicDeploymentPlugin extends Recorder {
 			
 			pluginDisabled = json.getBoolean("pluginDisabled");
 			excludedArtifactNamePattern = json.getString("excludedArtifactNamePattern");
+			excludedScanDirectories = json.optString("excludedScanDirectories");
 			
 			// Sauvegarde de la valeur par defaut
 			if(StringUtils.isNotBlank(json.getString("extraClasspath"))){
@@ -607,6 +803,25 @@ public class WeblogicDeploymentPlugin extends Recorder {
 			
 			javaOpts = json.getString("javaOpts");
 			
+			if(StringUtils.isNotBlank(json.optString("deployerEngineMode"))){
+				deployerEngineMode = WebLogicDeployerEngineMode.valueOf(json.getString("deployerEngineMode"));
+				if(deployerEngineMode == WebLogicDeployerEngineMode.IN_PROCESS){
+					deployerEngineMode = WebLogicDeployerEngineMode.POOLED;
+				}
+			} else {
+				deployerEngineMode = WebLogicDeployerEngineMode.FORKED;
+			}
+			
+			deployerPoolMaxSize = json.optInt("deployerPoolMaxSize", DEFAULT_DEPLOYER_POOL_MAX_SIZE);
+			if(deployerPoolMaxSize < 1){
+				deployerPoolMaxSize = DEFAULT_DEPLOYER_POOL_MAX_SIZE;
+			}
+			deployerPoolIdleTimeout = json.optInt("deployerPoolIdleTimeout", DEFAULT_DEPLOYER_POOL_IDLE_TIMEOUT);
+			if(deployerPoolIdleTimeout < 1){
+				deployerPoolIdleTimeout = DEFAULT_DEPLOYER_POOL_IDLE_TIMEOUT;
+			}
+			logRetentionBuildCount = Math.max(json.optInt("logRetentionBuildCount", 0), 0);
+			
 			// Sauvegarde du jdk selectionne
 			jdkSelected = json.getString("jdkSelected");
 			
@@ -634,19 +849,24 @@ public class WeblogicDeploymentPlugin extends Recorder {
 				}
 
                 if(configurationFilePath.startsWith(URLUtils.HTTP_PROTOCOL_PREFIX)){
-		        	URI uri = new URI(configurationFilePath);
-		        	URL url = uri.toURL();
-		        	configurationFileInputStream =  url.openStream();
+                	// derniere configuration valide (telechargee uniquement en l'absence de copie locale)
+                	weblogicDeploymentConfiguration = getHttpConfigurationSource().get();
 		        } else if (new File(configurationFilePath).exists()) {
+		        	// schema verifie pour information : seul le rechargement a chaud (ConfigurationFileWatcher) rejette un fichier invalide
+		        	try {
+		        		ConfigurationFileWatcher.validateConfigurationFile(new File(configurationFilePath));
+		        	} catch (SAXException se) {
+		        		logger.log(Level.WARNING, "The configuration file " + configurationFilePath + " doesn't match plugin-configuration.xsd : " + se.getMessage()
+		        				+ ". It is loaded anyway, but its next changes will be rejected until it is fixed.");
+		        	}
 		        	configurationFileInputStream = new FileInputStream(new File(configurationFilePath));
+		        	weblogicDeploymentConfiguration = (WeblogicDeploymentConfiguration) Jenkins.XSTREAM2.fromXML(configurationFileInputStream);
 		        } else {
 		        	throw new LoadingFileException("The file content doesn't exists");
 		        }
 		        
-		        weblogicDeploymentConfiguration = (WeblogicDeploymentConfiguration) Jenkins.XSTREAM2.fromXML(configurationFileInputStream);
-		        
 		        if(weblogicDeploymentConfiguration != null && ! ArrayUtils.isEmpty(weblogicDeploymentConfiguration.getWeblogicEnvironments())){
-		        	weblogicEnvironments = weblogicDeploymentConfiguration.getWeblogicEnvironments();
+		        	weblogicEnvironments = new WeblogicEnvironmentSnapshot(weblogicDeploymentConfiguration.getWeblogicEnvironments());
 		        }
 		    
 			} catch(Exception e){
@@ -657,6 +877,49 @@ public class WeblogicDeploymentPlugin extends Recorder {
         	}
 		}
 
+		/**
+		 * Replaces the environments (configuration file reloaded).
+		 * 
+		 * @param environments
+		 */
+		public void updateWeblogicEnvironments(WeblogicEnvironment[] environments) {
+			weblogicEnvironments = new WeblogicEnvironmentSnapshot(environments);
+		}
+		
+		/**
+		 * Revalidates the configuration file when it is served over HTTP. The last valid configuration is kept
+		 * if the server can't be reached or returns an invalid file.
+		 * 
+		 * @param listener
+		 */
+		public void refreshWeblogicEnvironments(TaskListener listener) {
+			if(StringUtils.isBlank(configurationFilePath) || ! configurationFilePath.startsWith(URLUtils.HTTP_PROTOCOL_PREFIX)){
+				return;
+			}
+			
+			HttpConfigurationSource source = getHttpConfigurationSource();
+			try {
+				if(source.refresh()){
+					weblogicEnvironments = new WeblogicEnvironmentSnapshot(source.get().getWeblogicEnvironments());
+					listener.getLogger().println("The configuration " + source.getUrl() + " has been updated.");
+				}
+			} catch (Exception e) {
+				logger.log(Level.WARNING, "Unable to refresh the configuration " + source.getUrl() + ". The last valid configuration is kept.", e);
+				listener.error("Unable to refresh the configuration " + source.getUrl() + " : " + e.getMessage());
+			}
+		}
+		
+		/**
+		 * 
+		 * @return the source of the configuration file served over HTTP
+		 */
+		private synchronized HttpConfigurationSource getHttpConfigurationSource() {
+			if(httpConfigurationSource == null || ! httpConfigurationSource.getUrl().equals(configurationFilePath)){
+				httpConfigurationSource = HttpConfigurationSource.create(configurationFilePath);
+			}
+			return httpConfigurationSource;
+		}
+
 		/**
 		 * Performs on-the-fly validation of the form field 'configurationFilePath'
 		 * @param value
@@ -822,8 +1085,13 @@ public class WeblogicDeploymentPlugin extends Recorder {
 			build.setResult(Result.FAILURE);
 		}
 		
-		//Ajout de la build action
-		build.addAction(new WatchingWeblogicDeploymentAction(results, build));
+		//Ajout de la build action (ou mise a jour si ajoutee au debut du deploiement)
+		WatchingWeblogicDeploymentAction deploymentAction = build.getAction(WatchingWeblogicDeploymentAction.class);
+		if(deploymentAction != null && deploymentAction.isDeploying()){
+			deploymentAction.setResults(results);
+		} else {
+			build.addAction(new WatchingWeblogicDeploymentAction(results, build));
+		}
 		
 		listener.getLogger().println("[INFO] ------------------------------------------------------------------------");
 		listener.getLogger().println("[INFO] DEPLOYMENT " + (hasUnsuccessfullPrerequisite ? Result.UNSTABLE : (hasUnsuccessfullTask ? Result.FAILURE : Result.SUCCESS)));
@@ -1,11 +1,27 @@
 /**
- * 
+ *
  */
 package org.jenkinsci.plugins.deploy.weblogic;
 
 import hudson.model.AbstractBuild;
 
 import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 
 /**
  * @author Raphael
@@ -13,14 +29,296 @@ import java.io.File;
  */
 public class WeblogicDeploymentPluginLog {
 
+	private static final Logger LOGGER = Logger.getLogger(WeblogicDeploymentPluginLog.class.getName());
+
 	private static final String WEBLOGIC_DEPLOYMENT_LOG_FILENAME = "deploymentLog";
-	
+
+	private static final String COMPRESSED_LOG_EXTENSION = ".gz";
+
+	private static final int BUFFER_SIZE = 8192;
+
 	/**
-	 * 
+	 * Numero, par projet, du dernier build purge : les purges suivantes s'arretent a ce build
+	 * (perdu au redemarrage, la purge suivante parcourt alors tout l'historique une fois)
+	 */
+	private static final ConcurrentMap<String, Integer> PURGE_WATERMARKS = new ConcurrentHashMap<String, Integer>();
+
+	/**
+	 * Logs de deploiement (en clair ou compresses) d'un build
+	 */
+	private static final FileFilter DEPLOYMENT_LOG_FILTER = new FileFilter() {
+		public boolean accept(File file) {
+			return file.isFile() && file.getName().startsWith(WEBLOGIC_DEPLOYMENT_LOG_FILENAME + "_");
+		}
+	};
+
+	/**
+	 *
 	 * @param build
 	 * @return
 	 */
 	public static File getDeploymentLogFile(AbstractBuild<?,?> build, String deploymentId) {
 		return new File(build.getRootDir(),WEBLOGIC_DEPLOYMENT_LOG_FILENAME+"_"+deploymentId+".txt");
 	}
+
+	/**
+	 *
+	 * @param build
+	 * @param deploymentId
+	 * @return the deployment log once compressed (at the end of the deployment)
+	 */
+	public static File getCompressedDeploymentLogFile(AbstractBuild<?,?> build, String deploymentId) {
+		return new File(build.getRootDir(),WEBLOGIC_DEPLOYMENT_LOG_FILENAME+"_"+deploymentId+".txt"+COMPRESSED_LOG_EXTENSION);
+	}
+
+	/**
+	 *
+	 * @param build
+	 * @param deploymentId
+	 * @return true if the deployment log is complete and compressed
+	 */
+	public static boolean isCompressed(AbstractBuild<?,?> build, String deploymentId) {
+		return ! getDeploymentLogFile(build, deploymentId).exists() && getCompressedDeploymentLogFile(build, deploymentId).exists();
+	}
+
+	/**
+	 * Copies a range of the deployment log (decompressed if needed).
+	 * A compressed log is decompressed from its beginning : it should be read in one call.
+	 *
+	 * @param build
+	 * @param deploymentId
+	 * @param start the offset of the first byte to copy
+	 * @param maxLength the maximum number of bytes to copy
+	 * @param out
+	 * @return the offset following the last byte copied
+	 * @throws IOException
+	 */
+	public static long writeLogTo(AbstractBuild<?,?> build, String deploymentId, long start, int maxLength, OutputStream out) throws IOException {
+		File logFile = getDeploymentLogFile(build, deploymentId);
+		if(! logFile.exists()){
+			File compressedLogFile = getCompressedDeploymentLogFile(build, deploymentId);
+			return compressedLogFile.exists() ? writeCompressedLogTo(compressedLogFile, start, maxLength, out) : 0;
+		}
+
+		RandomAccessFile log = new RandomAccessFile(logFile, "r");
+		try {
+			long offset = Math.min(Math.max(start, 0), log.length());
+			log.seek(offset);
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int remaining = maxLength;
+			int read;
+			while(remaining > 0 && (read = log.read(buffer, 0, Math.min(buffer.length, remaining))) > 0){
+				out.write(buffer, 0, read);
+				offset += read;
+				remaining -= read;
+			}
+			return offset;
+		} finally {
+			log.close();
+		}
+	}
+
+	/**
+	 *
+	 * @param build
+	 * @param deploymentId
+	 * @return the size of the deployment log (0 if it doesn't exist)
+	 */
+	public static long getLogLength(AbstractBuild<?,?> build, String deploymentId) {
+		File logFile = getDeploymentLogFile(build, deploymentId);
+		if(logFile.exists()){
+			return logFile.length();
+		}
+
+		File compressedLogFile = getCompressedDeploymentLogFile(build, deploymentId);
+		if(! compressedLogFile.exists()){
+			return 0;
+		}
+		// taille non compressee lue dans l'en-queue gzip (ISIZE, modulo 2^32)
+		try {
+			RandomAccessFile log = new RandomAccessFile(compressedLogFile, "r");
+			try {
+				log.seek(log.length() - 4);
+				byte[] isize = new byte[4];
+				log.readFully(isize);
+				return (isize[0] & 0xFFL) | (isize[1] & 0xFFL) << 8 | (isize[2] & 0xFFL) << 16 | (isize[3] & 0xFFL) << 24;
+			} finally {
+				log.close();
+			}
+		} catch (IOException ioe) {
+			LOGGER.log(Level.WARNING, "Unable to read the size of " + compressedLogFile, ioe);
+			return 0;
+		}
+	}
+
+	/**
+	 * Appends a text to the deployment log, even once compressed (the compressed log is then rewritten).
+	 *
+	 * @param build
+	 * @param deploymentId
+	 * @param text
+	 * @return false if the build has no deployment log for this task
+	 * @throws IOException
+	 */
+	public static synchronized boolean appendToLog(AbstractBuild<?,?> build, String deploymentId, String text) throws IOException {
+		File logFile = getDeploymentLogFile(build, deploymentId);
+		if(logFile.exists()){
+			OutputStream out = new FileOutputStream(logFile, true);
+			try {
+				out.write(text.getBytes());
+			} finally {
+				IOUtils.closeQuietly(out);
+			}
+			return true;
+		}
+
+		File compressedLogFile = getCompressedDeploymentLogFile(build, deploymentId);
+		if(! compressedLogFile.exists()){
+			return false;
+		}
+		File tmpFile = new File(compressedLogFile.getParentFile(), compressedLogFile.getName() + ".tmp");
+		try {
+			InputStream in = new GZIPInputStream(new FileInputStream(compressedLogFile), BUFFER_SIZE);
+			try {
+				GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(tmpFile), BUFFER_SIZE);
+				try {
+					IOUtils.copy(in, out);
+					out.write(text.getBytes());
+					out.finish();
+					out.close();
+				} finally {
+					IOUtils.closeQuietly(out);
+				}
+			} finally {
+				IOUtils.closeQuietly(in);
+			}
+			// renommage impossible sur un fichier existant sous Windows
+			if(! tmpFile.renameTo(compressedLogFile) && ! (compressedLogFile.delete() && tmpFile.renameTo(compressedLogFile))){
+				throw new IOException("Unable to rename " + tmpFile + " to " + compressedLogFile);
+			}
+			return true;
+		} finally {
+			FileUtils.deleteQuietly(tmpFile);
+		}
+	}
+
+	/**
+	 * Compresses the deployment logs of a build (gzip). The plain text log is removed once the compressed one written.
+	 *
+	 * @param build
+	 */
+	public static void compressLogs(AbstractBuild<?,?> build) {
+		File[] logFiles = build.getRootDir().listFiles(DEPLOYMENT_LOG_FILTER);
+		if(logFiles == null){
+			return;
+		}
+		for(File logFile : logFiles){
+			if(logFile.getName().endsWith(COMPRESSED_LOG_EXTENSION)){
+				continue;
+			}
+			File compressedLogFile = new File(logFile.getParentFile(), logFile.getName() + COMPRESSED_LOG_EXTENSION);
+			File tmpFile = new File(logFile.getParentFile(), compressedLogFile.getName() + ".tmp");
+			try {
+				compress(logFile, tmpFile);
+				// le log compresse est en place avant la suppression du log en clair (lecture progressive en cours)
+				if(! tmpFile.renameTo(compressedLogFile)){
+					throw new IOException("Unable to rename " + tmpFile + " to " + compressedLogFile);
+				}
+				FileUtils.deleteQuietly(logFile);
+			} catch (IOException ioe) {
+				LOGGER.log(Level.WARNING, "Unable to compress the deployment log " + logFile, ioe);
+				FileUtils.deleteQuietly(tmpFile);
+			}
+		}
+	}
+
+	/**
+	 * Removes the deployment logs of the builds older than the last <code>buildCount</code> builds of the project.
+	 * The builds are walked backward from the first one out of the retention down to the first one out of the
+	 * retention at the previous purge ; the builds without log are skipped.
+	 *
+	 * @param build the last build
+	 * @param buildCount the number of builds whose logs are kept (no purge if lower than 1)
+	 */
+	public static void purgeLogs(AbstractBuild<?,?> build, int buildCount) {
+		if(buildCount < 1){
+			return;
+		}
+		AbstractBuild<?,?> previous = build;
+		for(int i = 0; i < buildCount && previous != null; i++){
+			previous = previous.getPreviousBuild();
+		}
+		if(previous == null){
+			return;
+		}
+
+		String project = build.getProject().getFullName();
+		Integer watermark = PURGE_WATERMARKS.get(project);
+		int lastPurged = previous.getNumber();
+		while(previous != null && (watermark == null || previous.getNumber() > watermark)){
+			File[] logFiles = previous.getRootDir().listFiles(DEPLOYMENT_LOG_FILTER);
+			if(logFiles != null){
+				for(File logFile : logFiles){
+					FileUtils.deleteQuietly(logFile);
+				}
+			}
+			previous = previous.getPreviousBuild();
+		}
+		PURGE_WATERMARKS.put(project, lastPurged);
+	}
+
+	/**
+	 *
+	 * @param compressedLogFile
+	 * @param start
+	 * @param maxLength
+	 * @param out
+	 * @return the offset (decompressed) following the last byte copied
+	 * @throws IOException
+	 */
+	private static long writeCompressedLogTo(File compressedLogFile, long start, int maxLength, OutputStream out) throws IOException {
+		InputStream log = new GZIPInputStream(new FileInputStream(compressedLogFile), BUFFER_SIZE);
+		try {
+			long offset = 0;
+			long toSkip = Math.max(start, 0);
+			long skipped;
+			while(toSkip > 0 && (skipped = log.skip(toSkip)) > 0){
+				offset += skipped;
+				toSkip -= skipped;
+			}
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int remaining = maxLength;
+			int read;
+			while(remaining > 0 && (read = log.read(buffer, 0, Math.min(buffer.length, remaining))) > 0){
+				out.write(buffer, 0, read);
+				offset += read;
+				remaining -= read;
+			}
+			return offset;
+		} finally {
+			IOUtils.closeQuietly(log);
+		}
+	}
+
+	/**
+	 *
+	 * @param source
+	 * @param target
+	 * @throws IOException
+	 */
+	private static void compress(File source, File target) throws IOException {
+		InputStream in = new FileInputStream(source);
+		try {
+			GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(target), BUFFER_SIZE);
+			try {
+				IOUtils.copy(in, out);
+				out.finish();
+				out.close();
+			} finally {
+				IOUtils.closeQuietly(out);
+			}
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
 }
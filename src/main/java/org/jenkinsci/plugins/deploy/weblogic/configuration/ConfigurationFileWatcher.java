@@ -0,0 +1,253 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.configuration;
+
+import hudson.Extension;
+import hudson.PluginWrapper;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import jenkins.model.Jenkins;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.deploy.weblogic.WeblogicDeploymentPlugin.WeblogicDeploymentPluginDescriptor;
+import org.jenkinsci.plugins.deploy.weblogic.util.URLUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Reloads the local configuration file when it changes.
+ * <p>
+ * The file is polled (last modification date and size) : a change is taken into account once the file
+ * has been stable during a poll period. The new file is validated against <code>plugin-configuration.xsd</code>
+ * and parsed before replacing the environments ; an invalid file is ignored until its next change.
+ * The first poll, shortly after the startup, loads the configuration. When the descriptor loads the configuration
+ * (startup, configuration page), an invalid file is only reported (see {@link #validateConfigurationFile(File)}).
+ *
+ * @author rchaumie
+ *
+ */
+@Extension
+public class ConfigurationFileWatcher extends AsyncPeriodicWork {
+
+	private static final Logger LOGGER = Logger.getLogger(ConfigurationFileWatcher.class.getName());
+
+	public static final long POLL_PERIOD = 2 * 1000;
+
+	public static final String SCHEMA_NAMESPACE = "http://org.jenkinsci.plugins/WeblogicDeploymentPlugin";
+
+	private static final String SCHEMA_RESOURCE_PATH = "config/plugin-configuration.xsd";
+
+	/**
+	 * Fichier surveille
+	 */
+	private String path;
+
+	/**
+	 * Etat (date, taille) du fichier charge ou rejete
+	 */
+	private String processedSignature;
+
+	/**
+	 * Etat du fichier modifie lors de la derniere scrutation (anti-rebond)
+	 */
+	private String pendingSignature;
+
+	private static Schema schema;
+
+	public ConfigurationFileWatcher() {
+		super("WebLogic deployment configuration file watcher");
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.PeriodicWork#getRecurrencePeriod()
+	 */
+	@Override
+	public long getRecurrencePeriod() {
+		return POLL_PERIOD;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.PeriodicWork#getInitialDelay()
+	 */
+	@Override
+	public long getInitialDelay() {
+		return POLL_PERIOD;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.AsyncPeriodicWork#getNormalLoggingLevel()
+	 */
+	@Override
+	protected Level getNormalLoggingLevel() {
+		// execution frequente : les traces de debut et de fin de chaque execution ne sont pas utiles
+		return Level.FINE;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.AsyncPeriodicWork#execute(hudson.model.TaskListener)
+	 */
+	@Override
+	protected synchronized void execute(TaskListener listener) throws IOException, InterruptedException {
+		WeblogicDeploymentPluginDescriptor descriptor = Jenkins.getInstance().getDescriptorByType(WeblogicDeploymentPluginDescriptor.class);
+		if(descriptor == null){
+			return;
+		}
+
+		String configurationFilePath = descriptor.getConfigurationFilePath();
+		if(StringUtils.isBlank(configurationFilePath) || configurationFilePath.startsWith(URLUtils.HTTP_PROTOCOL_PREFIX)){
+			path = null;
+			return;
+		}
+		if(! configurationFilePath.equals(path)){
+			path = configurationFilePath;
+			processedSignature = null;
+			pendingSignature = null;
+		}
+
+		File file = new File(path);
+		if(! file.isFile()){
+			return;
+		}
+		String signature = file.lastModified() + ":" + file.length();
+		if(signature.equals(processedSignature)){
+			return;
+		}
+		// le fichier doit etre stable pendant une periode (ecriture en cours)
+		if(! signature.equals(pendingSignature) && processedSignature != null){
+			pendingSignature = signature;
+			return;
+		}
+
+		processedSignature = signature;
+		pendingSignature = null;
+		reload(descriptor, file);
+	}
+
+	/**
+	 *
+	 * @param descriptor
+	 * @param file
+	 */
+	private void reload(WeblogicDeploymentPluginDescriptor descriptor, File file) {
+		long start = System.currentTimeMillis();
+		try {
+			validateConfigurationFile(file);
+
+			WeblogicDeploymentConfiguration configuration;
+			InputStream in = new FileInputStream(file);
+			try {
+				configuration = (WeblogicDeploymentConfiguration) Jenkins.XSTREAM2.fromXML(in);
+			} finally {
+				IOUtils.closeQuietly(in);
+			}
+			if(configuration == null || ArrayUtils.isEmpty(configuration.getWeblogicEnvironments())){
+				LOGGER.log(Level.WARNING, "The configuration file {0} doesn''t declare any weblogic target. It is ignored.", file);
+				return;
+			}
+
+			descriptor.updateWeblogicEnvironments(configuration.getWeblogicEnvironments());
+			LOGGER.log(Level.INFO, "The configuration file {0} has been reloaded ({1} weblogic targets) in {2} ms",
+					new Object[]{file, configuration.getWeblogicEnvironments().length, System.currentTimeMillis() - start});
+		} catch (SAXParseException spe) {
+			LOGGER.log(Level.WARNING, "The configuration file {0} is invalid (line {1}, column {2} : {3}). The previous configuration is kept.",
+					new Object[]{file, spe.getLineNumber(), spe.getColumnNumber(), spe.getMessage()});
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "Unable to reload the configuration file " + file + ". The previous configuration is kept.", e);
+		}
+	}
+
+	/**
+	 * Validates the configuration file against <code>plugin-configuration.xsd</code> (if the schema can be loaded).
+	 *
+	 * @param file
+	 * @throws SAXException if the file is invalid
+	 * @throws IOException
+	 */
+	public static void validateConfigurationFile(File file) throws SAXException, IOException {
+		Schema configurationSchema = getSchema();
+		if(configurationSchema != null){
+			validate(file, configurationSchema);
+		}
+	}
+
+	/**
+	 *
+	 * @return the schema of the configuration file, null if it can't be loaded
+	 */
+	private static synchronized Schema getSchema() {
+		if(schema == null){
+			Jenkins jenkins = Jenkins.getInstance();
+			PluginWrapper plugin = jenkins == null ? null : jenkins.getPluginManager().whichPlugin(ConfigurationFileWatcher.class);
+			if(plugin == null){
+				return null;
+			}
+			try {
+				schema = loadSchema(new URL(plugin.baseResourceURL, SCHEMA_RESOURCE_PATH));
+			} catch (Exception e) {
+				LOGGER.log(Level.WARNING, "Unable to load the schema of the configuration file. The files are not validated.", e);
+			}
+		}
+		return schema;
+	}
+
+	/**
+	 *
+	 * @param xsd
+	 * @return the schema
+	 * @throws SAXException
+	 */
+	static Schema loadSchema(URL xsd) throws SAXException {
+		return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(xsd);
+	}
+
+	/**
+	 * Validates the configuration file. The root element <code>config</code> is usually declared without
+	 * namespace : it is then put in the namespace of the schema.
+	 *
+	 * @param file
+	 * @param schema
+	 * @throws SAXException if the file is invalid
+	 * @throws IOException
+	 */
+	static void validate(File file, Schema schema) throws SAXException, IOException {
+		Document document;
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setNamespaceAware(true);
+			document = factory.newDocumentBuilder().parse(file);
+		} catch (ParserConfigurationException pce) {
+			throw new IOException("Unable to parse " + file + " : " + pce.getMessage(), pce);
+		}
+
+		Element root = document.getDocumentElement();
+		if(root.getNamespaceURI() == null){
+			document.renameNode(root, SCHEMA_NAMESPACE, root.getNodeName());
+		}
+		schema.newValidator().validate(new DOMSource(document));
+	}
+}
@@ -0,0 +1,52 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.configuration;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+
+import java.io.IOException;
+
+import jenkins.model.Jenkins;
+
+import org.jenkinsci.plugins.deploy.weblogic.WeblogicDeploymentPlugin.WeblogicDeploymentPluginDescriptor;
+
+/**
+ * Revalidates in background the configuration file served over HTTP (see {@link HttpConfigurationSource}).
+ *
+ * @author rchaumie
+ *
+ */
+@Extension
+public class HttpConfigurationRefreshWork extends AsyncPeriodicWork {
+
+	public static final long RECURRENCE_PERIOD = 5 * MIN;
+
+	public HttpConfigurationRefreshWork() {
+		super("WebLogic deployment configuration refresh");
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.PeriodicWork#getRecurrencePeriod()
+	 */
+	@Override
+	public long getRecurrencePeriod() {
+		return RECURRENCE_PERIOD;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.AsyncPeriodicWork#execute(hudson.model.TaskListener)
+	 */
+	@Override
+	protected void execute(TaskListener listener) throws IOException, InterruptedException {
+		Jenkins jenkins = Jenkins.getInstance();
+		WeblogicDeploymentPluginDescriptor descriptor = jenkins == null ? null : jenkins.getDescriptorByType(WeblogicDeploymentPluginDescriptor.class);
+		if(descriptor != null){
+			descriptor.refreshWeblogicEnvironments(listener);
+		}
+	}
+}
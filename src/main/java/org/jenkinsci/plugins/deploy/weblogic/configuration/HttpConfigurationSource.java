@@ -0,0 +1,245 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.configuration;
+
+import hudson.Util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jenkins.model.Jenkins;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.deploy.weblogic.exception.LoadingFileException;
+
+/**
+ * Configuration file served over HTTP.
+ * <p>
+ * The last valid configuration downloaded is kept on disk (with its <code>ETag</code> and <code>Last-Modified</code>)
+ * and revalidated with conditional requests. When the server can't be reached or returns an invalid file,
+ * the last valid configuration is still served.
+ *
+ * @author rchaumie
+ *
+ */
+public class HttpConfigurationSource {
+
+	private static final Logger LOGGER = Logger.getLogger(HttpConfigurationSource.class.getName());
+
+	public static final String CACHE_DIRECTORY_NAME = "weblogic-deployment-configuration-cache";
+
+	public static final int CONNECT_TIMEOUT = 10 * 1000;
+
+	public static final int READ_TIMEOUT = 30 * 1000;
+
+	private static final String ETAG_PROPERTY = "etag";
+
+	private static final String LAST_MODIFIED_PROPERTY = "lastModified";
+
+	private static final String URL_PROPERTY = "url";
+
+	private final String url;
+
+	/**
+	 * Copie locale du dernier fichier valide
+	 */
+	private final File cacheFile;
+
+	/**
+	 * ETag, Last-Modified de la copie locale
+	 */
+	private final File metadataFile;
+
+	private String etag;
+
+	private String lastModified;
+
+	private WeblogicDeploymentConfiguration configuration;
+
+	/**
+	 *
+	 * @param url
+	 * @param cacheDirectory the directory of the local copy
+	 */
+	public HttpConfigurationSource(String url, File cacheDirectory) {
+		this.url = url;
+		String name = Util.getDigestOf(url);
+		this.cacheFile = new File(cacheDirectory, name + ".xml");
+		this.metadataFile = new File(cacheDirectory, name + ".properties");
+	}
+
+	/**
+	 *
+	 * @param url
+	 * @return the source whose local copy is kept in the Jenkins home directory
+	 */
+	public static HttpConfigurationSource create(String url) {
+		return new HttpConfigurationSource(url, new File(Jenkins.getInstance().getRootDir(), CACHE_DIRECTORY_NAME));
+	}
+
+	/**
+	 * @return the url
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * The configuration is downloaded only if there's neither a configuration in memory nor a local copy.
+	 *
+	 * @return the last valid configuration
+	 * @throws LoadingFileException if no valid configuration has ever been downloaded
+	 */
+	public synchronized WeblogicDeploymentConfiguration get() throws LoadingFileException {
+		if(configuration == null){
+			loadLocalCopy();
+		}
+		if(configuration == null){
+			try {
+				refresh();
+			} catch (IOException ioe) {
+				throw new LoadingFileException("Unable to download the configuration " + url + " : " + ioe.getMessage(), ioe);
+			}
+		}
+		return configuration;
+	}
+
+	/**
+	 * Revalidates the configuration (conditional request).
+	 *
+	 * @return true if a new configuration has been downloaded, false if it is unchanged
+	 * @throws IOException if the server can't be reached or the file is invalid (the last valid configuration is kept)
+	 */
+	public synchronized boolean refresh() throws IOException {
+		if(configuration == null){
+			loadLocalCopy();
+		}
+
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setConnectTimeout(CONNECT_TIMEOUT);
+		connection.setReadTimeout(READ_TIMEOUT);
+		connection.setUseCaches(false);
+		// revalidation seulement si une copie valide existe
+		if(configuration != null){
+			if(StringUtils.isNotBlank(etag)){
+				connection.setRequestProperty("If-None-Match", etag);
+			}
+			if(StringUtils.isNotBlank(lastModified)){
+				connection.setRequestProperty("If-Modified-Since", lastModified);
+			}
+		}
+
+		InputStream in = null;
+		try {
+			int status = connection.getResponseCode();
+			if(status == HttpURLConnection.HTTP_NOT_MODIFIED && configuration != null){
+				return false;
+			}
+			if(status != HttpURLConnection.HTTP_OK){
+				throw new IOException("The server returned the status " + status + " for " + url);
+			}
+
+			in = connection.getInputStream();
+			byte[] content = IOUtils.toByteArray(in);
+			WeblogicDeploymentConfiguration downloaded = parse(content);
+
+			etag = connection.getHeaderField("ETag");
+			lastModified = connection.getHeaderField("Last-Modified");
+			saveLocalCopy(content);
+			configuration = downloaded;
+			return true;
+		} finally {
+			IOUtils.closeQuietly(in);
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 *
+	 * @param content
+	 * @return the configuration
+	 * @throws IOException if the content is not a valid configuration
+	 */
+	private WeblogicDeploymentConfiguration parse(byte[] content) throws IOException {
+		Object parsed;
+		try {
+			parsed = Jenkins.XSTREAM2.fromXML(new ByteArrayInputStream(content));
+		} catch (RuntimeException re) {
+			throw new IOException("The configuration " + url + " is invalid : " + re.getMessage(), re);
+		}
+		if(! (parsed instanceof WeblogicDeploymentConfiguration) || ArrayUtils.isEmpty(((WeblogicDeploymentConfiguration) parsed).getWeblogicEnvironments())){
+			throw new IOException("The configuration " + url + " doesn't declare any weblogic target");
+		}
+		return (WeblogicDeploymentConfiguration) parsed;
+	}
+
+	/**
+	 * Charge la copie locale (si elle existe et est valide)
+	 */
+	private void loadLocalCopy() {
+		if(! cacheFile.exists()){
+			return;
+		}
+		try {
+			Properties metadata = new Properties();
+			if(metadataFile.exists()){
+				InputStream in = new FileInputStream(metadataFile);
+				try {
+					metadata.load(in);
+				} finally {
+					IOUtils.closeQuietly(in);
+				}
+			}
+			configuration = parse(FileUtils.readFileToByteArray(cacheFile));
+			etag = metadata.getProperty(ETAG_PROPERTY);
+			lastModified = metadata.getProperty(LAST_MODIFIED_PROPERTY);
+		} catch (IOException ioe) {
+			LOGGER.log(Level.WARNING, "Unable to read the local copy " + cacheFile + " of " + url + ". It is ignored.", ioe);
+		}
+	}
+
+	/**
+	 * Ecriture de la copie locale (fichier temporaire renomme : une copie partielle n'est jamais lue)
+	 *
+	 * @param content
+	 * @throws IOException
+	 */
+	private void saveLocalCopy(byte[] content) throws IOException {
+		File tmpFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp");
+		FileUtils.writeByteArrayToFile(tmpFile, content);
+		FileUtils.deleteQuietly(cacheFile);
+		if(! tmpFile.renameTo(cacheFile)){
+			FileUtils.deleteQuietly(tmpFile);
+			throw new IOException("Unable to rename " + tmpFile + " to " + cacheFile);
+		}
+
+		Properties metadata = new Properties();
+		metadata.setProperty(URL_PROPERTY, url);
+		if(etag != null){
+			metadata.setProperty(ETAG_PROPERTY, etag);
+		}
+		if(lastModified != null){
+			metadata.setProperty(LAST_MODIFIED_PROPERTY, lastModified);
+		}
+		OutputStream out = new FileOutputStream(metadataFile);
+		try {
+			metadata.store(out, null);
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+	}
+}
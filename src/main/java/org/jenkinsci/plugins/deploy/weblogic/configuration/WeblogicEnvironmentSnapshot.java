@@ -0,0 +1,158 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment;
+
+/**
+ * Immutable view of the weblogic environments loaded from the configuration file, indexed by name
+ * (case insensitive), by host and by tag.
+ * <p>
+ * A reload builds a new snapshot which replaces the previous one : the readers never lock.
+ *
+ * @author rchaumie
+ *
+ */
+public final class WeblogicEnvironmentSnapshot {
+
+	public static final WeblogicEnvironmentSnapshot EMPTY = new WeblogicEnvironmentSnapshot(new WeblogicEnvironment[0]);
+
+	private final WeblogicEnvironment[] environments;
+
+	private final Map<String, WeblogicEnvironment> byName;
+
+	private final Map<String, List<WeblogicEnvironment>> byHost;
+
+	private final Map<String, List<WeblogicEnvironment>> byTag;
+
+	/**
+	 *
+	 * @param environments
+	 */
+	public WeblogicEnvironmentSnapshot(WeblogicEnvironment[] environments) {
+		this.environments = environments == null ? new WeblogicEnvironment[0] : environments.clone();
+
+		Map<String, WeblogicEnvironment> names = new HashMap<String, WeblogicEnvironment>();
+		Map<String, List<WeblogicEnvironment>> hosts = new HashMap<String, List<WeblogicEnvironment>>();
+		Map<String, List<WeblogicEnvironment>> tags = new HashMap<String, List<WeblogicEnvironment>>();
+		for(WeblogicEnvironment environment : this.environments){
+			// en cas de doublon, le premier environnement declare est retenu
+			String name = toKey(environment.getName());
+			if(name != null && ! names.containsKey(name)){
+				names.put(name, environment);
+			}
+			addTo(hosts, environment.getHost(), environment);
+			for(String tag : StringUtils.split(StringUtils.defaultString(environment.getTags()), ',')){
+				addTo(tags, tag, environment);
+			}
+		}
+		this.byName = names;
+		this.byHost = freeze(hosts);
+		this.byTag = freeze(tags);
+	}
+
+	/**
+	 * @return a copy of the environments (in the order of the configuration file)
+	 */
+	public WeblogicEnvironment[] getEnvironments() {
+		return environments.clone();
+	}
+
+	/**
+	 * @return true if no environment is declared
+	 */
+	public boolean isEmpty() {
+		return environments.length == 0;
+	}
+
+	/**
+	 *
+	 * @param name (case insensitive)
+	 * @return the environment, null if none
+	 */
+	public WeblogicEnvironment getByName(String name) {
+		String key = toKey(name);
+		return key == null ? null : byName.get(key);
+	}
+
+	/**
+	 *
+	 * @param host (case insensitive)
+	 * @return the environments of the host
+	 */
+	public List<WeblogicEnvironment> getByHost(String host) {
+		return get(byHost, host);
+	}
+
+	/**
+	 *
+	 * @param tag (case insensitive)
+	 * @return the environments tagged
+	 */
+	public List<WeblogicEnvironment> getByTag(String tag) {
+		return get(byTag, tag);
+	}
+
+	/**
+	 *
+	 * @param index
+	 * @param value
+	 * @return
+	 */
+	private static List<WeblogicEnvironment> get(Map<String, List<WeblogicEnvironment>> index, String value) {
+		String key = toKey(value);
+		List<WeblogicEnvironment> out = key == null ? null : index.get(key);
+		return out == null ? Collections.<WeblogicEnvironment>emptyList() : out;
+	}
+
+	/**
+	 *
+	 * @param index
+	 * @param value
+	 * @param environment
+	 */
+	private static void addTo(Map<String, List<WeblogicEnvironment>> index, String value, WeblogicEnvironment environment) {
+		String key = toKey(value);
+		if(key == null){
+			return;
+		}
+		List<WeblogicEnvironment> environments = index.get(key);
+		if(environments == null){
+			environments = new ArrayList<WeblogicEnvironment>();
+			index.put(key, environments);
+		}
+		if(! environments.contains(environment)){
+			environments.add(environment);
+		}
+	}
+
+	/**
+	 *
+	 * @param index
+	 * @return
+	 */
+	private static Map<String, List<WeblogicEnvironment>> freeze(Map<String, List<WeblogicEnvironment>> index) {
+		for(Map.Entry<String, List<WeblogicEnvironment>> entry : index.entrySet()){
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+		return index;
+	}
+
+	/**
+	 *
+	 * @param value
+	 * @return the key of the indexes, null if the value is blank
+	 */
+	private static String toKey(String value) {
+		return StringUtils.isBlank(value) ? null : value.trim().toLowerCase(Locale.ENGLISH);
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.data;
+
+/**
+ * Phases of a deployment task, each one having its own time budget (see {@link DeploymentTaskTimeouts}).
+ * 
+ * @author rchaumie
+ *
+ */
+public enum DeploymentPhase {
+
+	/**
+	 * Loading and checking of the JDK on the node
+	 */
+	JDK_CHECK,
+	
+	/**
+	 * Selection of the artifact to deploy among the ones built
+	 */
+	ARTIFACT_SELECTION,
+	
+	/**
+	 * Copy of the deployer libraries on the node
+	 */
+	LIBRARY_COPY,
+	
+	/**
+	 * FTP transfer of a library to the WebLogic host(s)
+	 */
+	FTP_TRANSFER,
+	
+	/**
+	 * Undeployment of the application
+	 */
+	UNDEPLOY,
+	
+	/**
+	 * Deployment (listing of the applications, deployment or redeployment, command line, activation and readiness of the waves)
+	 */
+	DEPLOY;
+}
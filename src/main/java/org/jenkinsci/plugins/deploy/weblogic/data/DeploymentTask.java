@@ -10,6 +10,7 @@ import java.io.Serializable;
 
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.CommandLineTemplate;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 /**
@@ -22,6 +23,10 @@ public class DeploymentTask  extends AbstractDescribableImpl<DeploymentTask> imp
 	 * 
 	 */
 	private static final long serialVersionUID = 3924420945973321189L;
+	
+	public static final int DEFAULT_ROLLING_WAVE_PERCENTAGE = 25;
+	
+	public static final int DEFAULT_READINESS_TIMEOUT = 300;
 
 	/**
 	 * Identify the task
@@ -77,6 +82,11 @@ public class DeploymentTask  extends AbstractDescribableImpl<DeploymentTask> imp
 	 */
 	private String commandLine;
 	
+	/**
+	 * Ligne de commande compilee (calculee a la creation de la tache ou a la premiere utilisation)
+	 */
+	private transient volatile CommandLineTemplate commandLineTemplate;
+	
 	/**
 	 * Name of the deployment plan to use when deploying the resource
 	 */
@@ -86,6 +96,46 @@ public class DeploymentTask  extends AbstractDescribableImpl<DeploymentTask> imp
 	 * The protocol to use with operation. By default t3
 	 */
 	private WebLogicOperationProcotol protocol;
+	
+	/**
+	 * The commands of the command line are run inside a single deployer JVM
+	 */
+	private boolean batchMode;
+	
+	/**
+	 * How the artifact already deployed is replaced. By default undeploy then deploy
+	 */
+	private WebLogicDeploymentMode deploymentMode;
+	
+	/**
+	 * The deployment is skipped when the same artifact (SHA-256) has already been deployed with success on the same environment and targets
+	 */
+	private boolean skipIfUnchanged;
+	
+	/**
+	 * The clusters of the targets are expanded into their members, deployed by waves
+	 */
+	private boolean rollingMode;
+	
+	/**
+	 * Percentage of the members deployed by each wave
+	 */
+	private int rollingWavePercentage;
+	
+	/**
+	 * Time (in seconds) given to the members of a wave to be ready before the next wave
+	 */
+	private int readinessTimeout;
+	
+	/**
+	 * The deployment is submitted with -nowait then followed with -listtask (no deployer JVM during the activation)
+	 */
+	private boolean asyncMode;
+	
+	/**
+	 * Time budgets of the task and of its phases (null for none)
+	 */
+	private DeploymentTaskTimeouts timeouts;
 
     /**
      * Invoke only during data backup
@@ -103,12 +153,22 @@ public class DeploymentTask  extends AbstractDescribableImpl<DeploymentTask> imp
      * @param commandLine
      * @param deploymentPlan
      * @param protocol
+     * @param batchMode
+     * @param deploymentMode
+     * @param skipIfUnchanged
+     * @param rollingMode
+     * @param rollingWavePercentage
+     * @param readinessTimeout
+     * @param asyncMode
+     * @param timeouts
      */
 	@DataBoundConstructor
 	public DeploymentTask(String id, String taskName, String weblogicEnvironmentTargetedName, String deploymentName, 
   		String deploymentTargets, boolean isLibrary, String builtResourceRegexToDeploy, String baseResourcesGeneratedDirectory, String jdkName, String jdkHome, 
   		WebLogicStageMode stageMode,
-  		String commandLine, String deploymentPlan, WebLogicOperationProcotol protocol) {
+  		String commandLine, String deploymentPlan, WebLogicOperationProcotol protocol, boolean batchMode, WebLogicDeploymentMode deploymentMode,
+  		boolean skipIfUnchanged, boolean rollingMode, int rollingWavePercentage, int readinessTimeout,
+  		boolean asyncMode, DeploymentTaskTimeouts timeouts) {
 		if (id == null) {
 			this.id = RandomStringUtils.randomAlphanumeric(10);
 		} else {
@@ -126,8 +186,17 @@ public class DeploymentTask  extends AbstractDescribableImpl<DeploymentTask> imp
 		}
 		this.stageMode = stageMode;
 		this.commandLine = commandLine;
+		this.commandLineTemplate = CommandLineTemplate.compile(commandLine);
       	this.deploymentPlan = deploymentPlan;
       	this.protocol = protocol;
+      	this.batchMode = batchMode;
+      	this.deploymentMode = deploymentMode;
+      	this.skipIfUnchanged = skipIfUnchanged;
+      	this.rollingMode = rollingMode;
+      	this.rollingWavePercentage = rollingWavePercentage;
+      	this.readinessTimeout = readinessTimeout;
+      	this.asyncMode = asyncMode;
+      	this.timeouts = timeouts;
 	}
 	
 	public DeploymentTask(DeploymentTask deploymentTask) {
@@ -142,8 +211,17 @@ public class DeploymentTask  extends AbstractDescribableImpl<DeploymentTask> imp
 		this.jdk = deploymentTask.getJdk();
 		this.stageMode = deploymentTask.getStageMode();
 		this.commandLine = deploymentTask.getCommandLine();
+		this.commandLineTemplate = deploymentTask.commandLineTemplate;
 	  	this.deploymentPlan = deploymentTask.getDeploymentPlan();
 	  	this.protocol = deploymentTask.getProtocol();
+	  	this.batchMode = deploymentTask.getBatchMode();
+	  	this.deploymentMode = deploymentTask.getDeploymentMode();
+	  	this.skipIfUnchanged = deploymentTask.getSkipIfUnchanged();
+	  	this.rollingMode = deploymentTask.getRollingMode();
+	  	this.rollingWavePercentage = deploymentTask.rollingWavePercentage;
+	  	this.readinessTimeout = deploymentTask.readinessTimeout;
+	  	this.asyncMode = deploymentTask.getAsyncMode();
+	  	this.timeouts = deploymentTask.getTimeouts();
 	}
 	
 	
@@ -252,6 +330,19 @@ public class DeploymentTask  extends AbstractDescribableImpl<DeploymentTask> imp
 		return commandLine;
 	}
 	
+	/**
+	 * 
+	 * @return the command line compiled
+	 */
+	public CommandLineTemplate getCommandLineTemplate() {
+		CommandLineTemplate template = commandLineTemplate;
+		if(template == null){
+			template = CommandLineTemplate.compile(commandLine);
+			commandLineTemplate = template;
+		}
+		return template;
+	}
+	
 	/**
 	 * @return the deploymentPlan
 	 */
@@ -275,6 +366,62 @@ public class DeploymentTask  extends AbstractDescribableImpl<DeploymentTask> imp
 	public void setProtocol(WebLogicOperationProcotol protocol) {
 		this.protocol = protocol;
 	}
+
+	/**
+	 * @return the batchMode
+	 */
+	public boolean getBatchMode() {
+		return batchMode;
+	}
+
+	/**
+	 * @return the deploymentMode (never null)
+	 */
+	public WebLogicDeploymentMode getDeploymentMode() {
+		return deploymentMode != null ? deploymentMode : WebLogicDeploymentMode.UNDEPLOY_DEPLOY;
+	}
+
+	/**
+	 * @return the skipIfUnchanged
+	 */
+	public boolean getSkipIfUnchanged() {
+		return skipIfUnchanged;
+	}
+
+	/**
+	 * @return the rollingMode
+	 */
+	public boolean getRollingMode() {
+		return rollingMode;
+	}
+
+	/**
+	 * @return the rollingWavePercentage (between 1 and 100)
+	 */
+	public int getRollingWavePercentage() {
+		return rollingWavePercentage > 0 ? Math.min(rollingWavePercentage, 100) : DEFAULT_ROLLING_WAVE_PERCENTAGE;
+	}
+
+	/**
+	 * @return the readinessTimeout in seconds
+	 */
+	public int getReadinessTimeout() {
+		return readinessTimeout > 0 ? readinessTimeout : DEFAULT_READINESS_TIMEOUT;
+	}
+
+	/**
+	 * @return the asyncMode
+	 */
+	public boolean getAsyncMode() {
+		return asyncMode;
+	}
+
+	/**
+	 * @return the timeouts (null if none)
+	 */
+	public DeploymentTaskTimeouts getTimeouts() {
+		return timeouts;
+	}
 	
 	
 	
@@ -39,6 +39,13 @@ public class DeploymentTaskDescriptor extends Descriptor<DeploymentTask> {
 		return WebLogicStageMode.values();
 	}
 	
+	/**
+	 * @return the list of available deployment modes
+	 */
+	public WebLogicDeploymentMode[] getWeblogicDeploymentModes() {
+		return WebLogicDeploymentMode.values();
+	}
+	
 	/**
 	 * @return the list of available protocols
 	 */
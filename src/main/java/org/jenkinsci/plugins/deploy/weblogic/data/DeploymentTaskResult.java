@@ -3,6 +3,9 @@
  */
 package org.jenkinsci.plugins.deploy.weblogic.data;
 
+import java.util.List;
+import java.util.Map;
+
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -19,6 +22,12 @@ public class DeploymentTaskResult {
 	
 	private String resourceName;
 	
+	private List<TransfertResult> transfertResults;
+	
+	private List<DeploymentTaskResult> waveResults;
+	
+	private Map<DeploymentPhase, Long> phaseDurations;
+	
 	private static final String PLUGIN_EXECUTION_CHECK_FAILED = "PLUGIN_EXECUTION_CHECK_FAILED";
 
     /**
@@ -98,6 +107,48 @@ public class DeploymentTaskResult {
 		this.resourceName = resourceName;
 	}
 
+	/**
+	 * @return the results of the library transfer for each FTP host (null if no transfer)
+	 */
+	public List<TransfertResult> getTransfertResults() {
+		return transfertResults;
+	}
+
+	/**
+	 * @param transfertResults the transfertResults to set
+	 */
+	public void setTransfertResults(List<TransfertResult> transfertResults) {
+		this.transfertResults = transfertResults;
+	}
+
+	/**
+	 * @return the results of each wave of a rolling deployment (null if not rolling)
+	 */
+	public List<DeploymentTaskResult> getWaveResults() {
+		return waveResults;
+	}
+
+	/**
+	 * @param waveResults the waveResults to set
+	 */
+	public void setWaveResults(List<DeploymentTaskResult> waveResults) {
+		this.waveResults = waveResults;
+	}
+
+	/**
+	 * @return the time (ms) spent in each phase run, in order of execution (null if none)
+	 */
+	public Map<DeploymentPhase, Long> getPhaseDurations() {
+		return phaseDurations;
+	}
+
+	/**
+	 * @param phaseDurations the phaseDurations to set
+	 */
+	public void setPhaseDurations(Map<DeploymentPhase, Long> phaseDurations) {
+		this.phaseDurations = phaseDurations;
+	}
+
 	/**
 	 * 
 	 * @return
@@ -0,0 +1,112 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.data;
+
+import java.io.Serializable;
+
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * Time budgets (in seconds, 0 for none) of a {@link DeploymentTask} : the whole task and each {@link DeploymentPhase}.
+ * The budget of a phase applies to each of its occurrences (each wave of a rolling deployment for example).
+ * 
+ * @author rchaumie
+ *
+ */
+public class DeploymentTaskTimeouts implements Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -6206113859406741254L;
+
+	private int taskTimeout;
+	
+	private int jdkCheckTimeout;
+	
+	private int artifactSelectionTimeout;
+	
+	private int libraryCopyTimeout;
+	
+	private int ftpTransferTimeout;
+	
+	private int undeployTimeout;
+	
+	private int deployTimeout;
+	
+	/**
+	 * 
+	 * @param taskTimeout
+	 * @param jdkCheckTimeout
+	 * @param artifactSelectionTimeout
+	 * @param libraryCopyTimeout
+	 * @param ftpTransferTimeout
+	 * @param undeployTimeout
+	 * @param deployTimeout
+	 */
+	@DataBoundConstructor
+	public DeploymentTaskTimeouts(int taskTimeout, int jdkCheckTimeout, int artifactSelectionTimeout, int libraryCopyTimeout,
+			int ftpTransferTimeout, int undeployTimeout, int deployTimeout) {
+		this.taskTimeout = Math.max(0, taskTimeout);
+		this.jdkCheckTimeout = Math.max(0, jdkCheckTimeout);
+		this.artifactSelectionTimeout = Math.max(0, artifactSelectionTimeout);
+		this.libraryCopyTimeout = Math.max(0, libraryCopyTimeout);
+		this.ftpTransferTimeout = Math.max(0, ftpTransferTimeout);
+		this.undeployTimeout = Math.max(0, undeployTimeout);
+		this.deployTimeout = Math.max(0, deployTimeout);
+	}
+
+	/**
+	 * 
+	 * @param phase
+	 * @return the budget of the phase in seconds (0 for none)
+	 */
+	public int getTimeout(DeploymentPhase phase) {
+		switch(phase){
+			case JDK_CHECK:
+				return jdkCheckTimeout;
+			case ARTIFACT_SELECTION:
+				return artifactSelectionTimeout;
+			case LIBRARY_COPY:
+				return libraryCopyTimeout;
+			case FTP_TRANSFER:
+				return ftpTransferTimeout;
+			case UNDEPLOY:
+				return undeployTimeout;
+			case DEPLOY:
+				return deployTimeout;
+			default:
+				return 0;
+		}
+	}
+
+	public int getTaskTimeout() {
+		return taskTimeout;
+	}
+
+	public int getJdkCheckTimeout() {
+		return jdkCheckTimeout;
+	}
+
+	public int getArtifactSelectionTimeout() {
+		return artifactSelectionTimeout;
+	}
+
+	public int getLibraryCopyTimeout() {
+		return libraryCopyTimeout;
+	}
+
+	public int getFtpTransferTimeout() {
+		return ftpTransferTimeout;
+	}
+
+	public int getUndeployTimeout() {
+		return undeployTimeout;
+	}
+
+	public int getDeployTimeout() {
+		return deployTimeout;
+	}
+	
+}
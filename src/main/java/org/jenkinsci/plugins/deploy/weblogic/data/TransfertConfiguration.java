@@ -3,6 +3,8 @@
  */
 package org.jenkinsci.plugins.deploy.weblogic.data;
 
+import java.io.Serializable;
+
 import javax.validation.constraints.NotNull;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
@@ -13,7 +15,18 @@ import org.apache.commons.lang.builder.ToStringBuilder;
  * @author rchaumie
  *
  */
-public class TransfertConfiguration {
+public class TransfertConfiguration implements Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -7010436926640009637L;
+	
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	
+	public static final int DEFAULT_KEEP_ALIVE_TIMEOUT = 60;
+	
+	public static final int DEFAULT_MAX_RESUME_ATTEMPTS = 3;
 
 	@NotNull(message="FTP host must not be null")
 	private String host;
@@ -30,6 +43,26 @@ public class TransfertConfiguration {
 	@NotNull(message="FTP remoteFilePath variable must not be null") 
 	private String remoteFilePath;
 	
+	/**
+	 * Taille des buffers (lecture du fichier local et socket de donnees)
+	 */
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	
+	/**
+	 * Mode passif (le client ouvre la connexion de donnees)
+	 */
+	private boolean passiveMode;
+	
+	/**
+	 * Delai (s) entre deux NOOP sur la connexion de controle pendant un transfert long
+	 */
+	private int keepAliveTimeout = DEFAULT_KEEP_ALIVE_TIMEOUT;
+	
+	/**
+	 * Nombre de reprises apres une coupure de connexion
+	 */
+	private int maxResumeAttempts = DEFAULT_MAX_RESUME_ATTEMPTS;
+	
 	/**
 	 * 
 	 * @param host
@@ -92,6 +125,42 @@ public class TransfertConfiguration {
 		this.remoteFilePath = remoteFilePath;
 	}
 	
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * 
+	 * @param bufferSize (the default size is used if lower than 1)
+	 */
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize > 0 ? bufferSize : DEFAULT_BUFFER_SIZE;
+	}
+
+	public boolean isPassiveMode() {
+		return passiveMode;
+	}
+
+	public void setPassiveMode(boolean passiveMode) {
+		this.passiveMode = passiveMode;
+	}
+
+	public int getKeepAliveTimeout() {
+		return keepAliveTimeout;
+	}
+
+	public void setKeepAliveTimeout(int keepAliveTimeout) {
+		this.keepAliveTimeout = keepAliveTimeout;
+	}
+
+	public int getMaxResumeAttempts() {
+		return maxResumeAttempts;
+	}
+
+	public void setMaxResumeAttempts(int maxResumeAttempts) {
+		this.maxResumeAttempts = maxResumeAttempts;
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see java.lang.Object#hashCode()
@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.data;
+
+import java.io.Serializable;
+
+/**
+ * Result of the transfer of a file to one FTP host.
+ *
+ * @author rchaumie
+ *
+ */
+public class TransfertResult implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 5902486718341927764L;
+
+	private String host;
+
+	private TransfertStatistics statistics;
+
+	/**
+	 * Cause de l'echec (null si succes)
+	 */
+	private String error;
+
+	/**
+	 *
+	 * @param host
+	 * @param statistics
+	 * @param error
+	 */
+	public TransfertResult(String host, TransfertStatistics statistics, String error) {
+		this.host = host;
+		this.statistics = statistics;
+		this.error = error;
+	}
+
+	/**
+	 * @return the host
+	 */
+	public String getHost() {
+		return host;
+	}
+
+	/**
+	 * @return the statistics (null if failed)
+	 */
+	public TransfertStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return the error
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * @return true if the file has been transfered
+	 */
+	public boolean isSucceeded() {
+		return error == null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return host + " : " + (isSucceeded() ? String.valueOf(statistics) : "FAILED (" + error + ")");
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.data;
+
+import java.io.Serializable;
+
+/**
+ * Measures of a file transfer.
+ * 
+ * @author rchaumie
+ *
+ */
+public class TransfertStatistics implements Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -4517298740158835137L;
+
+	/**
+	 * Size of the transfered file
+	 */
+	private long size;
+	
+	/**
+	 * Bytes sent again after a resume (0 if the transfer has not been interrupted)
+	 */
+	private long resumedOffset;
+	
+	/**
+	 * Total time (ms) including the reconnections
+	 */
+	private long duration;
+	
+	/**
+	 * Number of connections opened
+	 */
+	private int attempts;
+	
+	/**
+	 * 
+	 * @param size
+	 * @param resumedOffset
+	 * @param duration
+	 * @param attempts
+	 */
+	public TransfertStatistics(long size, long resumedOffset, long duration, int attempts) {
+		this.size = size;
+		this.resumedOffset = resumedOffset;
+		this.duration = duration;
+		this.attempts = attempts;
+	}
+
+	/**
+	 * @return the size
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the resumedOffset
+	 */
+	public long getResumedOffset() {
+		return resumedOffset;
+	}
+
+	/**
+	 * @return the duration
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @return the attempts
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+	
+	/**
+	 * @return the throughput in bytes per second
+	 */
+	public long getBytesPerSecond() {
+		return duration > 0 ? (size * 1000L) / duration : size;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return size + " bytes in " + duration + " ms (" + (getBytesPerSecond() / 1024) + " KB/s"
+				+ (attempts > 1 ? ", resumed at byte " + resumedOffset + " after " + (attempts - 1) + " broken connection(s)" : "") + ")";
+	}
+}
@@ -0,0 +1,30 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.data;
+
+/**
+ * How the weblogic.Deployer commands are executed on the node.
+ * 
+ * @author rchaumie
+ *
+ */
+public enum WebLogicDeployerEngineMode {
+
+	/**
+	 * A new JVM is forked for each command (default)
+	 */
+	FORKED,
+	
+	/**
+	 * @deprecated the commands are no longer run inside the agent JVM : a configuration using this mode runs them
+	 * on warm JVMs ({@link #POOLED}), which can be stopped.
+	 */
+	@Deprecated
+	IN_PROCESS,
+	
+	/**
+	 * The commands are run on warm JVMs kept by the node and reused from one command to the next
+	 */
+	POOLED;
+}
@@ -0,0 +1,24 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.data;
+
+/**
+ * How an artifact already deployed is replaced when no command line is set.
+ * 
+ * @author rchaumie
+ *
+ */
+public enum WebLogicDeploymentMode {
+
+	/**
+	 * The application is undeployed then deployed (default)
+	 */
+	UNDEPLOY_DEPLOY,
+	
+	/**
+	 * The deployed applications are listed, then the application is redeployed in place if it exists, deployed otherwise.
+	 * Libraries are always undeployed then deployed.
+	 */
+	REDEPLOY;
+}
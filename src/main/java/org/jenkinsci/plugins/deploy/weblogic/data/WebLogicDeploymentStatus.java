@@ -14,7 +14,9 @@ public enum WebLogicDeploymentStatus {
 	DISABLED(1),
 	ABORTED(2),
 	FAILED(3),
-	SUCCEEDED(4);
+	SUCCEEDED(4),
+	UNCHANGED(5),
+	TIMED_OUT(6);
 	
 	private int value;
 	
@@ -0,0 +1,63 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.data;
+
+import java.io.Serializable;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Cluster of a weblogic environment and its managed servers (used by the rolling deployment).
+ * 
+ * @author rchaumie
+ *
+ */
+@XStreamAlias(value="cluster")
+public class WeblogicCluster implements Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = -6327419018623155912L;
+
+	/**
+	 * Nom du cluster (tel que renseigne dans les targets)
+	 */
+	private String name;
+	
+	/**
+	 * Serveurs geres du cluster, dans l'ordre de deploiement
+	 */
+	private WeblogicClusterMember[] members;
+	
+	/**
+	 * 
+	 * @param name
+	 * @param members
+	 */
+	public WeblogicCluster(String name, WeblogicClusterMember... members) {
+		this.name = name;
+		this.members = members;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return the members (never null)
+	 */
+	public WeblogicClusterMember[] getMembers() {
+		return members != null ? members : new WeblogicClusterMember[0];
+	}
+
+	public void setMembers(WeblogicClusterMember[] members) {
+		this.members = members;
+	}
+	
+}
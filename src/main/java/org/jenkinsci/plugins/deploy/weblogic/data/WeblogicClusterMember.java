@@ -0,0 +1,69 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.data;
+
+import java.io.Serializable;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Managed server of a {@link WeblogicCluster}.
+ * 
+ * @author rchaumie
+ *
+ */
+@XStreamAlias(value="member")
+public class WeblogicClusterMember implements Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 2245609731457796284L;
+
+	/**
+	 * Nom du serveur gere
+	 */
+	private String name;
+	
+	/**
+	 * URL repondant 2xx lorsque le serveur est pret a recevoir du trafic (optionnel)
+	 */
+	private String healthCheckUrl;
+	
+	/**
+	 * 
+	 * @param name
+	 * @param healthCheckUrl
+	 */
+	public WeblogicClusterMember(String name, String healthCheckUrl) {
+		this.name = name;
+		this.healthCheckUrl = healthCheckUrl;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getHealthCheckUrl() {
+		return healthCheckUrl;
+	}
+
+	public void setHealthCheckUrl(String healthCheckUrl) {
+		this.healthCheckUrl = healthCheckUrl;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+	
+}
@@ -5,6 +5,8 @@ package org.jenkinsci.plugins.deploy.weblogic.data;
 
 import java.io.Serializable;
 
+import org.apache.commons.lang.StringUtils;
+
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
 
@@ -60,6 +62,21 @@ public class WeblogicEnvironment implements Serializable {
 	 */
 	private String ftpPassowrd;
 	
+	/**
+	 * Mode passif FTP (optionnel)
+	 */
+	private boolean ftpPassiveMode;
+	
+	/**
+	 * Taille du buffer de transfert FTP en octets (optionnel)
+	 */
+	private int ftpBufferSize;
+	
+	/**
+	 * Nombre maximal de transferts FTP simultanes lorsque plusieurs hotes FTP sont renseignes (optionnel)
+	 */
+	private int ftpMaxConcurrentTransfers;
+	
 	/**
 	 * 
 	 */
@@ -80,6 +97,16 @@ public class WeblogicEnvironment implements Serializable {
 	 */
 	private WebLogicAuthenticationMode authMode;
 	
+	/**
+	 * Etiquettes de l'environnement separees par des virgules (optionnel)
+	 */
+	private String tags;
+	
+	/**
+	 * Clusters de l'environnement et leurs membres (optionnel, deploiement par vagues)
+	 */
+	private WeblogicCluster[] clusters;
+	
 	/**
 	 * 	
 	 * @param name
@@ -223,6 +250,30 @@ public class WeblogicEnvironment implements Serializable {
 		this.ftpPassowrd = ftpPassowrd;
 	}
 
+	public boolean getFtpPassiveMode() {
+		return ftpPassiveMode;
+	}
+
+	public void setFtpPassiveMode(boolean ftpPassiveMode) {
+		this.ftpPassiveMode = ftpPassiveMode;
+	}
+
+	public int getFtpBufferSize() {
+		return ftpBufferSize;
+	}
+
+	public void setFtpBufferSize(int ftpBufferSize) {
+		this.ftpBufferSize = ftpBufferSize;
+	}
+
+	public int getFtpMaxConcurrentTransfers() {
+		return ftpMaxConcurrentTransfers;
+	}
+
+	public void setFtpMaxConcurrentTransfers(int ftpMaxConcurrentTransfers) {
+		this.ftpMaxConcurrentTransfers = ftpMaxConcurrentTransfers;
+	}
+
 	public String getRemoteDir() {
 		return remoteDir;
 	}
@@ -254,5 +305,38 @@ public class WeblogicEnvironment implements Serializable {
 	public void setAuthMode(WebLogicAuthenticationMode authMode) {
 		this.authMode = authMode;
 	}
+
+	public String getTags() {
+		return tags;
+	}
+
+	public void setTags(String tags) {
+		this.tags = tags;
+	}
+
+	/**
+	 * @return the clusters (never null)
+	 */
+	public WeblogicCluster[] getClusters() {
+		return clusters != null ? clusters : new WeblogicCluster[0];
+	}
+
+	public void setClusters(WeblogicCluster[] clusters) {
+		this.clusters = clusters;
+	}
+	
+	/**
+	 * 
+	 * @param name (case insensitive)
+	 * @return the cluster, null if none
+	 */
+	public WeblogicCluster getCluster(String name) {
+		for(WeblogicCluster cluster : getClusters()){
+			if(cluster.getName() != null && cluster.getName().trim().equalsIgnoreCase(StringUtils.trim(name))){
+				return cluster;
+			}
+		}
+		return null;
+	}
 	
 }
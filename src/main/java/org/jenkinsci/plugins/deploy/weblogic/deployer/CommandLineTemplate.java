@@ -0,0 +1,247 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import hudson.EnvVars;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.deploy.weblogic.properties.WebLogicDeploymentPluginConstantes;
+import org.jenkinsci.plugins.deploy.weblogic.util.ParameterValueResolver;
+
+/**
+ * Custom command line (see {@link org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTask#getCommandLine()}) compiled once :
+ * the commands (separated by <code>;</code>) are split into arguments, themselves made of literal segments
+ * and slots (<code>{wl.xxx}</code> tokens) resolved at each execution by the {@link WebLogicDeployerTokenResolver}.
+ * <p>
+ * A token other than <code>{wl.xxx}</code> is replaced by its key, an unknown <code>{wl.xxx}</code> token is kept as is.
+ * A <code>{</code> following a <code>$</code> opens a variable (<code>${VAR}</code>, <code>${VAR:-default}</code>), not a token.
+ * The environment variables are resolved in the literal text only : the value of a token (a password for instance)
+ * is resolved only when it is entirely a variable (see {@link ParameterValueResolver#resolveWholeValue(String, EnvVars)}).
+ *
+ * @author rchaumie
+ *
+ */
+public final class CommandLineTemplate {
+
+	private static final Pattern TOKEN_PATTERN = Pattern.compile(WebLogicDeploymentPluginConstantes.COMMAND_LINE_TOKEN);
+
+	private static final char ARGUMENT_SEPARATOR = ' ';
+
+	private final List<Argument[]> commands;
+
+	/**
+	 *
+	 * @param commands
+	 */
+	private CommandLineTemplate(List<Argument[]> commands) {
+		this.commands = Collections.unmodifiableList(commands);
+	}
+
+	/**
+	 *
+	 * @param commandLine the commands separated by <code>;</code>
+	 * @return the template
+	 */
+	public static CommandLineTemplate compile(String commandLine) {
+		List<Argument[]> commands = new ArrayList<Argument[]>();
+		for(String command : StringUtils.split(StringUtils.defaultString(commandLine), WebLogicDeploymentPluginConstantes.WL_DEPLOYMENT_CMD_LINE_SEPARATOR)){
+			if(StringUtils.isBlank(command)){
+				continue;
+			}
+			commands.add(compileCommand(StringUtils.trim(command)));
+		}
+		return new CommandLineTemplate(commands);
+	}
+
+	/**
+	 * @return the number of commands
+	 */
+	public int size() {
+		return commands.size();
+	}
+
+	/**
+	 *
+	 * @param index
+	 * @param parameters
+	 * @param resolver
+	 * @param envVars
+	 * @return the arguments of the command
+	 */
+	public List<String> render(int index, WebLogicDeployerParameters parameters, WebLogicDeployerTokenResolver resolver, EnvVars envVars) {
+		Argument[] arguments = commands.get(index);
+		List<String> out = new ArrayList<String>(arguments.length);
+		StringBuilder buffer = new StringBuilder();
+		for(Argument argument : arguments){
+			// argument sans jeton : aucune copie
+			if(argument.literal != null){
+				out.add(ParameterValueResolver.resolve(argument.literal, envVars));
+				continue;
+			}
+
+			buffer.setLength(0);
+			boolean split = false;
+			for(int i = 0; i < argument.texts.length; i++){
+				String key = argument.keys[i];
+				if(key == null){
+					buffer.append(ParameterValueResolver.resolve(argument.texts[i], envVars));
+					continue;
+				}
+				String value = resolver.resolveKey(key, parameters);
+				if(value == null){
+					value = argument.texts[i];
+				} else {
+					value = ParameterValueResolver.resolveWholeValue(value, envVars);
+				}
+				// une valeur contenant des espaces produit plusieurs arguments
+				if(value.indexOf(ARGUMENT_SEPARATOR) < 0){
+					buffer.append(value);
+					continue;
+				}
+				split = true;
+				String[] fragments = StringUtils.splitPreserveAllTokens(value, ARGUMENT_SEPARATOR);
+				buffer.append(fragments[0]);
+				for(int j = 1; j < fragments.length; j++){
+					addFragment(buffer, out);
+					buffer.append(fragments[j]);
+				}
+			}
+
+			if(split){
+				addFragment(buffer, out);
+			} else {
+				out.add(buffer.toString());
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Adds the fragment being built (if not empty) to the arguments.
+	 *
+	 * @param buffer
+	 * @param out
+	 */
+	private static void addFragment(StringBuilder buffer, List<String> out) {
+		if(buffer.length() > 0){
+			out.add(buffer.toString());
+			buffer.setLength(0);
+		}
+	}
+
+	/**
+	 *
+	 * @param command
+	 * @return the arguments of the command
+	 */
+	private static Argument[] compileCommand(String command) {
+		List<Argument> arguments = new ArrayList<Argument>();
+		List<String> texts = new ArrayList<String>();
+		List<String> keys = new ArrayList<String>();
+		StringBuilder literal = new StringBuilder();
+
+		Matcher tokenMatcher = TOKEN_PATTERN.matcher(command);
+		int cursor = 0;
+		while(tokenMatcher.find()){
+			appendLiteral(command.substring(cursor, tokenMatcher.start()), literal, texts, keys, arguments);
+			String key = tokenMatcher.group(1);
+			if(key.startsWith(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_TOKEN_PREF)){
+				flushLiteral(literal, texts, keys);
+				texts.add(tokenMatcher.group());
+				keys.add(key.toLowerCase(Locale.ENGLISH));
+			} else {
+				appendLiteral(key, literal, texts, keys, arguments);
+			}
+			cursor = tokenMatcher.end();
+		}
+		appendLiteral(command.substring(cursor), literal, texts, keys, arguments);
+		endArgument(literal, texts, keys, arguments);
+		return arguments.toArray(new Argument[arguments.size()]);
+	}
+
+	/**
+	 *
+	 * @param text
+	 * @param literal
+	 * @param texts
+	 * @param keys
+	 * @param arguments
+	 */
+	private static void appendLiteral(String text, StringBuilder literal, List<String> texts, List<String> keys, List<Argument> arguments) {
+		for(int i = 0; i < text.length(); i++){
+			char c = text.charAt(i);
+			if(c == ARGUMENT_SEPARATOR){
+				endArgument(literal, texts, keys, arguments);
+			} else {
+				literal.append(c);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param literal
+	 * @param texts
+	 * @param keys
+	 */
+	private static void flushLiteral(StringBuilder literal, List<String> texts, List<String> keys) {
+		if(literal.length() > 0){
+			texts.add(literal.toString());
+			keys.add(null);
+			literal.setLength(0);
+		}
+	}
+
+	/**
+	 *
+	 * @param literal
+	 * @param texts
+	 * @param keys
+	 * @param arguments
+	 */
+	private static void endArgument(StringBuilder literal, List<String> texts, List<String> keys, List<Argument> arguments) {
+		if(texts.isEmpty()){
+			if(literal.length() > 0){
+				arguments.add(new Argument(literal.toString()));
+				literal.setLength(0);
+			}
+			return;
+		}
+		flushLiteral(literal, texts, keys);
+		arguments.add(new Argument(texts.toArray(new String[texts.size()]), keys.toArray(new String[keys.size()])));
+		texts.clear();
+		keys.clear();
+	}
+
+	/**
+	 * Argument : literal, or made of segments (a null key for a literal segment, the text of the token otherwise)
+	 */
+	private static final class Argument {
+
+		private final String literal;
+
+		private final String[] texts;
+
+		private final String[] keys;
+
+		private Argument(String literal) {
+			this.literal = literal;
+			this.texts = null;
+			this.keys = null;
+		}
+
+		private Argument(String[] texts, String[] keys) {
+			this.literal = null;
+			this.texts = texts;
+			this.keys = keys;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import hudson.EnvVars;
+import hudson.model.Node;
+import hudson.util.ArgumentListBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forks a new JVM for each command. A batch of commands is run inside a single JVM started
+ * on {@link WebLogicDeployerBatch}, the plugin jar being copied on the node (see {@link WebLogicDeployerHelperJar}).
+ * 
+ * @author rchaumie
+ *
+ */
+public class ForkedWebLogicDeployerEngineImpl implements WebLogicDeployerEngine {
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerEngine#execute(org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerParameters, java.lang.String[], hudson.EnvVars, java.io.OutputStream)
+	 */
+	public int execute(WebLogicDeployerParameters parameters, String[] command, EnvVars envVars, OutputStream out) throws IOException, InterruptedException {
+		return parameters.getLauncher().launch().cmds(command).envs(envVars).stdout(out).join();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerEngine#executeBatch(org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerParameters, java.util.List, hudson.EnvVars, java.io.OutputStream)
+	 */
+	public int executeBatch(WebLogicDeployerParameters parameters, List<String[]> commands, EnvVars envVars, OutputStream out) throws IOException, InterruptedException {
+		Node node = parameters.getBuild().getBuiltOn();
+		if(node == null){
+			throw new IOException("The node on which the build runs is offline.");
+		}
+		
+		String[] first = commands.get(0);
+		List<String[]> deployerArguments = new ArrayList<String[]>();
+		for(String[] command : commands){
+			deployerArguments.add(WebLogicDeployer.getDeployerArguments(command));
+		}
+		
+		ArgumentListBuilder batchCommand = new ArgumentListBuilder(WebLogicDeployer.getLauncherArguments(first));
+		batchCommand.add("-cp", WebLogicDeployerHelperJar.install(node), WebLogicDeployerBatch.class.getName());
+		batchCommand.add(WebLogicDeployerBatch.toArguments(WebLogicDeployer.getClasspath(first), deployerArguments));
+		return parameters.getLauncher().launch().cmds(batchCommand).envs(envVars).stdout(out).join();
+	}
+
+}
@@ -0,0 +1,117 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import hudson.EnvVars;
+import hudson.model.Node;
+import hudson.remoting.Callable;
+import hudson.remoting.RemoteOutputStream;
+import hudson.remoting.VirtualChannel;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the weblogic.Deployer commands on a pool of warm JVMs kept by the node the build runs on (see {@link WebLogicDeployerPool}).
+ * <p>
+ * The jar containing {@link WebLogicDeployerServer} is copied once into the root directory of the node (see {@link WebLogicDeployerHelperJar}).
+ * The environment variables of the build are not applied to the deployer : only the java executable,
+ * the java options, the classpath and the arguments are.
+ *
+ * @author rchaumie
+ *
+ */
+public class PooledWebLogicDeployerEngineImpl implements WebLogicDeployerEngine {
+
+	private final int maxSize;
+
+	private final long idleTimeout;
+
+	/**
+	 *
+	 * @param maxSize the maximum number of warm JVMs per launcher
+	 * @param idleTimeoutMinutes the time after which an idle JVM is stopped
+	 */
+	public PooledWebLogicDeployerEngineImpl(int maxSize, int idleTimeoutMinutes) {
+		this.maxSize = maxSize;
+		this.idleTimeout = TimeUnit.MINUTES.toMillis(idleTimeoutMinutes);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerEngine#execute(org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerParameters, java.lang.String[], hudson.EnvVars, java.io.OutputStream)
+	 */
+	public int execute(WebLogicDeployerParameters parameters, String[] command, EnvVars envVars, OutputStream out) throws IOException, InterruptedException {
+		Node node = parameters.getBuild().getBuiltOn();
+		VirtualChannel channel = node != null ? node.getChannel() : null;
+		if(channel == null){
+			throw new IOException("The node on which the build runs is offline.");
+		}
+
+		String helperJar = WebLogicDeployerHelperJar.install(node);
+		return channel.call(new PooledDeployerCallable(maxSize, idleTimeout, Collections.singletonList(command), false, helperJar, new RemoteOutputStream(out)));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerEngine#executeBatch(org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerParameters, java.util.List, hudson.EnvVars, java.io.OutputStream)
+	 */
+	public int executeBatch(WebLogicDeployerParameters parameters, List<String[]> commands, EnvVars envVars, OutputStream out) throws IOException, InterruptedException {
+		Node node = parameters.getBuild().getBuiltOn();
+		VirtualChannel channel = node != null ? node.getChannel() : null;
+		if(channel == null){
+			throw new IOException("The node on which the build runs is offline.");
+		}
+
+		String helperJar = WebLogicDeployerHelperJar.install(node);
+		return channel.call(new PooledDeployerCallable(maxSize, idleTimeout, new ArrayList<String[]>(commands), true, helperJar, new RemoteOutputStream(out)));
+	}
+
+	/**
+	 *
+	 */
+	private static final class PooledDeployerCallable implements Callable<Integer, IOException> {
+
+		private static final long serialVersionUID = -2716520743655024613L;
+
+		private final int maxSize;
+
+		private final long idleTimeout;
+
+		private final List<String[]> commands;
+
+		private final boolean batch;
+
+		private final String helperJar;
+
+		private final OutputStream out;
+
+		PooledDeployerCallable(int maxSize, long idleTimeout, List<String[]> commands, boolean batch, String helperJar, OutputStream out) {
+			this.maxSize = maxSize;
+			this.idleTimeout = idleTimeout;
+			this.commands = commands;
+			this.batch = batch;
+			this.helperJar = helperJar;
+			this.out = out;
+		}
+
+		public Integer call() throws IOException {
+			WebLogicDeployerPool pool = WebLogicDeployerPool.get();
+			pool.configure(maxSize, idleTimeout);
+			try {
+				return batch ? pool.executeBatch(commands, helperJar, out) : pool.execute(commands.get(0), helperJar, out);
+			} catch (InterruptedException ie) {
+				throw (InterruptedIOException) new InterruptedIOException("The deployment command has been interrupted.").initCause(ie);
+			} finally {
+				out.flush();
+			}
+		}
+	}
+
+}
@@ -10,7 +10,10 @@ package org.jenkinsci.plugins.deploy.weblogic.deployer;
 public enum WebLogicCommand {
 
 	DEPLOY("deploy"),
-	UNDEPLOY("undeploy");
+	UNDEPLOY("undeploy"),
+	REDEPLOY("redeploy"),
+	LISTAPPS("listapps"),
+	LISTTASK("listtask");
 	
 	private String value;
 	
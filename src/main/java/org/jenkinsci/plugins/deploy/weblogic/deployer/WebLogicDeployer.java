@@ -4,7 +4,12 @@
 package org.jenkinsci.plugins.deploy.weblogic.deployer;
 
 import java.io.File;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicAuthenticationMode;
 import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicStageMode;
@@ -22,6 +27,8 @@ import hudson.util.ArgumentListBuilder;
  *
  */
 public class WebLogicDeployer {
+	
+	private static final Pattern TASK_INITIATED_PATTERN = Pattern.compile("(?i)task\\s+(\\d+)\\s+initiated");
 
 	/**
 	 * 
@@ -37,7 +44,7 @@ public class WebLogicDeployer {
         args.add("-debug");
         
         //Cas d'une application stage uniquement au deploiement
-        if(! WebLogicCommand.UNDEPLOY.equals(parameter.getCommand()) && !parameter.isLibrary()){
+        if(WebLogicCommand.DEPLOY.equals(parameter.getCommand()) && !parameter.isLibrary()){
         	
         	// Job level configuration
             if(! WebLogicStageMode.bydefault.equals(parameter.getStageMode())){
@@ -54,7 +61,7 @@ public class WebLogicDeployer {
         
         //Cas d'une application
         // Pour une librairie on copie sur le serveur puis on deploie
-        if(! WebLogicCommand.UNDEPLOY.equals(parameter.getCommand()) && !parameter.isLibrary()){
+        if((WebLogicCommand.DEPLOY.equals(parameter.getCommand()) || WebLogicCommand.REDEPLOY.equals(parameter.getCommand())) && !parameter.isLibrary()){
         	args.add("-upload");
         }
         
@@ -62,12 +69,18 @@ public class WebLogicDeployer {
         	args.add("-noexit");
         }
         
-        args.add("-name");
-        String targetedDeploymentName = StringUtils.isNotBlank(parameter.getDeploymentName()) ? parameter.getDeploymentName() : parameter.getArtifactName();
-        args.add(
-    		// targetedDeploymentName
-    		ParameterValueResolver.resolveEnvVars(targetedDeploymentName, envars)
-		);
+        // rend la main des que la tache est initiee (suivie par -listtask)
+        if(parameter.isNoWait()){
+        	args.add("-nowait");
+        }
+        
+        // la liste des applications (ou des taches) ne porte pas sur une application en particulier
+        boolean listing = WebLogicCommand.LISTAPPS.equals(parameter.getCommand()) || WebLogicCommand.LISTTASK.equals(parameter.getCommand());
+        
+        if(! listing){
+	        args.add("-name");
+	        args.add(getTargetedDeploymentName(parameter, envars));
+        }
         
         if(StringUtils.isNotBlank(parameter.getSource())) {
         	args.add("-source");
@@ -76,11 +89,13 @@ public class WebLogicDeployer {
             args.add("\'"+new File(parameter.getSource()).getAbsolutePath()+"\'");
         }
 
-        args.add("-targets");
-        args.add(ParameterValueResolver.resolveEnvVar(parameter.getDeploymentTargets(), envars));
+        if(! listing){
+	        args.add("-targets");
+	        args.add(ParameterValueResolver.resolve(parameter.getDeploymentTargets(), envars));
+        }
         args.add("-adminurl");
         
-        String adminUrl = ParameterValueResolver.resolveEnvVar(parameter.getEnvironment().getHost(), envars)+":"+ParameterValueResolver.resolveEnvVar(parameter.getEnvironment().getPort(), envars);
+        String adminUrl = ParameterValueResolver.resolve(parameter.getEnvironment().getHost(), envars)+":"+ParameterValueResolver.resolve(parameter.getEnvironment().getPort(), envars);
         if(parameter.getProtocol() != null){
         	args.add(parameter.getProtocol() + "://" + adminUrl);
         } else {
@@ -96,20 +111,25 @@ public class WebLogicDeployer {
                 args.add(parameter.getEnvironment().getUserkeyfile());
         		break;
         	default :
+        		// identifiants : seule une valeur faite d'une variable est resolue (un mot de passe peut contenir des $)
         		args.add("-user");
-                args.add(ParameterValueResolver.resolveEnvVar(parameter.getEnvironment().getLogin(), envars));
+                args.add(ParameterValueResolver.resolveWholeValue(parameter.getEnvironment().getLogin(), envars));
                 args.add("-password");
-                args.add(ParameterValueResolver.resolveEnvVar(parameter.getEnvironment().getPassword(), envars));
+                args.add(ParameterValueResolver.resolveWholeValue(parameter.getEnvironment().getPassword(), envars));
         		break;
         }
         
         args.add("-"+parameter.getCommand().getValue());
+        
+        if(WebLogicCommand.LISTTASK.equals(parameter.getCommand()) && StringUtils.isNotBlank(parameter.getTaskId())){
+        	args.add(parameter.getTaskId());
+        }
 		
-        if(parameter.isLibrary()) {
+        if(parameter.isLibrary() && ! listing) {
         	args.add("-library");
         }
         
-		if (StringUtils.isNotBlank(parameter.getDeploymentPlan())) {
+		if (StringUtils.isNotBlank(parameter.getDeploymentPlan()) && ! listing) {
         	args.add("-plan");
         	args.add(parameter.getDeploymentPlan());
         }
@@ -117,26 +137,139 @@ public class WebLogicDeployer {
         return args.toCommandArray();
 	}
 
-    /**
-     *
-     * @param parameters
-     * @param commandLine
-     * @param envars
-     * @return the complete command line as an Array of String
-     */
-	public static final String[] getWebLogicCommandLine(WebLogicDeployerParameters parameters, String commandLine, EnvVars envars) {
+	/**
+	 * 
+	 * @param parameter
+	 * @param envars
+	 * @return the name of the deployment (the artifact name if not set)
+	 */
+	public static final String getTargetedDeploymentName(WebLogicDeployerParameters parameter, EnvVars envars) {
+		String targetedDeploymentName = StringUtils.isNotBlank(parameter.getDeploymentName()) ? parameter.getDeploymentName() : parameter.getArtifactName();
+		return ParameterValueResolver.resolve(targetedDeploymentName, envars);
+	}
+	
+	/**
+	 * Parses the output of a -listapps command.
+	 * 
+	 * @param listappsOutput
+	 * @param deploymentName
+	 * @return true if the deployment is listed
+	 */
+	public static final boolean isDeploymentListed(String listappsOutput, String deploymentName) {
+		if(StringUtils.isBlank(listappsOutput) || StringUtils.isBlank(deploymentName)){
+			return false;
+		}
+		for(String line : StringUtils.split(listappsOutput, "\r\n")){
+			// une ligne par application : "<nom>" ou "<nom> [Version=...]" ou "<nom>#<version>"
+			String name = StringUtils.substringBefore(StringUtils.substringBefore(StringUtils.trim(line), " "), "#");
+			if(deploymentName.equals(name)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Parses the output of a command submitted with -nowait (<code>Task 3 initiated: [Deployer:149026]deploy application ...</code>).
+	 * 
+	 * @param output
+	 * @return the id of the WebLogic task initiated, null if none
+	 */
+	public static final String getInitiatedTaskId(String output) {
+		Matcher matcher = TASK_INITIATED_PATTERN.matcher(StringUtils.defaultString(output));
+		return matcher.find() ? matcher.group(1) : null;
+	}
+	
+	/**
+	 * Parses the output of a -listtask command : the lines of the task (<code>Task 3 completed: ...</code>
+	 * or a table row starting with its id) give its state.
+	 * 
+	 * @param listtaskOutput
+	 * @param taskId
+	 * @return the state of the task, UNKNOWN if the task isn't listed
+	 */
+	public static final WebLogicTaskState getTaskState(String listtaskOutput, String taskId) {
+		if(StringUtils.isBlank(listtaskOutput) || StringUtils.isBlank(taskId)){
+			return WebLogicTaskState.UNKNOWN;
+		}
+		WebLogicTaskState state = WebLogicTaskState.UNKNOWN;
+		for(String line : StringUtils.split(listtaskOutput, "\r\n")){
+			String trimmedLine = StringUtils.trim(line);
+			if(! trimmedLine.matches("(?i)(task\\s+)?" + Pattern.quote(taskId) + "\\b.*")){
+				continue;
+			}
+			String lowerCaseLine = trimmedLine.toLowerCase(Locale.ENGLISH);
+			if(lowerCaseLine.contains("failed")){
+				return WebLogicTaskState.FAILED;
+			}
+			if(lowerCaseLine.contains("completed") || lowerCaseLine.contains("success")){
+				state = WebLogicTaskState.COMPLETED;
+			} else if(state == WebLogicTaskState.UNKNOWN && 
+					(lowerCaseLine.contains("running") || lowerCaseLine.contains("initiated") || lowerCaseLine.contains("pending") || lowerCaseLine.contains("deferred"))){
+				state = WebLogicTaskState.RUNNING;
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * 
+	 * @param parameters
+	 * @param arguments the arguments of the deployer (tokens and environment variables already resolved)
+	 * @return
+	 */
+	public static final String[] getWebLogicCommandLine(WebLogicDeployerParameters parameters, List<String> arguments) {
 		
 		ArgumentListBuilder args = new ArgumentListBuilder();
 		
 		processJavaLauncher(parameters, args);
 		
-		for(String param : StringUtils.split(commandLine, ' ')){
-			args.add(ParameterValueResolver.resolveEnvVar(param, envars));
+		for(String argument : arguments){
+			args.add(argument);
 		}
 		
 		return args.toCommandArray();
 	}
 	
+	/**
+	 * 
+	 * @param command the complete command line
+	 * @return the classpath given to the JVM launching the deployer
+	 */
+	public static final String getClasspath(String[] command) {
+		int index = ArrayUtils.indexOf(command, "-cp");
+		if(index < 0 || index + 1 >= command.length){
+			throw new IllegalArgumentException("No classpath found in the deployer command line.");
+		}
+		return command[index + 1];
+	}
+	
+	/**
+	 * 
+	 * @param command the complete command line
+	 * @return the java executable and the java options (the part before the classpath)
+	 */
+	public static final String[] getLauncherArguments(String[] command) {
+		int index = ArrayUtils.indexOf(command, "-cp");
+		if(index < 0){
+			throw new IllegalArgumentException("No classpath found in the deployer command line.");
+		}
+		return (String[]) ArrayUtils.subarray(command, 0, index);
+	}
+	
+	/**
+	 * 
+	 * @param command the complete command line
+	 * @return the arguments given to weblogic.Deployer (the JVM launcher part is removed)
+	 */
+	public static final String[] getDeployerArguments(String[] command) {
+		int index = ArrayUtils.indexOf(command, WebLogicDeploymentPluginConstantes.WL_WEBLOGIC_API_DEPLOYER_MAIN_CLASS);
+		if(index < 0){
+			throw new IllegalArgumentException("No "+WebLogicDeploymentPluginConstantes.WL_WEBLOGIC_API_DEPLOYER_MAIN_CLASS+" main class found in the deployer command line.");
+		}
+		return (String[]) ArrayUtils.subarray(command, index + 1, command.length);
+	}
+	
 	/**
 	 * 
 	 * @param parameter
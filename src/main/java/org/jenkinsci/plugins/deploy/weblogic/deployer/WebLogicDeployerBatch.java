@@ -0,0 +1,68 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point of a deployer JVM running several weblogic.Deployer commands in order (see {@link WebLogicDeployerRunner#runBatch}).
+ * <p>
+ * Arguments : the deployer classpath then, for each command, the argument count followed by the arguments.
+ * The exit status is the one of the first command which failed, 0 otherwise.
+ *
+ * @author rchaumie
+ *
+ */
+public final class WebLogicDeployerBatch {
+
+	private WebLogicDeployerBatch(){}
+
+	/**
+	 *
+	 * @param args
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		if(args.length < 1){
+			System.err.println("Usage : " + WebLogicDeployerBatch.class.getName() + " <deployer classpath> [<count> <arg>...]...");
+			System.exit(2);
+		}
+
+		List<String[]> commands = new ArrayList<String[]>();
+		int cursor = 1;
+		while(cursor < args.length){
+			int count = Integer.parseInt(args[cursor++]);
+			String[] command = new String[count];
+			System.arraycopy(args, cursor, command, 0, count);
+			commands.add(command);
+			cursor += count;
+		}
+
+		// la sortie standard d'origine, avant redirection par le runner
+		PrintStream stdout = System.out;
+		int status = WebLogicDeployerRunner.runBatch(args[0], commands, stdout);
+		stdout.flush();
+		System.exit(status);
+	}
+
+	/**
+	 *
+	 * @param classpath the deployer classpath
+	 * @param commands the weblogic.Deployer arguments of each command
+	 * @return the arguments of {@link #main(String[])}
+	 */
+	public static List<String> toArguments(String classpath, List<String[]> commands) {
+		List<String> args = new ArrayList<String>();
+		args.add(classpath);
+		for(String[] command : commands){
+			args.add(String.valueOf(command.length));
+			for(String arg : command){
+				args.add(arg);
+			}
+		}
+		return args;
+	}
+}
@@ -0,0 +1,45 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import hudson.EnvVars;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Executes a weblogic.Deployer command line on the node the build runs on.
+ * 
+ * @author rchaumie
+ *
+ */
+public interface WebLogicDeployerEngine {
+
+	/**
+	 * 
+	 * @param parameters
+	 * @param command the complete command line as produced by {@link WebLogicDeployer#getWebLogicCommandLine(WebLogicDeployerParameters, EnvVars)}
+	 * @param envVars
+	 * @param out the stream receiving the deployer output
+	 * @return the exit status of the command
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	int execute(WebLogicDeployerParameters parameters, String[] command, EnvVars envVars, OutputStream out) throws IOException, InterruptedException;
+	
+	/**
+	 * Runs several command lines, in order, inside a single deployer JVM. The output of each command is preceded by a section header.
+	 * The execution stops on the first command which fails.
+	 * 
+	 * @param parameters
+	 * @param commands the complete command lines, sharing the same java launcher and classpath
+	 * @param envVars
+	 * @param out the stream receiving the deployer output
+	 * @return the exit status of the first command which failed, 0 otherwise
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	int executeBatch(WebLogicDeployerParameters parameters, List<String[]> commands, EnvVars envVars, OutputStream out) throws IOException, InterruptedException;
+}
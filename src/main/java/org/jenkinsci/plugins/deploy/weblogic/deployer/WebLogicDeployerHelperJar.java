@@ -0,0 +1,63 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import hudson.FilePath;
+import hudson.model.Node;
+import hudson.remoting.VirtualChannel;
+import hudson.remoting.Which;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Installs on a node the plugin jar containing the entry points started in a separate deployer JVM
+ * ({@link WebLogicDeployerServer}, {@link WebLogicDeployerBatch}).
+ *
+ * @author rchaumie
+ *
+ */
+public final class WebLogicDeployerHelperJar {
+
+	public static final String HELPER_JAR_PATH = "weblogic-deployer-plugin/weblogic-deployer-helper.jar";
+
+	/**
+	 * Helper jar deja installe par canal (un nouveau canal a chaque reconnexion)
+	 */
+	private static final Map<VirtualChannel, Long> INSTALLED_HELPERS = Collections.synchronizedMap(new WeakHashMap<VirtualChannel, Long>());
+
+	private WebLogicDeployerHelperJar(){}
+
+	/**
+	 * Copies the plugin jar into the root directory of the node if missing or outdated.
+	 * @param node
+	 * @return the remote path of the helper jar
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static String install(Node node) throws IOException, InterruptedException {
+		VirtualChannel channel = node.getChannel();
+		if(channel == null){
+			throw new IOException("The node " + node.getNodeName() + " is offline.");
+		}
+		File localJar = Which.jarFile(WebLogicDeployerServer.class);
+		FilePath remoteJar = node.getRootPath().child(HELPER_JAR_PATH);
+
+		Long installed = INSTALLED_HELPERS.get(channel);
+		if(installed == null || installed.longValue() != localJar.lastModified()){
+			synchronized (INSTALLED_HELPERS) {
+				if(! remoteJar.exists() || remoteJar.lastModified() != localJar.lastModified()){
+					remoteJar.getParent().mkdirs();
+					new FilePath(localJar).copyTo(remoteJar);
+					remoteJar.touch(localJar.lastModified());
+				}
+				INSTALLED_HELPERS.put(channel, localJar.lastModified());
+			}
+		}
+		return remoteJar.getRemote();
+	}
+}
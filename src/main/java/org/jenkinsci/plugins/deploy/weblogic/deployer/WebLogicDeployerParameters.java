@@ -54,6 +54,16 @@ public class WebLogicDeployerParameters {
 	
 	private WebLogicOperationProcotol protocol = WebLogicOperationProcotol.t3;
 	
+	/**
+	 * La commande rend la main des que la tache WebLogic est initiee (-nowait)
+	 */
+	private boolean noWait;
+	
+	/**
+	 * Identifiant de la tache WebLogic (-listtask)
+	 */
+	private String taskId;
+	
 	public WebLogicDeployerParameters(){}
 	
 	
@@ -350,6 +360,34 @@ public class WebLogicDeployerParameters {
 	public void setProtocol(WebLogicOperationProcotol protocol) {
 		this.protocol = protocol;
 	}
+
+	/**
+	 * @return the noWait
+	 */
+	public boolean isNoWait() {
+		return noWait;
+	}
+
+	/**
+	 * @param noWait the noWait to set
+	 */
+	public void setNoWait(boolean noWait) {
+		this.noWait = noWait;
+	}
+
+	/**
+	 * @return the taskId
+	 */
+	public String getTaskId() {
+		return taskId;
+	}
+
+	/**
+	 * @param taskId the taskId to set
+	 */
+	public void setTaskId(String taskId) {
+		this.taskId = taskId;
+	}
 	
 	
 }
@@ -0,0 +1,553 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool of warm deployer JVMs living on a node (this class is used on the agent side).
+ * <p>
+ * The JVMs are grouped by launcher (java executable, java options and deployer classpath). A JVM is leased
+ * for one command then given back to the pool. When a JVM is leased, a new one is started in the background
+ * as long as the maximum size is not reached. The idle JVMs are stopped after the idle timeout and are checked
+ * before being leased.
+ *
+ * @author rchaumie
+ *
+ */
+public final class WebLogicDeployerPool {
+
+	private static final Logger LOGGER = Logger.getLogger(WebLogicDeployerPool.class.getName());
+
+	private static final long STARTUP_TIMEOUT = TimeUnit.MINUTES.toMillis(2);
+
+	private static final int HEALTH_CHECK_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(5);
+
+	private static final int READ_POLL_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(1);
+
+	private static final WebLogicDeployerPool INSTANCE = new WebLogicDeployerPool();
+
+	private final Map<String, Partition> partitions = new ConcurrentHashMap<String, Partition>();
+
+	private final ExecutorService spawner = Executors.newCachedThreadPool(new DaemonThreadFactory("WebLogic deployer pool spawner"));
+
+	private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("WebLogic deployer pool reaper"));
+
+	private final SecureRandom random = new SecureRandom();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong spawns = new AtomicLong();
+
+	private final AtomicLong spawnFailures = new AtomicLong();
+
+	private final AtomicLong totalSpawnMillis = new AtomicLong();
+
+	private final AtomicLong lastSpawnMillis = new AtomicLong();
+
+	private volatile int maxSize = 2;
+
+	private volatile long idleTimeout = TimeUnit.MINUTES.toMillis(30);
+
+	private WebLogicDeployerPool() {
+		reaper.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				evictIdleProcesses();
+			}
+		}, 1, 1, TimeUnit.MINUTES);
+	}
+
+	/**
+	 *
+	 * @return the pool of the current JVM
+	 */
+	public static WebLogicDeployerPool get() {
+		return INSTANCE;
+	}
+
+	/**
+	 *
+	 * @param maxSize the maximum number of JVMs per launcher
+	 * @param idleTimeout the time (ms) after which an idle JVM is stopped
+	 */
+	public void configure(int maxSize, long idleTimeout) {
+		this.maxSize = Math.max(1, maxSize);
+		this.idleTimeout = Math.max(TimeUnit.MINUTES.toMillis(1), idleTimeout);
+	}
+
+	/**
+	 * Runs the command on a warm JVM.
+	 *
+	 * @param command the complete command line as produced by {@link WebLogicDeployer}
+	 * @param helperJar the jar containing {@link WebLogicDeployerServer}
+	 * @param out
+	 * @return the exit status of the command
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public int execute(String[] command, String helperJar, OutputStream out) throws IOException, InterruptedException {
+		return execute(Collections.singletonList(command), false, helperJar, out);
+	}
+
+	/**
+	 * Runs the commands, in order, on the same warm JVM and stops on the first one which fails.
+	 * The output of each command is preceded by a section header.
+	 *
+	 * @param commands the complete command lines, sharing the same launcher and classpath
+	 * @param helperJar the jar containing {@link WebLogicDeployerServer}
+	 * @param out
+	 * @return the exit status of the first command which failed, 0 otherwise
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public int executeBatch(List<String[]> commands, String helperJar, OutputStream out) throws IOException, InterruptedException {
+		return execute(commands, true, helperJar, out);
+	}
+
+	/**
+	 *
+	 * @param commands
+	 * @param batch
+	 * @param helperJar
+	 * @param out
+	 * @return
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private int execute(List<String[]> commands, boolean batch, String helperJar, OutputStream out) throws IOException, InterruptedException {
+		final Partition partition = getPartition(commands.get(0), helperJar);
+
+		WarmProcess process = partition.pollIdle();
+		while(process != null && ! process.isHealthy()){
+			partition.discard(process);
+			process = partition.pollIdle();
+		}
+
+		boolean pooled = true;
+		if(process != null){
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+			pooled = partition.reserve();
+			try {
+				process = spawn(partition);
+			} finally {
+				// la place reservee est rendue si le demarrage echoue
+				if(process == null && pooled){
+					partition.unreserve();
+				}
+			}
+		}
+
+		// Remplacement en tache de fond du process loue
+		if(partition.reserve()){
+			spawner.submit(new Runnable() {
+				public void run() {
+					try {
+						partition.release(spawn(partition));
+					} catch (Exception e) {
+						partition.unreserve();
+						LOGGER.log(Level.FINE, "Unable to refill the WebLogic deployer pool", e);
+					}
+				}
+			});
+		}
+
+		boolean reusable = false;
+		try {
+			int status = 0;
+			for(int i = 0; i < commands.size() && status == 0; i++){
+				String[] args = WebLogicDeployer.getDeployerArguments(commands.get(i));
+				if(batch){
+					WebLogicDeployerRunner.writeSection(out, i + 1, commands.size(), args);
+				}
+				status = process.run(args, out);
+				if(batch && status != 0){
+					WebLogicDeployerRunner.writeFailure(out, i + 1, commands.size(), status);
+				}
+			}
+			reusable = true;
+			return status;
+		} finally {
+			if(pooled && reusable && process.isAlive()){
+				partition.release(process);
+			} else {
+				if(pooled){
+					partition.unreserve();
+				}
+				process.destroy();
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return the statistics of the pool
+	 */
+	public WebLogicDeployerPoolStatistics getStatistics() {
+		int idle = 0;
+		int total = 0;
+		for(Partition partition : partitions.values()){
+			idle += partition.idleCount();
+			total += partition.reservedCount();
+		}
+		return new WebLogicDeployerPoolStatistics(hits.get(), misses.get(), spawns.get(), spawnFailures.get(),
+				totalSpawnMillis.get(), lastSpawnMillis.get(), idle, total - idle, maxSize, idleTimeout);
+	}
+
+	/**
+	 *
+	 * @param command
+	 * @param helperJar
+	 * @return
+	 */
+	private Partition getPartition(String[] command, String helperJar) {
+		List<String> launcher = new ArrayList<String>();
+		String classpath = WebLogicDeployer.getClasspath(command);
+		for(String arg : command){
+			if("-cp".equals(arg)){
+				break;
+			}
+			launcher.add(arg);
+		}
+		String key = launcher + "|" + classpath + "|" + helperJar;
+		synchronized (partitions) {
+			Partition partition = partitions.get(key);
+			if(partition == null){
+				partition = new Partition(launcher, classpath, helperJar);
+				partitions.put(key, partition);
+			}
+			return partition;
+		}
+	}
+
+	/**
+	 * Starts a new JVM and waits until it listens to its port.
+	 * @param partition
+	 * @return
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private WarmProcess spawn(Partition partition) throws IOException, InterruptedException {
+		long start = System.currentTimeMillis();
+		List<String> cmd = new ArrayList<String>(partition.launcher);
+		cmd.add("-cp");
+		cmd.add(partition.helperJar);
+		cmd.add(WebLogicDeployerServer.class.getName());
+		cmd.add(partition.classpath);
+
+		String token = Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong());
+		Process process = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+		try {
+			process.getOutputStream().write((token + "\n").getBytes("UTF-8"));
+			process.getOutputStream().flush();
+
+			final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+			final String[] firstLine = new String[1];
+			Thread startupReader = new Thread("WebLogic deployer pool startup reader") {
+				@Override
+				public void run() {
+					try {
+						String line;
+						while((line = reader.readLine()) != null){
+							if(firstLine[0] == null && line.startsWith(WebLogicDeployerServer.PORT_PREFIX)){
+								synchronized (firstLine) {
+									firstLine[0] = line;
+									firstLine.notifyAll();
+								}
+							}
+							// les autres lignes (sortie hors commandes) sont ignorees
+						}
+					} catch (IOException ioe) {
+						// Nothing to do
+					}
+					synchronized (firstLine) {
+						firstLine.notifyAll();
+					}
+				}
+			};
+			startupReader.setDaemon(true);
+			startupReader.start();
+
+			synchronized (firstLine) {
+				long deadline = start + STARTUP_TIMEOUT;
+				while(firstLine[0] == null && startupReader.isAlive() && System.currentTimeMillis() < deadline){
+					firstLine.wait(Math.max(1, deadline - System.currentTimeMillis()));
+				}
+			}
+			if(firstLine[0] == null){
+				throw new IOException("The warm deployer JVM did not start (command : " + cmd + ").");
+			}
+
+			int port = Integer.parseInt(firstLine[0].substring(WebLogicDeployerServer.PORT_PREFIX.length()).trim());
+			long duration = System.currentTimeMillis() - start;
+			spawns.incrementAndGet();
+			totalSpawnMillis.addAndGet(duration);
+			lastSpawnMillis.set(duration);
+			return new WarmProcess(process, port, token);
+		} catch (IOException ioe) {
+			spawnFailures.incrementAndGet();
+			process.destroy();
+			throw ioe;
+		} catch (InterruptedException ie) {
+			process.destroy();
+			throw ie;
+		} catch (RuntimeException re) {
+			spawnFailures.incrementAndGet();
+			process.destroy();
+			throw re;
+		}
+	}
+
+	/**
+	 * Stops the JVMs idle for too long or not responding.
+	 */
+	private void evictIdleProcesses() {
+		long now = System.currentTimeMillis();
+		for(Partition partition : partitions.values()){
+			for(WarmProcess process : partition.removeIdle(now - idleTimeout)){
+				process.destroy();
+			}
+		}
+	}
+
+	/**
+	 * The JVMs sharing the same launcher.
+	 */
+	private final class Partition {
+
+		private final List<String> launcher;
+
+		private final String classpath;
+
+		private final String helperJar;
+
+		private final LinkedList<WarmProcess> idle = new LinkedList<WarmProcess>();
+
+		/**
+		 * Number of JVMs idle, leased or being started
+		 */
+		private int reserved = 0;
+
+		Partition(List<String> launcher, String classpath, String helperJar) {
+			this.launcher = launcher;
+			this.classpath = classpath;
+			this.helperJar = helperJar;
+		}
+
+		synchronized WarmProcess pollIdle() {
+			return idle.pollLast();
+		}
+
+		synchronized boolean reserve() {
+			if(reserved >= maxSize){
+				return false;
+			}
+			reserved++;
+			return true;
+		}
+
+		synchronized void unreserve() {
+			reserved--;
+		}
+
+		synchronized void release(WarmProcess process) {
+			process.lastUsed = System.currentTimeMillis();
+			idle.addLast(process);
+		}
+
+		synchronized void discard(WarmProcess process) {
+			reserved--;
+			process.destroy();
+		}
+
+		synchronized List<WarmProcess> removeIdle(long lastUsedLimit) {
+			List<WarmProcess> removed = new ArrayList<WarmProcess>();
+			for(Iterator<WarmProcess> it = idle.iterator(); it.hasNext();){
+				WarmProcess process = it.next();
+				if(process.lastUsed < lastUsedLimit || ! process.isAlive()){
+					it.remove();
+					reserved--;
+					removed.add(process);
+				}
+			}
+			return removed;
+		}
+
+		synchronized int idleCount() {
+			return idle.size();
+		}
+
+		synchronized int reservedCount() {
+			return reserved;
+		}
+	}
+
+	/**
+	 * A started deployer JVM.
+	 */
+	private static final class WarmProcess {
+
+		private final Process process;
+
+		private final int port;
+
+		private final String token;
+
+		private volatile long lastUsed = System.currentTimeMillis();
+
+		WarmProcess(Process process, int port, String token) {
+			this.process = process;
+			this.port = port;
+			this.token = token;
+		}
+
+		boolean isAlive() {
+			try {
+				process.exitValue();
+				return false;
+			} catch (IllegalThreadStateException itse) {
+				return true;
+			}
+		}
+
+		boolean isHealthy() {
+			if(! isAlive()){
+				return false;
+			}
+			Socket socket = null;
+			try {
+				socket = connect();
+				socket.setSoTimeout(HEALTH_CHECK_TIMEOUT);
+				DataOutputStream request = new DataOutputStream(socket.getOutputStream());
+				request.writeUTF(token);
+				request.writeUTF(WebLogicDeployerServer.PING_REQUEST);
+				request.flush();
+				return WebLogicDeployerServer.PING_RESPONSE.equals(new DataInputStream(socket.getInputStream()).readUTF());
+			} catch (IOException ioe) {
+				return false;
+			} finally {
+				close(socket);
+			}
+		}
+
+		int run(String[] args, OutputStream out) throws IOException, InterruptedException {
+			Socket socket = connect();
+			try {
+				DataOutputStream request = new DataOutputStream(socket.getOutputStream());
+				request.writeUTF(token);
+				request.writeUTF(WebLogicDeployerServer.RUN_REQUEST);
+				request.writeInt(args.length);
+				for(String arg : args){
+					request.writeUTF(arg);
+				}
+				request.flush();
+
+				// Lecture avec timeout pour rester interruptible (arret du build)
+				socket.setSoTimeout(READ_POLL_TIMEOUT);
+				InputStream response = socket.getInputStream();
+				byte[] header = new byte[4];
+				byte[] buffer = new byte[8192];
+				int length;
+				while((length = readInt(response, header)) != WebLogicDeployerServer.END_OF_OUTPUT){
+					if(length > buffer.length){
+						buffer = new byte[length];
+					}
+					readFully(response, buffer, length);
+					out.write(buffer, 0, length);
+				}
+				out.flush();
+				return readInt(response, header);
+			} finally {
+				close(socket);
+			}
+		}
+
+		void destroy() {
+			process.destroy();
+		}
+
+		private static int readInt(InputStream in, byte[] header) throws IOException, InterruptedException {
+			readFully(in, header, 4);
+			return ((header[0] & 0xFF) << 24) | ((header[1] & 0xFF) << 16) | ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
+		}
+
+		private static void readFully(InputStream in, byte[] buffer, int length) throws IOException, InterruptedException {
+			int read = 0;
+			while(read < length){
+				try {
+					int count = in.read(buffer, read, length - read);
+					if(count < 0){
+						throw new EOFException("The warm deployer JVM closed the connection.");
+					}
+					read += count;
+				} catch (SocketTimeoutException ste) {
+					if(Thread.interrupted()){
+						throw new InterruptedException();
+					}
+				}
+			}
+		}
+
+		private Socket connect() throws IOException {
+			return new Socket(InetAddress.getByName(null), port);
+		}
+
+		private static void close(Socket socket) {
+			if(socket != null){
+				try {
+					socket.close();
+				} catch (IOException ioe) {
+					// Nothing to do
+				}
+			}
+		}
+	}
+
+	/**
+	 *
+	 */
+	private static final class DaemonThreadFactory implements ThreadFactory {
+
+		private final String name;
+
+		DaemonThreadFactory(String name) {
+			this.name = name;
+		}
+
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, name);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the statistics of a {@link WebLogicDeployerPool}.
+ *
+ * @author rchaumie
+ *
+ */
+public class WebLogicDeployerPoolStatistics implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long hits;
+
+	private final long misses;
+
+	private final long spawns;
+
+	private final long spawnFailures;
+
+	private final long totalSpawnMillis;
+
+	private final long lastSpawnMillis;
+
+	private final int idle;
+
+	private final int leased;
+
+	private final int maxSize;
+
+	private final long idleTimeout;
+
+	/**
+	 *
+	 * @param hits
+	 * @param misses
+	 * @param spawns
+	 * @param spawnFailures
+	 * @param totalSpawnMillis
+	 * @param lastSpawnMillis
+	 * @param idle
+	 * @param leased
+	 * @param maxSize
+	 * @param idleTimeout
+	 */
+	public WebLogicDeployerPoolStatistics(long hits, long misses, long spawns, long spawnFailures, long totalSpawnMillis,
+			long lastSpawnMillis, int idle, int leased, int maxSize, long idleTimeout) {
+		this.hits = hits;
+		this.misses = misses;
+		this.spawns = spawns;
+		this.spawnFailures = spawnFailures;
+		this.totalSpawnMillis = totalSpawnMillis;
+		this.lastSpawnMillis = lastSpawnMillis;
+		this.idle = idle;
+		this.leased = leased;
+		this.maxSize = maxSize;
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * @return the number of commands run on an already warm JVM
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of commands which had to wait for a JVM to start
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return the hit ratio (%)
+	 */
+	public long getHitRatio() {
+		long total = hits + misses;
+		return total == 0 ? 0 : (hits * 100) / total;
+	}
+
+	/**
+	 * @return the spawns
+	 */
+	public long getSpawns() {
+		return spawns;
+	}
+
+	/**
+	 * @return the spawnFailures
+	 */
+	public long getSpawnFailures() {
+		return spawnFailures;
+	}
+
+	/**
+	 * @return the average startup time (ms) of a JVM
+	 */
+	public long getAverageSpawnMillis() {
+		return spawns == 0 ? 0 : totalSpawnMillis / spawns;
+	}
+
+	/**
+	 * @return the lastSpawnMillis
+	 */
+	public long getLastSpawnMillis() {
+		return lastSpawnMillis;
+	}
+
+	/**
+	 * @return the idle
+	 */
+	public int getIdle() {
+		return idle;
+	}
+
+	/**
+	 * @return the number of JVMs running a command or being started
+	 */
+	public int getLeased() {
+		return leased;
+	}
+
+	/**
+	 * @return the maxSize
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return the idle timeout in minutes
+	 */
+	public long getIdleTimeoutMinutes() {
+		return idleTimeout / 60000;
+	}
+}
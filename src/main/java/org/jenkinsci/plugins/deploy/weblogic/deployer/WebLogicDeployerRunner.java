@@ -0,0 +1,316 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jenkinsci.plugins.deploy.weblogic.properties.WebLogicDeploymentPluginConstantes;
+
+/**
+ * Runs the weblogic.Deployer entry point inside the current JVM, which must be a deployer JVM started by the
+ * plugin (see {@link WebLogicDeployerServer} and {@link WebLogicDeployerBatch}) : the standard streams and the
+ * security manager of the JVM are replaced. It is never used inside the agent JVM.
+ * <p>
+ * The deployer classpath is loaded once into an isolated classloader which is cached until one of
+ * the libraries changes on disk. The output written by the deployer on System.out/System.err is
+ * routed to the stream given by the caller thread. A call to System.exit made by the deployer is trapped :
+ * its status is the exit status of the command, as if the deployer had run in its own JVM.
+ * <p>
+ * This class only depends on the JDK.
+ *
+ * @author rchaumie
+ *
+ */
+public final class WebLogicDeployerRunner {
+
+	private static final List<String> ACTIONS = Arrays.asList("-deploy", "-undeploy", "-redeploy", "-distribute", "-start", "-stop",
+			"-update", "-cancel", "-list", "-listapps", "-listtask", "-purgetasks");
+	
+	private static final ConcurrentMap<String, CachedClassLoader> CLASSLOADERS = new ConcurrentHashMap<String, CachedClassLoader>();
+
+	private static final InheritableThreadLocal<PrintStream> OUTPUT = new InheritableThreadLocal<PrintStream>();
+
+	/**
+	 * Statut passe a System.exit par le deployer en cours (null tant qu'il n'a pas appele System.exit)
+	 */
+	private static final InheritableThreadLocal<Integer[]> EXIT_STATUS = new InheritableThreadLocal<Integer[]>();
+
+	private static boolean installed = false;
+
+	private WebLogicDeployerRunner(){}
+
+	/**
+	 *
+	 * @param classpath the deployer classpath
+	 * @param args the weblogic.Deployer arguments
+	 * @param out the stream receiving the deployer output
+	 * @return the status passed to System.exit by the deployer, 0 if its main method returned normally,
+	 * 1 if it threw an exception
+	 */
+	public static int run(String classpath, String[] args, OutputStream out) {
+		PrintStream output = new PrintStream(out, true);
+		PrintStream previousOutput = OUTPUT.get();
+		Integer[] previousExitStatus = EXIT_STATUS.get();
+		Integer[] exitStatus = new Integer[1];
+		Thread current = Thread.currentThread();
+		ClassLoader previousClassLoader = current.getContextClassLoader();
+
+		installHooks();
+		OUTPUT.set(output);
+		EXIT_STATUS.set(exitStatus);
+		try {
+			ClassLoader classLoader = getClassLoader(classpath);
+			current.setContextClassLoader(classLoader);
+			Class<?> deployerClass = Class.forName(WebLogicDeploymentPluginConstantes.WL_WEBLOGIC_API_DEPLOYER_MAIN_CLASS, true, classLoader);
+			deployerClass.getMethod("main", String[].class).invoke(null, (Object) args);
+			return exitStatus[0] != null ? exitStatus[0] : 0;
+		} catch (InvocationTargetException ite) {
+			if(exitStatus[0] != null){
+				return exitStatus[0];
+			}
+			ite.getTargetException().printStackTrace(output);
+			return 1;
+		} catch (Exception e) {
+			e.printStackTrace(output);
+			return 1;
+		} finally {
+			output.flush();
+			OUTPUT.set(previousOutput);
+			EXIT_STATUS.set(previousExitStatus);
+			current.setContextClassLoader(previousClassLoader);
+		}
+	}
+
+	/**
+	 * Runs the commands in order and stops on the first one which fails.
+	 * 
+	 * @param classpath the deployer classpath
+	 * @param commands the weblogic.Deployer arguments of each command
+	 * @param out the stream receiving the deployer output
+	 * @return the exit status of the first command which failed, 0 otherwise
+	 * @throws IOException
+	 */
+	public static int runBatch(String classpath, List<String[]> commands, OutputStream out) throws IOException {
+		for(int i = 0; i < commands.size(); i++){
+			writeSection(out, i + 1, commands.size(), commands.get(i));
+			int status = run(classpath, commands.get(i), out);
+			if(status != 0){
+				writeFailure(out, i + 1, commands.size(), status);
+				return status;
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Writes the header preceding the output of a command of a batch.
+	 * @param out
+	 * @param index (starts at 1)
+	 * @param count
+	 * @param args the weblogic.Deployer arguments (only the action is written)
+	 * @throws IOException
+	 */
+	public static void writeSection(OutputStream out, int index, int count, String[] args) throws IOException {
+		String action = getAction(args);
+		out.write(("------------------------------------  TASK EXECUTION ("+index+"/"+count+")"+(action != null ? " "+action : "")
+				+" ------------------------------------------------\r\n").getBytes());
+		out.flush();
+	}
+	
+	/**
+	 * Writes the line explaining why the remaining commands of a batch are skipped.
+	 * @param out
+	 * @param index (starts at 1)
+	 * @param count
+	 * @param status
+	 * @throws IOException
+	 */
+	public static void writeFailure(OutputStream out, int index, int count, int status) throws IOException {
+		out.write(("[WeblogicDeploymentPlugin] - command "+index+"/"+count+" completed abnormally (exit code = "+status+")."
+				+(index < count ? " The "+(count - index)+" remaining command(s) are skipped." : "")+"\r\n").getBytes());
+		out.flush();
+	}
+	
+	/**
+	 * 
+	 * @param args
+	 * @return the weblogic.Deployer action (-deploy, -stop ...) or null
+	 */
+	static String getAction(String[] args) {
+		for(String arg : args){
+			if(ACTIONS.contains(arg)){
+				return arg;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 *
+	 * @param classpath
+	 * @return the cached classloader, rebuilt if one of the libraries has been modified
+	 * @throws IOException
+	 */
+	static ClassLoader getClassLoader(String classpath) throws IOException {
+		String signature = computeSignature(classpath);
+		CachedClassLoader cached = CLASSLOADERS.get(classpath);
+		if(cached != null && cached.signature.equals(signature)){
+			return cached.classLoader;
+		}
+
+		List<URL> urls = new ArrayList<URL>();
+		for(File library : toFiles(classpath)){
+			if(! library.exists()){
+				throw new IOException("The library " + library.getAbsolutePath() + " declared on classpath is missing.");
+			}
+			urls.add(library.toURI().toURL());
+		}
+		// Isolation : seules les classes du JDK sont visibles depuis le deployer
+		URLClassLoader classLoader = new URLClassLoader(urls.toArray(new URL[urls.size()]), ClassLoader.getSystemClassLoader().getParent());
+		CLASSLOADERS.put(classpath, new CachedClassLoader(signature, classLoader));
+		return classLoader;
+	}
+
+	/**
+	 *
+	 * @param classpath
+	 * @return
+	 */
+	private static List<File> toFiles(String classpath) {
+		List<File> files = new ArrayList<File>();
+		for(String path : classpath.split(File.pathSeparator)){
+			if(path.trim().length() > 0){
+				files.add(new File(path.trim()));
+			}
+		}
+		return files;
+	}
+
+	/**
+	 *
+	 * @param classpath
+	 * @return
+	 */
+	private static String computeSignature(String classpath) {
+		StringBuilder signature = new StringBuilder();
+		for(File library : toFiles(classpath)){
+			signature.append(library.getAbsolutePath()).append('|').append(library.lastModified()).append('|').append(library.length()).append(';');
+		}
+		return signature.toString();
+	}
+
+	/**
+	 * Installs once the streams routing the standard output to the stream of the caller thread
+	 * and the security manager trapping the calls to System.exit made by the deployer.
+	 */
+	private static synchronized void installHooks() {
+		if(installed){
+			return;
+		}
+		System.setOut(new PrintStream(new ThreadRoutedOutputStream(System.out), true));
+		System.setErr(new PrintStream(new ThreadRoutedOutputStream(System.err), true));
+		System.setSecurityManager(new ExitTrap(System.getSecurityManager()));
+		installed = true;
+	}
+
+	/**
+	 * Turns a call to System.exit made by a deployer into an exception carrying the status.
+	 * The other checks are left to the previous security manager (if any).
+	 */
+	private static final class ExitTrap extends SecurityManager {
+
+		private final SecurityManager previous;
+
+		ExitTrap(SecurityManager previous) {
+			this.previous = previous;
+		}
+
+		@Override
+		public void checkExit(int status) {
+			Integer[] exitStatus = EXIT_STATUS.get();
+			if(exitStatus != null){
+				if(exitStatus[0] == null){
+					exitStatus[0] = status;
+				}
+				throw new SecurityException("weblogic.Deployer exited with status " + status);
+			}
+			if(previous != null){
+				previous.checkExit(status);
+			}
+		}
+
+		@Override
+		public void checkPermission(Permission perm) {
+			if(previous != null){
+				previous.checkPermission(perm);
+			}
+		}
+
+		@Override
+		public void checkPermission(Permission perm, Object context) {
+			if(previous != null){
+				previous.checkPermission(perm, context);
+			}
+		}
+	}
+
+	/**
+	 *
+	 */
+	private static final class ThreadRoutedOutputStream extends OutputStream {
+
+		private final PrintStream original;
+
+		ThreadRoutedOutputStream(PrintStream original) {
+			this.original = original;
+		}
+
+		private OutputStream current() {
+			PrintStream output = OUTPUT.get();
+			return output != null ? output : original;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			current().write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			current().write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			current().flush();
+		}
+	}
+
+	/**
+	 *
+	 */
+	private static final class CachedClassLoader {
+
+		private final String signature;
+
+		private final ClassLoader classLoader;
+
+		CachedClassLoader(String signature, ClassLoader classLoader) {
+			this.signature = signature;
+			this.classLoader = classLoader;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import org.jenkinsci.plugins.deploy.weblogic.properties.WebLogicDeploymentPluginConstantes;
+
+/**
+ * Entry point of a warm deployer JVM (see {@link WebLogicDeployerPool}).
+ * <p>
+ * The JVM loads the deployer classpath at startup, prints the port it listens to on the loopback interface
+ * then runs the weblogic.Deployer argument arrays it receives, one at a time. The first line read on the
+ * standard input is the token every request has to present. The JVM stops as soon as its standard input is closed,
+ * that is when the agent which started it goes away.
+ * <p>
+ * Protocol (DataInput/DataOutput) : token, command (RUN or PING), for RUN the argument count then the arguments.
+ * The output of a RUN is sent as length prefixed frames terminated by -1 and the exit status.
+ *
+ * @author rchaumie
+ *
+ */
+public final class WebLogicDeployerServer {
+
+	public static final String PORT_PREFIX = "PORT=";
+
+	public static final String RUN_REQUEST = "RUN";
+
+	public static final String PING_REQUEST = "PING";
+
+	public static final String PING_RESPONSE = "PONG";
+
+	public static final int END_OF_OUTPUT = -1;
+
+	private WebLogicDeployerServer(){}
+
+	/**
+	 *
+	 * @param args the deployer classpath
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		if(args.length != 1){
+			System.err.println("Usage : " + WebLogicDeployerServer.class.getName() + " <deployer classpath>");
+			System.exit(2);
+		}
+		final String classpath = args[0];
+
+		BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in));
+		final String token = stdin.readLine();
+		if(token == null){
+			System.exit(2);
+		}
+
+		// Prechargement des classes du deployer
+		try {
+			Class.forName(WebLogicDeploymentPluginConstantes.WL_WEBLOGIC_API_DEPLOYER_MAIN_CLASS, true, WebLogicDeployerRunner.getClassLoader(classpath));
+		} catch (Throwable t) {
+			t.printStackTrace();
+			System.exit(3);
+		}
+
+		ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName(null));
+		System.out.println(PORT_PREFIX + serverSocket.getLocalPort());
+		System.out.flush();
+
+		watchParent(stdin);
+
+		while(true){
+			Socket socket = serverSocket.accept();
+			try {
+				handle(socket, token, classpath);
+			} catch (IOException ioe) {
+				// connexion interrompue par le client : on attend la suivante
+			} finally {
+				try {
+					socket.close();
+				} catch (IOException ioe) {
+					// Nothing to do
+				}
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param socket
+	 * @param token
+	 * @param classpath
+	 * @throws IOException
+	 */
+	private static void handle(Socket socket, String token, String classpath) throws IOException {
+		DataInputStream in = new DataInputStream(socket.getInputStream());
+		final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+
+		if(! token.equals(in.readUTF())){
+			return;
+		}
+
+		String request = in.readUTF();
+		if(PING_REQUEST.equals(request)){
+			out.writeUTF(PING_RESPONSE);
+			out.flush();
+			return;
+		}
+		if(! RUN_REQUEST.equals(request)){
+			return;
+		}
+
+		String[] deployerArgs = new String[in.readInt()];
+		for(int i = 0; i < deployerArgs.length; i++){
+			deployerArgs[i] = in.readUTF();
+		}
+
+		int status = WebLogicDeployerRunner.run(classpath, deployerArgs, new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				write(new byte[]{(byte) b}, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				synchronized (out) {
+					out.writeInt(len);
+					out.write(b, off, len);
+				}
+			}
+
+			@Override
+			public void flush() throws IOException {
+				out.flush();
+			}
+		});
+
+		synchronized (out) {
+			out.writeInt(END_OF_OUTPUT);
+			out.writeInt(status);
+			out.flush();
+		}
+	}
+
+	/**
+	 * Stops the JVM when the standard input is closed.
+	 * @param stdin
+	 */
+	private static void watchParent(final BufferedReader stdin) {
+		Thread watcher = new Thread("WebLogic deployer server parent watcher") {
+			@Override
+			public void run() {
+				try {
+					while(stdin.readLine() != null){
+						// Nothing to do
+					}
+				} catch (IOException ioe) {
+					// Nothing to do
+				}
+				System.exit(0);
+			}
+		};
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+}
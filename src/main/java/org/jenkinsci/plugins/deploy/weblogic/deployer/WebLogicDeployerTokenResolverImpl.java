@@ -3,50 +3,100 @@
  */
 package org.jenkinsci.plugins.deploy.weblogic.deployer;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
+ * Resolves the tokens through a registry (token key in lower case -> value of the parameters).
+ * 
  * @author RaphaelC
  *
  */
 public class WebLogicDeployerTokenResolverImpl implements WebLogicDeployerTokenResolver {
 
+	private static final Map<String, TokenValue> REGISTRY = new HashMap<String, TokenValue>();
+	
+	static {
+		register(WL_DEPLOYMENT_CMD_DEPLOYMENT_NAME_TOKEN, new TokenValue() {
+			public String get(WebLogicDeployerParameters parameters) {
+				return parameters.getDeploymentName();
+			}
+		});
+		register(WL_DEPLOYMENT_CMD_HOST_TOKEN, new TokenValue() {
+			public String get(WebLogicDeployerParameters parameters) {
+				return parameters.getEnvironment().getHost();
+			}
+		});
+		register(WL_DEPLOYMENT_CMD_LOGIN_TOKEN, new TokenValue() {
+			public String get(WebLogicDeployerParameters parameters) {
+				return parameters.getEnvironment().getLogin();
+			}
+		});
+		register(WL_DEPLOYMENT_CMD_PASSWORD_TOKEN, new TokenValue() {
+			public String get(WebLogicDeployerParameters parameters) {
+				return parameters.getEnvironment().getPassword();
+			}
+		});
+		register(WL_DEPLOYMENT_CMD_PORT_TOKEN, new TokenValue() {
+			public String get(WebLogicDeployerParameters parameters) {
+				return parameters.getEnvironment().getPort();
+			}
+		});
+		register(WL_DEPLOYMENT_CMD_SOURCE_TOKEN, new TokenValue() {
+			public String get(WebLogicDeployerParameters parameters) {
+				return parameters.getSource();
+			}
+		});
+		register(WL_DEPLOYMENT_CMD_TARGETS_TOKEN, new TokenValue() {
+			public String get(WebLogicDeployerParameters parameters) {
+				return parameters.getDeploymentTargets();
+			}
+		});
+		register(WL_DEPLOYMENT_CMD_USER_CONFIGFILE_TOKEN, new TokenValue() {
+			public String get(WebLogicDeployerParameters parameters) {
+				return parameters.getEnvironment().getUserconfigfile();
+			}
+		});
+		register(WL_DEPLOYMENT_CMD_USER_KEYFILE_TOKEN, new TokenValue() {
+			public String get(WebLogicDeployerParameters parameters) {
+				return parameters.getEnvironment().getUserkeyfile();
+			}
+		});
+		register(WL_DEPLOYMENT_CMD_DEPLOYMENT_PLAN_TOKEN, new TokenValue() {
+			public String get(WebLogicDeployerParameters parameters) {
+				return parameters.getDeploymentPlan();
+			}
+		});
+	}
+	
+	/**
+	 * 
+	 * @param key
+	 * @param value
+	 */
+	private static void register(String key, TokenValue value) {
+		REGISTRY.put(key.toLowerCase(Locale.ENGLISH), value);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerTokenResolver#resolveKey(java.lang.String, org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerParameters)
 	 */
 	public String resolveKey(String key, WebLogicDeployerParameters parameters) {
-		
-		if(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_DEPLOYMENT_NAME_TOKEN.equalsIgnoreCase(key)){
-			return parameters.getDeploymentName();
-		}
-		if(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_HOST_TOKEN.equalsIgnoreCase(key)){
-			return parameters.getEnvironment().getHost();
-		}
-		if(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_LOGIN_TOKEN.equalsIgnoreCase(key)){
-			return parameters.getEnvironment().getLogin();
-		}
-		if(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_PASSWORD_TOKEN.equalsIgnoreCase(key)){
-			return parameters.getEnvironment().getPassword();
-		}
-		if(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_PORT_TOKEN.equalsIgnoreCase(key)){
-			return parameters.getEnvironment().getPort();
+		if(key == null){
+			return null;
 		}
+		TokenValue value = REGISTRY.get(key.toLowerCase(Locale.ENGLISH));
+		return value == null ? null : value.get(parameters);
+	}
+	
+	/**
+	 * Value of a token
+	 */
+	private interface TokenValue {
 		
-		if(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_SOURCE_TOKEN.equalsIgnoreCase(key)){
-			return parameters.getSource();
-		}
-		if(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_TARGETS_TOKEN.equalsIgnoreCase(key)){
-			return parameters.getDeploymentTargets();
-		}
-		if(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_USER_CONFIGFILE_TOKEN.equalsIgnoreCase(key)){
-			return parameters.getEnvironment().getUserconfigfile();
-		}
-		if(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_USER_KEYFILE_TOKEN.equalsIgnoreCase(key)){
-			return parameters.getEnvironment().getUserkeyfile();
-		}
-		if(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_DEPLOYMENT_PLAN_TOKEN.equalsIgnoreCase(key)){
-			return parameters.getDeploymentPlan();
-		}
-		return null;
+		String get(WebLogicDeployerParameters parameters);
 	}
 
 }
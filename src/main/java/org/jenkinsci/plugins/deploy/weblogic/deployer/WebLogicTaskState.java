@@ -0,0 +1,25 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+/**
+ * State of a WebLogic deployment task submitted with <code>-nowait</code> (as listed by <code>-listtask</code>).
+ * 
+ * @author rchaumie
+ *
+ */
+public enum WebLogicTaskState {
+
+	RUNNING,
+	COMPLETED,
+	FAILED,
+	UNKNOWN;
+	
+	/**
+	 * @return true if the task is over (or no longer known)
+	 */
+	public boolean isDone() {
+		return this != RUNNING;
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.jdk;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.Saveable;
+import hudson.model.TaskListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.slaves.ComputerListener;
+import hudson.tools.ToolDescriptor;
+import jenkins.model.Jenkins;
+
+/**
+ * Invalidates the JDKs cached by {@link JdkToolService}.
+ * 
+ * @author rchaumie
+ *
+ */
+public final class JdkToolCacheListener {
+
+	private JdkToolCacheListener(){}
+	
+	/**
+	 * A reconnected node may have another JDK installed.
+	 */
+	@Extension
+	public static class ComputerListenerImpl extends ComputerListener {
+		
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.slaves.ComputerListener#onOnline(hudson.model.Computer, hudson.model.TaskListener)
+		 */
+		@Override
+		public void onOnline(Computer c, TaskListener listener) {
+			JdkToolService.invalidate(c.getName());
+		}
+	}
+	
+	/**
+	 * The tools locations are saved with the global configuration or the node configuration.
+	 */
+	@Extension
+	public static class SaveableListenerImpl extends SaveableListener {
+		
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.listeners.SaveableListener#onChange(hudson.model.Saveable, hudson.XmlFile)
+		 */
+		@Override
+		public void onChange(Saveable o, XmlFile file) {
+			if(o instanceof Jenkins || o instanceof ToolDescriptor){
+				JdkToolService.invalidateAll();
+			} else if(o instanceof Node){
+				JdkToolService.invalidate(((Node) o).getNodeName());
+			}
+		}
+	}
+}
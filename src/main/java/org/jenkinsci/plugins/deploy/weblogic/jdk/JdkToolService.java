@@ -18,8 +18,9 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import jenkins.model.Jenkins;
 
@@ -38,6 +39,17 @@ public static final String EXTERNAL_ENV_JDK = "environment";
 	
 	public static final String JAVA_VERSION_COMMAND_VERSION_LINE_REGEX = ".*\\r*\\n*(java version )(\")(.+)(\").*\\r*\\n*.*\\r*\\n*.*\\r*\\n*";
 	
+	private static final String JAVA_VERSION_MARKER = "version \"";
+	
+	private static final String CACHE_KEY_SEPARATOR = "|";
+	
+	/**
+	 * JDK resolus par (noeud, nom du JDK)
+	 */
+	private static final ConcurrentMap<String, CachedJdk> CACHE = new ConcurrentHashMap<String, CachedJdk>();
+	
+	private static final AtomicLong SAVED_LAUNCHES = new AtomicLong();
+	
 	
 //	static List<JDK> jdkToolAvailables = new ArrayList<JDK>();
 	
@@ -68,17 +80,61 @@ public static final String EXTERNAL_ENV_JDK = "environment";
 		return jdkToolAvailables;
 	}
 	
+	/**
+	 * Resolves the JDK on the node. The resolution is cached per (node, JDK name) until the node reconnects or the tools configuration changes.
+	 * @param node
+	 * @param name
+	 * @return the JDK located on the node, null if not declared
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
 	public static JDK getJDKByName(Node node, String name) throws IOException, InterruptedException {
+		String key = getCacheKey(node, name);
+		CachedJdk cached = CACHE.get(key);
+		if(cached != null){
+			return cached.jdk;
+		}
+		
 		JDK out = null;
 		for(JDK jdk : getJdkToolAvailables()) {
 			if(name.equalsIgnoreCase(jdk.getName())){
 				// Recuperer le jdk declare au niveau du node correspondant
-				return jdk.forNode(node, new StreamTaskListener(new NullStream()));
+				out = jdk.forNode(node, new StreamTaskListener(new NullStream()));
+				CACHE.put(key, new CachedJdk(out));
+				break;
 			}
 		}
 		return out;
 	}
 	
+	/**
+	 * Clears the cached JDKs of a node.
+	 * @param nodeName
+	 */
+	public static void invalidate(String nodeName) {
+		String prefix = StringUtils.defaultString(nodeName) + CACHE_KEY_SEPARATOR;
+		for(String key : CACHE.keySet()){
+			if(key.startsWith(prefix)){
+				CACHE.remove(key);
+			}
+		}
+	}
+	
+	/**
+	 * Clears the cached JDKs of all nodes.
+	 */
+	public static void invalidateAll() {
+		CACHE.clear();
+	}
+	
+	/**
+	 * 
+	 * @return the number of java process launches avoided thanks to the cache
+	 */
+	public static long getSavedLaunches() {
+		return SAVED_LAUNCHES.get();
+	}
+	
 //	public static String getJDKHomeByName(String name) {
 //		String out = null;
 //		for(JDK jdk : getJdkToolAvailables()) {
@@ -95,39 +151,35 @@ public static final String EXTERNAL_ENV_JDK = "environment";
 			return false;
 		}
 		
-		try {
-			ByteArrayOutputStream out = new ByteArrayOutputStream();
-			TaskListener listener = new StreamTaskListener(out);
-			Launcher launcher = node.createLauncher(listener);
-			String cmd = new FilePath(node.getChannel(), jdk.getHome().concat("/bin/java")).getRemote();
-//			int result = launcher.launch().cmds(cmd,"-fullversion").stdout(out).join();
-			int result = launcher.launch().cmds(cmd,"-version").stdout(out).join();
-//			L'executable n'existe pas
-			if(result  != 0){
-				logger.println("[WeblogicDeploymentPlugin] - Unable to detect JDK version");
-				return false;
-			}
-			
-			// TODO ne semble pas fonctionner a distance
-			Pattern pattern = Pattern.compile(JAVA_VERSION_COMMAND_VERSION_LINE_REGEX);
-			Matcher matcher = pattern.matcher(out.toString());
-			if(matcher.matches()){
-				logger.println("[WeblogicDeploymentPlugin] - Pay attention to JDK version {selected version is "+matcher.group(3)+"} compatibility with WebLogic Deployer API (see Oracle documentation).");
-			}
-			
-		} catch (IOException e) {
-            return false;
-        } catch (InterruptedException e) {
-            return false;
-        } catch(IllegalStateException ise){
-        	return false;
-        } catch(IndexOutOfBoundsException ioobe) {
-        	return false;
-        }
-		
+		JdkProbe probe = probe(node, jdk);
+		if(! probe.valid){
+			logger.println("[WeblogicDeploymentPlugin] - Unable to detect JDK version");
+			return false;
+		}
+		if(probe.version != null){
+			logger.println("[WeblogicDeploymentPlugin] - Pay attention to JDK version {selected version is "+probe.version+"} compatibility with WebLogic Deployer API (see Oracle documentation).");
+		}
 		return true;
 	}
 	
+	/**
+	 * Extracts the version from the output of a java -version command (without regular expression).
+	 * @param output
+	 * @return the version (ex : 1.6.0_45), null if not found
+	 */
+	public static String parseJavaVersion(String output) {
+		if(output == null){
+			return null;
+		}
+		int index = output.indexOf(JAVA_VERSION_MARKER);
+		if(index < 0){
+			return null;
+		}
+		int start = index + JAVA_VERSION_MARKER.length();
+		int end = output.indexOf('"', start);
+		return end < 0 ? null : output.substring(start, end);
+	}
+	
     /**
      * Checks if JDK exists on the given node.
      *
@@ -136,15 +188,87 @@ public static final String EXTERNAL_ENV_JDK = "environment";
      * so this is often useful for form field validation.
      */
     public static boolean isJDKValid(Node node, JDK jdk) {
-        try {
-            TaskListener listener = new StreamTaskListener(new NullStream());
-            Launcher launcher = node.createLauncher(listener);
-            String cmd = new FilePath(node.getChannel(), jdk.getHome().concat("/bin/java")).getRemote();
-            return launcher.launch().cmds(cmd,"-fullversion").stdout(listener).join()==0;
-        } catch (IOException e) {
-            return false;
-        } catch (InterruptedException e) {
-            return false;
-        }
+        return probe(node, jdk).valid;
+    }
+    
+    /**
+     * Launches java -version once per (node, JDK) : the exit code gives the validity and the output the version.
+     * @param node
+     * @param jdk
+     * @return
+     */
+    private static JdkProbe probe(Node node, JDK jdk) {
+    	String key = getCacheKey(node, jdk.getName());
+    	CachedJdk cached = CACHE.get(key);
+    	if(cached == null || cached.jdk == null || ! StringUtils.equals(cached.jdk.getHome(), jdk.getHome())){
+    		cached = new CachedJdk(jdk);
+    		CACHE.put(key, cached);
+    	}
+    	
+    	synchronized (cached) {
+    		if(cached.probe != null){
+    			SAVED_LAUNCHES.incrementAndGet();
+    			return cached.probe;
+    		}
+    		
+    		JdkProbe probe;
+	        try {
+	            ByteArrayOutputStream out = new ByteArrayOutputStream();
+	            TaskListener listener = new StreamTaskListener(out);
+	            Launcher launcher = node.createLauncher(listener);
+	            String cmd = new FilePath(node.getChannel(), jdk.getHome().concat("/bin/java")).getRemote();
+	            int result = launcher.launch().cmds(cmd,"-version").stdout(out).join();
+	            probe = new JdkProbe(result == 0, result == 0 ? parseJavaVersion(out.toString()) : null);
+	        } catch (IOException e) {
+	            return new JdkProbe(false, null);
+	        } catch (InterruptedException e) {
+	        	Thread.currentThread().interrupt();
+	            return new JdkProbe(false, null);
+	        }
+	        // seul un JDK valide est conserve (un JDK absent peut etre installe entre temps)
+	        if(probe.valid){
+	        	cached.probe = probe;
+	        }
+	        return probe;
+    	}
+    }
+    
+    /**
+     * 
+     * @param node
+     * @param jdkName
+     * @return
+     */
+    private static String getCacheKey(Node node, String jdkName) {
+    	return StringUtils.defaultString(node.getNodeName()) + CACHE_KEY_SEPARATOR + StringUtils.lowerCase(jdkName);
+    }
+    
+    /**
+     * JDK resolu sur un noeud
+     */
+    private static final class CachedJdk {
+    	
+    	private final JDK jdk;
+    	
+    	private JdkProbe probe;
+    	
+    	CachedJdk(JDK jdk) {
+    		this.jdk = jdk;
+    	}
+    }
+    
+    /**
+     * Resultat du lancement de java -version
+     */
+    private static final class JdkProbe {
+    	
+    	private final boolean valid;
+    	
+    	private final String version;
+    	
+    	JdkProbe(boolean valid, String version) {
+    		this.valid = valid;
+    		this.version = version;
+    	}
     }
 }
@@ -24,6 +24,7 @@ public class WebLogicDeploymentPluginConstantes {
 	
 	public static final String WL_DEPLOYMENT_CMD_LINE_SEPARATOR = ";";
 	
-	public static final String COMMAND_LINE_TOKEN = "\\{([^}]+)\\}";
+	// une accolade precedee de $ ouvre une variable (${VAR}, ${VAR:-default}) et non un jeton
+	public static final String COMMAND_LINE_TOKEN = "(?<!\\$)\\{([^}]+)\\}";
 	
 }
@@ -0,0 +1,209 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.BuildListener;
+import hudson.model.Computer;
+import hudson.model.JDK;
+import hudson.model.Node;
+import hudson.model.StreamBuildListener;
+import hudson.model.TaskListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.logging.Level;
+
+import jenkins.model.Jenkins;
+
+import org.jenkinsci.plugins.deploy.weblogic.WatchingWeblogicDeploymentAction;
+import org.jenkinsci.plugins.deploy.weblogic.WeblogicDeploymentPlugin.WeblogicDeploymentPluginDescriptor;
+import org.jenkinsci.plugins.deploy.weblogic.WeblogicDeploymentPluginLog;
+import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTaskResult;
+import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicDeploymentStatus;
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.ForkedWebLogicDeployerEngineImpl;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicCommand;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployer;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerEngine;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerParameters;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicTaskState;
+import org.jenkinsci.plugins.deploy.weblogic.util.VarUtils;
+
+/**
+ * Polls with <code>-listtask</code> the WebLogic tasks submitted with <code>-nowait</code> (see {@link AsyncDeploymentRegistry}).
+ * Each poll is a short deployer JVM on the node of the build, the delay between two polls grows up to
+ * {@link AsyncDeploymentRegistry#MAX_POLL_DELAY}.
+ * <p>
+ * When no build waits for a task any more (build aborted, Jenkins restarted), its outcome is written in the deployment log
+ * and in the result of the build.
+ *
+ * @author rchaumie
+ *
+ */
+@Extension
+public class AsyncDeploymentPoller extends AsyncPeriodicWork {
+
+	public static final long RECURRENCE_PERIOD = 5 * 1000L;
+
+	private final WebLogicDeployerEngine deployerEngine = new ForkedWebLogicDeployerEngineImpl();
+
+	public AsyncDeploymentPoller() {
+		super("WebLogic asynchronous deployments polling");
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.PeriodicWork#getRecurrencePeriod()
+	 */
+	@Override
+	public long getRecurrencePeriod() {
+		return RECURRENCE_PERIOD;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.AsyncPeriodicWork#getNormalLoggingLevel()
+	 */
+	@Override
+	protected Level getNormalLoggingLevel() {
+		// scrutation toutes les 5 secondes, le plus souvent sans deploiement en attente
+		return Level.FINE;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.AsyncPeriodicWork#execute(hudson.model.TaskListener)
+	 */
+	@Override
+	protected void execute(TaskListener listener) throws IOException, InterruptedException {
+		AsyncDeploymentRegistry registry = AsyncDeploymentRegistry.get();
+		List<AsyncDeploymentRegistry.Entry> dueEntries = registry.getDueEntries(System.currentTimeMillis());
+		for(AsyncDeploymentRegistry.Entry entry : dueEntries){
+			if(! entry.isDone()){
+				WebLogicTaskState state = null;
+				try {
+					state = poll(entry, listener);
+					listener.getLogger().println(entry + " : " + state);
+				} catch (IOException ioe) {
+					listener.error(entry + " : unable to poll the task (" + ioe.getMessage() + "). Next try later.");
+				} catch (RuntimeException re) {
+					listener.error(entry + " : unable to poll the task (" + re + "). Next try later.");
+				}
+				if(! registry.update(entry, state, System.currentTimeMillis())){
+					continue;
+				}
+			}
+			if(! registry.complete(entry)){
+				recordOutcome(entry, listener);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param entry
+	 * @param listener
+	 * @return the state listed by WebLogic
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private WebLogicTaskState poll(AsyncDeploymentRegistry.Entry entry, TaskListener listener) throws IOException, InterruptedException {
+		AbstractBuild<?, ?> build = getBuild(entry);
+		if(build == null){
+			listener.getLogger().println(entry + " : the build no longer exists.");
+			return WebLogicTaskState.UNKNOWN;
+		}
+		Node node = build.getBuiltOn();
+		Computer computer = node == null ? null : node.toComputer();
+		if(computer == null || computer.isOffline()){
+			throw new IOException("the node " + build.getBuiltOnStr() + " is offline");
+		}
+		WeblogicDeploymentPluginDescriptor descriptor = Jenkins.getInstance().getDescriptorByType(WeblogicDeploymentPluginDescriptor.class);
+		WeblogicEnvironment environment = descriptor.getWeblogicEnvironmentSnapshot().getByName(entry.getEnvironmentName());
+		if(environment == null){
+			throw new IOException("the environment " + entry.getEnvironmentName() + " is no longer configured");
+		}
+
+		BuildListener buildListener = new StreamBuildListener(listener.getLogger(), Charset.defaultCharset());
+		WebLogicDeployerParameters parameters = new WebLogicDeployerParameters(
+				build, node.createLauncher(buildListener), buildListener, new JDK(entry.getJdkName(), entry.getJdkHome()), null, false, entry.getDeploymentTargets(),
+				environment, null, null, WebLogicCommand.LISTTASK, true,
+				descriptor.getJavaOpts(), descriptor.getExtraClasspath(), null, null, entry.getProtocol());
+		parameters.setTaskId(entry.getWeblogicTaskId());
+		EnvVars envVars = VarUtils.getEnvVars(build, buildListener);
+		String[] listtaskCommand = WebLogicDeployer.getWebLogicCommandLine(parameters, envVars);
+
+		ByteArrayOutputStream listtaskOut = new ByteArrayOutputStream();
+		int exitStatus = deployerEngine.execute(parameters, listtaskCommand, envVars, listtaskOut);
+		if(exitStatus != 0){
+			throw new IOException("listing of the tasks completed abnormally (exit code = " + exitStatus + ")");
+		}
+		return WebLogicDeployer.getTaskState(listtaskOut.toString(), entry.getWeblogicTaskId());
+	}
+
+	/**
+	 * Writes the outcome of a task no build waits for in the deployment log and in the result of the build.
+	 *
+	 * @param entry
+	 * @param listener
+	 */
+	private void recordOutcome(AsyncDeploymentRegistry.Entry entry, TaskListener listener) {
+		AbstractBuild<?, ?> build = getBuild(entry);
+		listener.getLogger().println(entry + " is over (" + entry.getState() + ") : no build waits for it any more.");
+		if(build == null){
+			return;
+		}
+
+		// log en clair ou deja compresse a la fin du build
+		try {
+			WeblogicDeploymentPluginLog.appendToLog(build, entry.getDeploymentTaskId(),
+					"WEBLOGIC TASK " + entry.getWeblogicTaskId() + " (" + entry.getDeploymentTargets() + ") : " + entry.getState() + " (recorded after the end of the build).\r\n");
+		} catch (IOException ioe) {
+			ioe.printStackTrace(listener.error("Unable to write the outcome in the deployment log of " + build));
+		}
+
+		WatchingWeblogicDeploymentAction action = build.getAction(WatchingWeblogicDeploymentAction.class);
+		if(action == null || action.getResults() == null || WebLogicTaskState.UNKNOWN.equals(entry.getState())){
+			return;
+		}
+		WebLogicDeploymentStatus status = WebLogicTaskState.COMPLETED.equals(entry.getState()) ? WebLogicDeploymentStatus.SUCCEEDED : WebLogicDeploymentStatus.FAILED;
+		for(DeploymentTaskResult result : action.getResults()){
+			if(result.getTask() == null || ! entry.getDeploymentTaskId().equals(result.getTask().getId())){
+				continue;
+			}
+			// deploiement par vagues : seule la vague concernee est mise a jour
+			DeploymentTaskResult updatedResult = result;
+			if(result.getWaveResults() != null){
+				for(DeploymentTaskResult waveResult : result.getWaveResults()){
+					if(entry.getDeploymentTargets().equals(waveResult.getTask().getDeploymentTargets())){
+						updatedResult = waveResult;
+					}
+				}
+			}
+			updatedResult.setStatus(status);
+		}
+		try {
+			build.save();
+		} catch (IOException ioe) {
+			ioe.printStackTrace(listener.error("Unable to save the build " + build));
+		}
+	}
+
+	/**
+	 *
+	 * @param entry
+	 * @return the build which submitted the task, null if it no longer exists
+	 */
+	private AbstractBuild<?, ?> getBuild(AsyncDeploymentRegistry.Entry entry) {
+		AbstractProject<?, ?> project = Jenkins.getInstance().getItemByFullName(entry.getJobName(), AbstractProject.class);
+		return project == null ? null : project.getBuildByNumber(entry.getBuildNumber());
+	}
+}
@@ -0,0 +1,370 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import hudson.XmlFile;
+import hudson.util.XStream2;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jenkins.model.Jenkins;
+
+import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicOperationProcotol;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicTaskState;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * WebLogic tasks submitted with <code>-nowait</code> and followed by {@link AsyncDeploymentPoller}.
+ * <p>
+ * The build waits for its task (see {@link #await(String)}) while the poller runs <code>-listtask</code> on a backoff schedule.
+ * Persisted in <code>weblogic-async-deployments.xml</code> in the Jenkins home directory : after a restart, the polling
+ * resumes and the outcome is recorded in the build.
+ *
+ * @author rchaumie
+ *
+ */
+@XStreamAlias("weblogic-async-deployments")
+public class AsyncDeploymentRegistry {
+
+	private static final Logger LOGGER = Logger.getLogger(AsyncDeploymentRegistry.class.getName());
+
+	public static final String REGISTRY_FILE_NAME = "weblogic-async-deployments.xml";
+
+	/**
+	 * Delai avant la premiere scrutation, double a chaque scrutation jusqu'a {@link #MAX_POLL_DELAY}
+	 */
+	public static final long INITIAL_POLL_DELAY = 5 * 1000L;
+
+	public static final long MAX_POLL_DELAY = 60 * 1000L;
+
+	/**
+	 * Au-dela, la tache est abandonnee (etat inconnu)
+	 */
+	public static final long MAX_POLLING_DURATION = 6 * 60 * 60 * 1000L;
+
+	/**
+	 * Nombre de scrutations consecutives ou la tache n'est plus listee avant de l'abandonner
+	 */
+	public static final int MAX_UNKNOWN_POLLS = 3;
+
+	private static final XStream2 XSTREAM = new XStream2();
+
+	static {
+		XSTREAM.processAnnotations(new Class[]{AsyncDeploymentRegistry.class, Entry.class});
+	}
+
+	private static AsyncDeploymentRegistry instance;
+
+	private transient XmlFile file;
+
+	/**
+	 * Taches attendues par un build en cours
+	 */
+	private transient Set<String> awaitedKeys = new HashSet<String>();
+
+	private Map<String, Entry> entries = new HashMap<String, Entry>();
+
+	/**
+	 *
+	 * @param file
+	 */
+	AsyncDeploymentRegistry(XmlFile file) {
+		this.file = file;
+	}
+
+	/**
+	 *
+	 * @return the registry of the Jenkins instance (loaded on first use)
+	 */
+	public static synchronized AsyncDeploymentRegistry get() {
+		if(instance == null){
+			instance = load(new File(Jenkins.getInstance().getRootDir(), REGISTRY_FILE_NAME));
+		}
+		return instance;
+	}
+
+	/**
+	 *
+	 * @param registryFile
+	 * @return the registry read from the file (empty if the file doesn't exist or can't be read)
+	 */
+	static AsyncDeploymentRegistry load(File registryFile) {
+		XmlFile file = new XmlFile(XSTREAM, registryFile);
+		AsyncDeploymentRegistry registry = new AsyncDeploymentRegistry(file);
+		if(file.exists()){
+			try {
+				file.unmarshal(registry);
+			} catch (IOException ioe) {
+				LOGGER.log(Level.WARNING, "Unable to read the WebLogic asynchronous deployments " + registryFile + ". They are no longer followed.", ioe);
+			}
+		}
+		if(registry.entries == null){
+			registry.entries = new HashMap<String, Entry>();
+		}
+		registry.awaitedKeys = new HashSet<String>();
+		return registry;
+	}
+
+	/**
+	 *
+	 * @param polls the number of polls done
+	 * @return the delay before the next poll
+	 */
+	static long getPollDelay(int polls) {
+		return Math.min(MAX_POLL_DELAY, INITIAL_POLL_DELAY << Math.min(polls, 8));
+	}
+
+	/**
+	 * Follows a task submitted.
+	 *
+	 * @param entry
+	 */
+	public synchronized void submit(Entry entry) {
+		entry.nextPollTime = System.currentTimeMillis() + INITIAL_POLL_DELAY;
+		entries.put(entry.getKey(), entry);
+		save();
+	}
+
+	/**
+	 * Waits for the end of a task. If the wait is interrupted, the task is still followed and its outcome recorded in the build.
+	 *
+	 * @param key
+	 * @return the final state of the task
+	 * @throws InterruptedException
+	 */
+	public synchronized WebLogicTaskState await(String key) throws InterruptedException {
+		awaitedKeys.add(key);
+		try {
+			Entry entry;
+			while((entry = entries.get(key)) != null && ! entry.isDone()){
+				wait();
+			}
+			if(entry == null){
+				return WebLogicTaskState.UNKNOWN;
+			}
+			entries.remove(key);
+			save();
+			return entry.getState();
+		} finally {
+			awaitedKeys.remove(key);
+		}
+	}
+
+	/**
+	 *
+	 * @param now
+	 * @return the tasks to poll, and the tasks over whose outcome is not recorded yet
+	 */
+	public synchronized List<Entry> getDueEntries(long now) {
+		List<Entry> dueEntries = new ArrayList<Entry>();
+		for(Entry entry : entries.values()){
+			if(entry.isDone() ? ! awaitedKeys.contains(entry.getKey()) : entry.nextPollTime <= now){
+				dueEntries.add(entry);
+			}
+		}
+		return dueEntries;
+	}
+
+	/**
+	 * Records the state polled.
+	 *
+	 * @param entry
+	 * @param state the state listed, null if the poll failed
+	 * @param now
+	 * @return true if the task is over
+	 */
+	public synchronized boolean update(Entry entry, WebLogicTaskState state, long now) {
+		entry.polls++;
+		if(WebLogicTaskState.UNKNOWN.equals(state)){
+			entry.unknownPolls++;
+		} else if(state != null){
+			entry.unknownPolls = 0;
+		}
+
+		if(WebLogicTaskState.COMPLETED.equals(state) || WebLogicTaskState.FAILED.equals(state)){
+			entry.state = state;
+		} else if(entry.unknownPolls >= MAX_UNKNOWN_POLLS || now - entry.submissionTime > MAX_POLLING_DURATION){
+			entry.state = WebLogicTaskState.UNKNOWN;
+		} else {
+			entry.nextPollTime = now + getPollDelay(entry.polls);
+		}
+		save();
+		return entry.isDone();
+	}
+
+	/**
+	 * Hands a task over to the build waiting for it.
+	 *
+	 * @param entry
+	 * @return true if a build got the outcome, false if no build waits any more (the outcome has to be recorded in the build)
+	 */
+	public synchronized boolean complete(Entry entry) {
+		if(! entries.containsKey(entry.getKey())){
+			return true;
+		}
+		if(awaitedKeys.contains(entry.getKey())){
+			notifyAll();
+			return true;
+		}
+		entries.remove(entry.getKey());
+		save();
+		return false;
+	}
+
+	/**
+	 *
+	 */
+	private void save() {
+		try {
+			file.write(this);
+		} catch (IOException ioe) {
+			LOGGER.log(Level.WARNING, "Unable to save the WebLogic asynchronous deployments " + file, ioe);
+		}
+	}
+
+	/**
+	 * A WebLogic task followed.
+	 */
+	@XStreamAlias("task")
+	public static class Entry {
+
+		private final String jobName;
+
+		private final int buildNumber;
+
+		private final String deploymentTaskId;
+
+		private final String weblogicTaskId;
+
+		private final String environmentName;
+
+		private final String deploymentTargets;
+
+		private final WebLogicOperationProcotol protocol;
+
+		private final String jdkName;
+
+		private final String jdkHome;
+
+		private final long submissionTime;
+
+		private long nextPollTime;
+
+		private int polls;
+
+		private int unknownPolls;
+
+		private WebLogicTaskState state;
+
+		/**
+		 *
+		 * @param jobName
+		 * @param buildNumber
+		 * @param deploymentTaskId
+		 * @param weblogicTaskId
+		 * @param environmentName
+		 * @param deploymentTargets
+		 * @param protocol
+		 * @param jdkName
+		 * @param jdkHome
+		 */
+		public Entry(String jobName, int buildNumber, String deploymentTaskId, String weblogicTaskId, String environmentName,
+				String deploymentTargets, WebLogicOperationProcotol protocol, String jdkName, String jdkHome) {
+			this.jobName = jobName;
+			this.buildNumber = buildNumber;
+			this.deploymentTaskId = deploymentTaskId;
+			this.weblogicTaskId = weblogicTaskId;
+			this.environmentName = environmentName;
+			this.deploymentTargets = deploymentTargets;
+			this.protocol = protocol;
+			this.jdkName = jdkName;
+			this.jdkHome = jdkHome;
+			this.submissionTime = System.currentTimeMillis();
+		}
+
+		/**
+		 * @return the key of the entry : job#build|deployment task|weblogic task
+		 */
+		public String getKey() {
+			return jobName + "#" + buildNumber + "|" + deploymentTaskId + "|" + weblogicTaskId;
+		}
+
+		/**
+		 * @return true if the task is over
+		 */
+		public boolean isDone() {
+			return state != null && state.isDone();
+		}
+
+		public String getJobName() {
+			return jobName;
+		}
+
+		public int getBuildNumber() {
+			return buildNumber;
+		}
+
+		public String getDeploymentTaskId() {
+			return deploymentTaskId;
+		}
+
+		public String getWeblogicTaskId() {
+			return weblogicTaskId;
+		}
+
+		public String getEnvironmentName() {
+			return environmentName;
+		}
+
+		public String getDeploymentTargets() {
+			return deploymentTargets;
+		}
+
+		public WebLogicOperationProcotol getProtocol() {
+			return protocol;
+		}
+
+		public String getJdkName() {
+			return jdkName;
+		}
+
+		public String getJdkHome() {
+			return jdkHome;
+		}
+
+		public long getSubmissionTime() {
+			return submissionTime;
+		}
+
+		public int getPolls() {
+			return polls;
+		}
+
+		/**
+		 * @return the final state, null while the task runs
+		 */
+		public WebLogicTaskState getState() {
+			return state;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return "WebLogic task " + weblogicTaskId + " (" + jobName + "#" + buildNumber + ", " + environmentName + ")";
+		}
+	}
+}
@@ -0,0 +1,201 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import hudson.XmlFile;
+import hudson.util.XStream2;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jenkins.model.Jenkins;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Records, for each (environment, deployment name, targets), the SHA-256 of the last artifact deployed with success.
+ * <p>
+ * Persisted in <code>weblogic-deployment-ledger.xml</code> in the Jenkins home directory.
+ *
+ * @author rchaumie
+ *
+ */
+@XStreamAlias("weblogic-deployment-ledger")
+public class DeploymentLedger {
+
+	private static final Logger LOGGER = Logger.getLogger(DeploymentLedger.class.getName());
+
+	public static final String LEDGER_FILE_NAME = "weblogic-deployment-ledger.xml";
+
+	private static final XStream2 XSTREAM = new XStream2();
+
+	static {
+		XSTREAM.processAnnotations(new Class[]{DeploymentLedger.class, Entry.class});
+	}
+
+	private static DeploymentLedger instance;
+
+	private transient XmlFile file;
+
+	private Map<String, Entry> entries = new HashMap<String, Entry>();
+
+	/**
+	 *
+	 * @param file
+	 */
+	DeploymentLedger(XmlFile file) {
+		this.file = file;
+	}
+
+	/**
+	 *
+	 * @return the ledger of the Jenkins instance (loaded on first use)
+	 */
+	public static synchronized DeploymentLedger get() {
+		if(instance == null){
+			instance = load(new File(Jenkins.getInstance().getRootDir(), LEDGER_FILE_NAME));
+		}
+		return instance;
+	}
+
+	/**
+	 *
+	 * @param ledgerFile
+	 * @return the ledger read from the file (empty if the file doesn't exist or can't be read)
+	 */
+	static DeploymentLedger load(File ledgerFile) {
+		XmlFile file = new XmlFile(XSTREAM, ledgerFile);
+		DeploymentLedger ledger = new DeploymentLedger(file);
+		if(file.exists()){
+			try {
+				file.unmarshal(ledger);
+			} catch (IOException ioe) {
+				LOGGER.log(Level.WARNING, "Unable to read the WebLogic deployment ledger " + ledgerFile + ". It is reset.", ioe);
+			}
+		}
+		if(ledger.entries == null){
+			ledger.entries = new HashMap<String, Entry>();
+		}
+		return ledger;
+	}
+
+	/**
+	 *
+	 * @param environmentName
+	 * @param deploymentName
+	 * @param deploymentTargets the targets (the order doesn't matter)
+	 * @return the key of a deployment
+	 */
+	public static String getKey(String environmentName, String deploymentName, String deploymentTargets) {
+		String[] targets = StringUtils.stripAll(StringUtils.split(StringUtils.defaultString(deploymentTargets), ','));
+		Arrays.sort(targets);
+		return StringUtils.defaultString(environmentName) + "|" + StringUtils.defaultString(deploymentName) + "|" + StringUtils.join(targets, ',');
+	}
+
+	/**
+	 *
+	 * @param key
+	 * @return the last deployment recorded, null if none
+	 */
+	public synchronized Entry getEntry(String key) {
+		return entries.get(key);
+	}
+
+	/**
+	 * Records a successful deployment.
+	 *
+	 * @param key
+	 * @param entry
+	 */
+	public synchronized void record(String key, Entry entry) {
+		entries.put(key, entry);
+		save();
+	}
+
+	/**
+	 * Forgets the deployment (its state is unknown).
+	 *
+	 * @param key
+	 */
+	public synchronized void remove(String key) {
+		if(entries.remove(key) != null){
+			save();
+		}
+	}
+
+	/**
+	 *
+	 */
+	private void save() {
+		try {
+			file.write(this);
+		} catch (IOException ioe) {
+			LOGGER.log(Level.WARNING, "Unable to save the WebLogic deployment ledger " + file, ioe);
+		}
+	}
+
+	/**
+	 * A deployment recorded.
+	 */
+	@XStreamAlias("deployment")
+	public static class Entry {
+
+		private final String sha256;
+
+		private final String artifactName;
+
+		private final String buildId;
+
+		private final long timestamp;
+
+		/**
+		 *
+		 * @param sha256
+		 * @param artifactName
+		 * @param buildId
+		 * @param timestamp
+		 */
+		public Entry(String sha256, String artifactName, String buildId, long timestamp) {
+			this.sha256 = sha256;
+			this.artifactName = artifactName;
+			this.buildId = buildId;
+			this.timestamp = timestamp;
+		}
+
+		/**
+		 * @return the SHA-256 of the artifact deployed
+		 */
+		public String getSha256() {
+			return sha256;
+		}
+
+		/**
+		 * @return the artifactName
+		 */
+		public String getArtifactName() {
+			return artifactName;
+		}
+
+		/**
+		 * @return the build which deployed the artifact (job#number)
+		 */
+		public String getBuildId() {
+			return buildId;
+		}
+
+		/**
+		 * @return the timestamp
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+	}
+}
@@ -0,0 +1,225 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentPhase;
+import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTaskTimeouts;
+
+/**
+ * Measures the phases of a deployment task and enforces their budgets (see {@link DeploymentTaskTimeouts}).
+ * <p>
+ * The timer belongs to the thread running the task. When the budget of the current phase (or of the whole task)
+ * expires, this thread is interrupted : a deployer process being waited for is then killed with its children
+ * (see {@link hudson.Proc#join()}) and a warm deployer JVM is destroyed.
+ * The time spent in each phase is recorded, including the phase interrupted.
+ * <p>
+ * An abort has precedence over the budgets : a budget expiring while the thread is already interrupted is ignored,
+ * and an interruption received once the one of the timer has been consumed is left to the thread.
+ *
+ * @author rchaumie
+ *
+ */
+public final class DeploymentPhaseTimer {
+
+	private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "WebLogic deployment watchdog");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private final DeploymentTaskTimeouts timeouts;
+
+	private final Thread thread;
+
+	/**
+	 * Echeance de la tache (0 si aucune)
+	 */
+	private final long taskDeadline;
+
+	/**
+	 * Duree cumulee de chaque phase (ms), dans l'ordre d'execution
+	 */
+	private final Map<DeploymentPhase, Long> durations = new LinkedHashMap<DeploymentPhase, Long>();
+
+	private DeploymentPhase currentPhase;
+
+	private long phaseStart;
+
+	private ScheduledFuture<?> alarm;
+
+	/**
+	 * Phase interrompue (null tant qu'aucun budget n'a expire)
+	 */
+	private volatile DeploymentPhase expiredPhase;
+
+	private volatile boolean taskExpired;
+
+	/**
+	 * Interruption levee par le minuteur et pas encore consommee par le thread
+	 */
+	private boolean interruptPending;
+
+	/**
+	 * Thread encore interrompu a la fermeture (interruption qui n'est pas celle du minuteur)
+	 */
+	private volatile boolean aborted;
+
+	/**
+	 *
+	 * @param timeouts the budgets (null for none)
+	 */
+	public DeploymentPhaseTimer(DeploymentTaskTimeouts timeouts) {
+		this.timeouts = timeouts;
+		this.thread = Thread.currentThread();
+		this.taskDeadline = timeouts != null && timeouts.getTaskTimeout() > 0 ?
+				System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeouts.getTaskTimeout()) : 0;
+	}
+
+	/**
+	 * Ends the current phase, then starts the phase given.
+	 *
+	 * @param phase
+	 * @throws InterruptedException if a budget has already expired
+	 */
+	public synchronized void start(DeploymentPhase phase) throws InterruptedException {
+		stop();
+		if(expiredPhase != null){
+			throw new InterruptedException("The phase " + expiredPhase + " timed out.");
+		}
+
+		long now = System.currentTimeMillis();
+		currentPhase = phase;
+		phaseStart = now;
+
+		long deadline = taskDeadline;
+		int phaseTimeout = timeouts != null ? timeouts.getTimeout(phase) : 0;
+		if(phaseTimeout > 0){
+			long phaseDeadline = now + TimeUnit.SECONDS.toMillis(phaseTimeout);
+			deadline = deadline > 0 ? Math.min(deadline, phaseDeadline) : phaseDeadline;
+		}
+		if(deadline > 0){
+			final boolean task = deadline == taskDeadline;
+			alarm = WATCHDOG.schedule(new Runnable() {
+				public void run() {
+					expire(task);
+				}
+			}, Math.max(0, deadline - now), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Ends the current phase (if any) and records its duration.
+	 * Called by the thread of the task once it caught an interruption, so that a later one is kept as an abort.
+	 */
+	public synchronized void stop() {
+		if(interruptPending && Thread.currentThread() == thread && ! thread.isInterrupted()){
+			// interruption du minuteur consommee (InterruptedException)
+			interruptPending = false;
+		}
+		if(alarm != null){
+			alarm.cancel(false);
+			alarm = null;
+		}
+		if(currentPhase == null){
+			return;
+		}
+		Long duration = durations.get(currentPhase);
+		durations.put(currentPhase, (duration != null ? duration : 0L) + System.currentTimeMillis() - phaseStart);
+		currentPhase = null;
+	}
+
+	/**
+	 * Ends the current phase. The interruption raised by an expired budget is cleared if it is still pending : the thread
+	 * can go on with the next tasks. Any other interruption (abort) is kept.
+	 */
+	public synchronized void close() {
+		stop();
+		if(interruptPending){
+			Thread.interrupted();
+			interruptPending = false;
+		}
+		if(thread.isInterrupted()){
+			aborted = true;
+		}
+	}
+
+	/**
+	 *
+	 * @param task true if the budget of the task expired, false for the budget of the phase
+	 */
+	private synchronized void expire(boolean task) {
+		if(currentPhase == null || expiredPhase != null){
+			return;
+		}
+		if(thread.isInterrupted()){
+			// abandon en cours : il prime sur le budget
+			return;
+		}
+		expiredPhase = currentPhase;
+		taskExpired = task;
+		interruptPending = true;
+		thread.interrupt();
+	}
+
+	/**
+	 * @return true if a budget expired
+	 */
+	public boolean isExpired() {
+		return expiredPhase != null;
+	}
+
+	/**
+	 * @return true if the thread was still interrupted once the timer closed (abort of the task)
+	 */
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	/**
+	 * @return the phase interrupted, null if none
+	 */
+	public DeploymentPhase getExpiredPhase() {
+		return expiredPhase;
+	}
+
+	/**
+	 * @return true if the budget of the whole task expired (rather than the one of the phase)
+	 */
+	public boolean isTaskExpired() {
+		return taskExpired;
+	}
+
+	/**
+	 *
+	 * @param phase
+	 * @return the budget of the phase in seconds (0 for none)
+	 */
+	public int getTimeout(DeploymentPhase phase) {
+		return timeouts != null ? timeouts.getTimeout(phase) : 0;
+	}
+
+	/**
+	 * @return the budget of the task in seconds (0 for none)
+	 */
+	public int getTaskTimeout() {
+		return timeouts != null ? timeouts.getTaskTimeout() : 0;
+	}
+
+	/**
+	 * @return a copy of the time (ms) spent in each phase, in order of execution
+	 */
+	public synchronized Map<DeploymentPhase, Long> getDurations() {
+		return new LinkedHashMap<DeploymentPhase, Long>(durations);
+	}
+}
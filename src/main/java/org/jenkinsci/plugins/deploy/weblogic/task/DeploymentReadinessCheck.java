@@ -0,0 +1,44 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import hudson.ExtensionList;
+import hudson.ExtensionPoint;
+import hudson.model.BuildListener;
+
+import java.io.IOException;
+
+import jenkins.model.Jenkins;
+
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicClusterMember;
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment;
+
+/**
+ * Checks that a server deployed by a wave of a rolling deployment is ready to serve before the next wave.
+ * A member is ready when all the registered checks agree.
+ * 
+ * @author rchaumie
+ *
+ */
+public abstract class DeploymentReadinessCheck implements ExtensionPoint {
+
+	/**
+	 * 
+	 * @param environment
+	 * @param member
+	 * @param listener
+	 * @return true if the member is ready, or if the check doesn't apply to the member
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public abstract boolean isReady(WeblogicEnvironment environment, WeblogicClusterMember member, BuildListener listener) throws IOException, InterruptedException;
+	
+	/**
+	 * 
+	 * @return all the registered checks
+	 */
+	public static ExtensionList<DeploymentReadinessCheck> all() {
+		return Jenkins.getInstance().getExtensionList(DeploymentReadinessCheck.class);
+	}
+}
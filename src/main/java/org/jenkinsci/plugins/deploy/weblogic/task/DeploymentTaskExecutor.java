@@ -0,0 +1,233 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTask;
+import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTaskResult;
+import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicDeploymentStatus;
+import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicPreRequisteStatus;
+import org.jenkinsci.plugins.deploy.weblogic.exception.DeploymentTaskException;
+
+/**
+ * Runs the deployment tasks of a job, sequentially or concurrently.
+ * <p>
+ * In parallel mode, at most <code>maxParallelTasks</code> tasks run at the same time and
+ * at most <code>maxParallelTasksPerEnvironment</code> of them target the same WebLogic environment.
+ * The results are always returned in the configured task order.
+ *
+ * @author rchaumie
+ *
+ */
+public class DeploymentTaskExecutor {
+
+	private final DeploymentTaskService deploymentTaskService;
+
+	/**
+	 * Global cap. A value lower than 2 keeps the sequential behaviour.
+	 */
+	private final int maxParallelTasks;
+
+	/**
+	 * Cap per WebLogic environment. A value lower than 1 means no limit.
+	 */
+	private final int maxParallelTasksPerEnvironment;
+
+	private final boolean forceStopOnFirstFailure;
+
+	/**
+	 *
+	 * @param deploymentTaskService
+	 * @param maxParallelTasks
+	 * @param maxParallelTasksPerEnvironment
+	 * @param forceStopOnFirstFailure
+	 */
+	public DeploymentTaskExecutor(DeploymentTaskService deploymentTaskService, int maxParallelTasks,
+			int maxParallelTasksPerEnvironment, boolean forceStopOnFirstFailure) {
+		this.deploymentTaskService = deploymentTaskService;
+		this.maxParallelTasks = maxParallelTasks;
+		this.maxParallelTasksPerEnvironment = maxParallelTasksPerEnvironment;
+		this.forceStopOnFirstFailure = forceStopOnFirstFailure;
+	}
+
+	/**
+	 *
+	 * @param tasks
+	 * @param globalJdk
+	 * @param build
+	 * @param listener
+	 * @param launcher
+	 * @return the results in the configured task order
+	 * @throws InterruptedException
+	 */
+	public List<DeploymentTaskResult> execute(List<DeploymentTask> tasks, String globalJdk, AbstractBuild<?, ?> build,
+			BuildListener listener, Launcher launcher) throws InterruptedException {
+
+		if(maxParallelTasks < 2 || tasks.size() < 2){
+			return executeSequentially(tasks, globalJdk, build, listener, launcher);
+		}
+		return executeConcurrently(tasks, globalJdk, build, listener, launcher);
+	}
+
+	/**
+	 *
+	 */
+	private List<DeploymentTaskResult> executeSequentially(List<DeploymentTask> tasks, String globalJdk, AbstractBuild<?, ?> build,
+			BuildListener listener, Launcher launcher) {
+		List<DeploymentTaskResult> results = new ArrayList<DeploymentTaskResult>();
+		for(DeploymentTask task : tasks){
+			try {
+				results.add(deploymentTaskService.perform(task, globalJdk, build, listener, launcher));
+			} catch(DeploymentTaskException dte) {
+				results.add(dte.getResult());
+				if(forceStopOnFirstFailure){
+					break;
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 *
+	 */
+	private List<DeploymentTaskResult> executeConcurrently(List<DeploymentTask> tasks, final String globalJdk, final AbstractBuild<?, ?> build,
+			final BuildListener listener, final Launcher launcher) throws InterruptedException {
+
+		int poolSize = Math.min(maxParallelTasks, tasks.size());
+		listener.getLogger().println("[WeblogicDeploymentPlugin] - Running "+tasks.size()+" deployment tasks in parallel (max "+poolSize+" at a time"
+				+ (maxParallelTasksPerEnvironment > 0 ? ", max "+maxParallelTasksPerEnvironment+" per environment" : "") + ") ...");
+
+		ExecutorService executor = Executors.newFixedThreadPool(poolSize,
+				new NamingThreadFactory(new DaemonThreadFactory(), "WeblogicDeploymentPlugin tasks " + (build != null ? build.getFullDisplayName() : "")));
+		CompletionService<DeploymentTaskResult> completionService = new ExecutorCompletionService<DeploymentTaskResult>(executor);
+
+		Map<String, Semaphore> environmentPermits = new HashMap<String, Semaphore>();
+		Map<Future<DeploymentTaskResult>, Integer> positions = new HashMap<Future<DeploymentTaskResult>, Integer>();
+		DeploymentTaskResult[] results = new DeploymentTaskResult[tasks.size()];
+
+		try {
+			for(int i = 0; i < tasks.size(); i++){
+				final DeploymentTask task = tasks.get(i);
+				final Semaphore permits = getEnvironmentPermits(environmentPermits, task.getWeblogicEnvironmentTargetedName());
+				Future<DeploymentTaskResult> future = completionService.submit(new Callable<DeploymentTaskResult>() {
+					public DeploymentTaskResult call() throws Exception {
+						if(permits != null){
+							permits.acquire();
+						}
+						try {
+							return deploymentTaskService.perform(task, globalJdk, build, listener, launcher);
+						} finally {
+							if(permits != null){
+								permits.release();
+							}
+						}
+					}
+				});
+				positions.put(future, i);
+			}
+
+			boolean stopped = false;
+			for(int done = 0; done < tasks.size() && ! stopped; done++){
+				Future<DeploymentTaskResult> future = completionService.take();
+				int position = positions.remove(future);
+				try {
+					results[position] = future.get();
+				} catch (ExecutionException ee) {
+					if(ee.getCause() instanceof DeploymentTaskException){
+						results[position] = ((DeploymentTaskException) ee.getCause()).getResult();
+						stopped = forceStopOnFirstFailure;
+					} else {
+						listener.error("[WeblogicDeploymentPlugin] - Unexpected failure of the deployment task "+tasks.get(position).getId()+" : "+ee.getCause());
+						results[position] = new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.FAILED, tasks.get(position), null);
+						stopped = forceStopOnFirstFailure;
+					}
+				}
+			}
+
+			if(stopped){
+				listener.getLogger().println("[WeblogicDeploymentPlugin] - A deployment task failed. Cancelling the remaining tasks ...");
+				cancel(positions, results, tasks);
+			}
+		} catch (InterruptedException ie) {
+			cancel(positions, results, tasks);
+			throw ie;
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<DeploymentTaskResult> orderedResults = new ArrayList<DeploymentTaskResult>();
+		for(DeploymentTaskResult result : results){
+			if(result != null){
+				orderedResults.add(result);
+			}
+		}
+		return orderedResults;
+	}
+
+	/**
+	 * Cancels the pending or in-flight tasks and reports them as aborted.
+	 * The in-flight ones are interrupted, which kills their deployer process.
+	 */
+	private void cancel(Map<Future<DeploymentTaskResult>, Integer> positions, DeploymentTaskResult[] results, List<DeploymentTask> tasks) {
+		for(Map.Entry<Future<DeploymentTaskResult>, Integer> entry : positions.entrySet()){
+			Future<DeploymentTaskResult> future = entry.getKey();
+			if(future.isDone()){
+				try {
+					results[entry.getValue()] = future.get();
+				} catch (ExecutionException ee) {
+					if(ee.getCause() instanceof DeploymentTaskException){
+						results[entry.getValue()] = ((DeploymentTaskException) ee.getCause()).getResult();
+					}
+				} catch (CancellationException ce) {
+					// Nothing to do
+				} catch (InterruptedException ie) {
+					// Nothing to do
+				}
+			} else if(future.cancel(true)){
+				results[entry.getValue()] = new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.ABORTED, tasks.get(entry.getValue()), null);
+			}
+		}
+		positions.clear();
+	}
+
+	/**
+	 *
+	 * @param environmentPermits
+	 * @param environmentName
+	 * @return the permits shared by the tasks targeting the environment, null if not limited
+	 */
+	private Semaphore getEnvironmentPermits(Map<String, Semaphore> environmentPermits, String environmentName) {
+		if(maxParallelTasksPerEnvironment < 1){
+			return null;
+		}
+		String key = StringUtils.lowerCase(StringUtils.defaultString(environmentName));
+		Semaphore permits = environmentPermits.get(key);
+		if(permits == null){
+			permits = new Semaphore(maxParallelTasksPerEnvironment, true);
+			environmentPermits.put(key, permits);
+		}
+		return permits;
+	}
+}
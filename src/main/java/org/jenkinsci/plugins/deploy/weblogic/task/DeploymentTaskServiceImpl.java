@@ -3,36 +3,53 @@
  */
 package org.jenkinsci.plugins.deploy.weblogic.task;
 
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.TeeOutputStream;
 import org.apache.commons.lang.BooleanUtils;
 import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.plugins.deploy.weblogic.ArtifactSelector;
 import org.jenkinsci.plugins.deploy.weblogic.FreeStyleJobArtifactSelectorImpl;
 import org.jenkinsci.plugins.deploy.weblogic.WeblogicDeploymentPlugin.WeblogicDeploymentPluginDescriptor;
 import org.jenkinsci.plugins.deploy.weblogic.WeblogicDeploymentPluginLog;
+import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentPhase;
 import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTask;
 import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTaskResult;
 import org.jenkinsci.plugins.deploy.weblogic.data.TransfertConfiguration;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertResult;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertStatistics;
+import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicDeployerEngineMode;
+import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicDeploymentMode;
 import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicDeploymentStatus;
 import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicPreRequisteStatus;
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicClusterMember;
 import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.CommandLineTemplate;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.ForkedWebLogicDeployerEngineImpl;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.PooledWebLogicDeployerEngineImpl;
 import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicCommand;
 import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployer;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerEngine;
 import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerParameters;
 import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicDeployerTokenResolver;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicTaskState;
 import org.jenkinsci.plugins.deploy.weblogic.exception.DeploymentTaskException;
 import org.jenkinsci.plugins.deploy.weblogic.exception.RequiredJDKNotFoundException;
+import org.jenkinsci.plugins.deploy.weblogic.exception.TransfertFileException;
 import org.jenkinsci.plugins.deploy.weblogic.jdk.JdkToolService;
-import org.jenkinsci.plugins.deploy.weblogic.properties.WebLogicDeploymentPluginConstantes;
+import org.jenkinsci.plugins.deploy.weblogic.util.DeployerToolchainCache;
 import org.jenkinsci.plugins.deploy.weblogic.util.FTPUtils;
+import org.jenkinsci.plugins.deploy.weblogic.util.FileDigestUtils;
 import org.jenkinsci.plugins.deploy.weblogic.util.ParameterValueResolver;
 import org.jenkinsci.plugins.deploy.weblogic.util.VarUtils;
 
@@ -42,13 +59,11 @@ import hudson.EnvVars;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
-import hudson.Proc;
 import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.BuildListener;
 import hudson.model.JDK;
 import hudson.model.Node;
-import hudson.remoting.VirtualChannel;
 
 /**
  * @author Raphael
@@ -63,6 +78,13 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
 	@Inject
 	private WebLogicDeployerTokenResolver tokenResolver;
 	
+	private final WebLogicDeployerEngine forkedDeployerEngine = new ForkedWebLogicDeployerEngineImpl();
+	
+	/**
+	 * Periode de verification de la disponibilite des membres d'une vague (ms)
+	 */
+	private static final long READINESS_POLL_PERIOD = 5 * 1000;
+	
 	/**
 	 * 
 	 */
@@ -73,6 +95,52 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
 	 * @see org.jenkinsci.plugins.deploy.weblogic.task.DeploymentTaskService#perform(org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTask, hudson.model.JDK, hudson.model.AbstractBuild, hudson.model.BuildListener, hudson.Launcher)
 	 */
 	public DeploymentTaskResult perform(DeploymentTask task, String globalJdk, AbstractBuild<?, ?> build, BuildListener listener, Launcher launcher) throws DeploymentTaskException {
+		DeploymentPhaseTimer timer = new DeploymentPhaseTimer(task.getTimeouts());
+		try {
+			DeploymentTaskResult result = perform(task, globalJdk, build, listener, launcher, timer);
+			timer.close();
+			result.setPhaseDurations(timer.getDurations());
+			return result;
+		} catch (DeploymentTaskException dte) {
+			timer.close();
+			DeploymentTaskResult result = dte.getResult();
+			if(timer.isExpired() && ! timer.isAborted()){
+				DeploymentPhase expiredPhase = timer.getExpiredPhase();
+				listener.error("[WeblogicDeploymentPlugin] - The phase "+expiredPhase+" timed out ("+(timer.isTaskExpired() ? 
+						"task timeout of "+timer.getTaskTimeout() : "phase timeout of "+timer.getTimeout(expiredPhase))+" s). The running commands have been stopped.");
+			}
+			if(result != null){
+				if(timer.isAborted()){
+					result.setStatus(WebLogicDeploymentStatus.ABORTED);
+				} else if(timer.isExpired()){
+					result.setStatus(WebLogicDeploymentStatus.TIMED_OUT);
+					// la vague en cours est celle interrompue
+					List<DeploymentTaskResult> waveResults = result.getWaveResults();
+					if(waveResults != null && ! waveResults.isEmpty() && WebLogicDeploymentStatus.FAILED.equals(waveResults.get(waveResults.size() - 1).getStatus())){
+						waveResults.get(waveResults.size() - 1).setStatus(WebLogicDeploymentStatus.TIMED_OUT);
+					}
+				}
+				result.setPhaseDurations(timer.getDurations());
+			}
+			throw dte;
+		} finally {
+			timer.close();
+		}
+	}
+	
+	/**
+	 * 
+	 * @param task
+	 * @param globalJdk
+	 * @param build
+	 * @param listener
+	 * @param launcher
+	 * @param timer the timer of the phases of the task
+	 * @return the result of the task
+	 * @throws DeploymentTaskException
+	 */
+	private DeploymentTaskResult perform(DeploymentTask task, String globalJdk, AbstractBuild<?, ?> build, BuildListener listener, Launcher launcher, 
+			DeploymentPhaseTimer timer) throws DeploymentTaskException {
 		
 		//Recuperation des variables
 		EnvVars envVars = VarUtils.getEnvVars(build, listener);
@@ -89,7 +157,7 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
 		JDK selectedJdk = null;
 		Node node = build.getBuiltOn();
 		try {
-			
+			timer.start(DeploymentPhase.JDK_CHECK);
 			listener.getLogger().println("[WeblogicDeploymentPlugin] - Loading JDK '"+globalJdk+"' ...");
 			selectedJdk = JdkToolService.getJDKByName(node, globalJdk);
 			
@@ -105,10 +173,14 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
 			
 			// Check version.
 			JdkToolService.checkJdkVersion(node, selectedJdk, listener.getLogger());
+			if(JdkToolService.getSavedLaunches() > 0){
+				listener.getLogger().println("[WeblogicDeploymentPlugin] - JDK checks cached per node ("+JdkToolService.getSavedLaunches()+" java launches saved since startup).");
+			}
 		} catch (IOException e) {
 			listener.getLogger().println("[WeblogicDeploymentPlugin] - Unable to load JDK '"+globalJdk+"' from node '"+node+"'. The plugin execution is disabled.");
 			throw new DeploymentTaskException(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.ABORTED, convertParameters(task, envVars), null));
 		} catch (InterruptedException e) {
+			timer.stop();
 			listener.getLogger().println("[WeblogicDeploymentPlugin] - Unable to load JDK '"+globalJdk+"' from node '"+node+"'. The plugin execution is disabled.");
 			throw new DeploymentTaskException(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.ABORTED, convertParameters(task, envVars), null));
 		} catch (RequiredJDKNotFoundException rjnfe) {
@@ -130,11 +202,14 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
         FilePath archivedArtifact = null;
 		String artifactName = null;
 		String fullArtifactFinalName = null;
+		List<TransfertResult> transfertResults = null;
+		List<DeploymentTaskResult> waveResults = null;
 		try {
+			timer.start(DeploymentPhase.ARTIFACT_SELECTION);
 			// En fonction du type de projet on utilise pas le meme selecteur
 			Class<? extends AbstractProject> jobType = build.getProject().getClass();
 
-			ArtifactSelector artifactSelector = new FreeStyleJobArtifactSelectorImpl();
+			ArtifactSelector artifactSelector = new FreeStyleJobArtifactSelectorImpl(getDescriptor().getExcludedScanDirectories());
 
 			FilePath selectedArtifact = artifactSelector.selectArtifactRecorded(build, listener, task.getBuiltResourceRegexToDeploy(), task.getBaseResourcesGeneratedDirectory());
 			// Ne devrait pas etre le nom mais la valeur finale du artifact.name (sans l'extension)
@@ -148,53 +223,180 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
             throw new DeploymentTaskException(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.ABORTED, convertParameters(task, envVars), null));
         }
 		
-		// Filtrage, parametrage et deploiement
-		try {
-            
-			//Gestion de liste d'exclusions
-			Pattern pattern = Pattern.compile(getDescriptor().getExcludedArtifactNamePattern());
-			Matcher matcher = pattern.matcher(artifactName);
-			if(matcher.matches()){
-				listener.error("[WeblogicDeploymentPlugin] - The artifact Name " +artifactName+ " is excluded from deployment (see exclusion list).");
-				throw new DeploymentTaskException(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.ABORTED, convertParameters(task, envVars), fullArtifactFinalName));
-			}
-			
-			//Recuperation du parametrage
-			WeblogicEnvironment weblogicEnvironmentTargeted = getWeblogicEnvironmentTargeted(task.getWeblogicEnvironmentTargetedName(), listener);
-			
-			if(weblogicEnvironmentTargeted == null){
-				listener.error("[WeblogicDeploymentPlugin] - WebLogic environment Name " +task.getWeblogicEnvironmentTargetedName()+ " not found in the list. Please check the configuration file.");
-				throw new DeploymentTaskException(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.ABORTED, convertParameters(task, envVars), fullArtifactFinalName));
+		//Gestion de liste d'exclusions (avant le registre : un artefact exclu n'est jamais declare inchange)
+		Pattern pattern = Pattern.compile(getDescriptor().getExcludedArtifactNamePattern());
+		Matcher matcher = pattern.matcher(artifactName);
+		if(matcher.matches()){
+			listener.error("[WeblogicDeploymentPlugin] - The artifact Name " +artifactName+ " is excluded from deployment (see exclusion list).");
+			IOUtils.closeQuietly(deploymentLogOut);
+			throw new DeploymentTaskException(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.ABORTED, convertParameters(task, envVars), fullArtifactFinalName));
+		}
+		
+		//Recuperation du parametrage
+		WeblogicEnvironment weblogicEnvironmentTargeted = getWeblogicEnvironmentTargeted(task.getWeblogicEnvironmentTargetedName(), listener);
+		
+		if(weblogicEnvironmentTargeted == null){
+			listener.error("[WeblogicDeploymentPlugin] - WebLogic environment Name " +task.getWeblogicEnvironmentTargetedName()+ " not found in the list. Please check the configuration file.");
+			IOUtils.closeQuietly(deploymentLogOut);
+			throw new DeploymentTaskException(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.ABORTED, convertParameters(task, envVars), fullArtifactFinalName));
+		}
+		
+		// un retrait par vague rendrait l'application indisponible sur les membres deja deployes
+		if(task.getRollingMode() && StringUtils.isBlank(task.getCommandLine()) && ! task.getIsLibrary() 
+				&& ! WebLogicDeploymentMode.REDEPLOY.equals(task.getDeploymentMode())){
+			listener.error("[WeblogicDeploymentPlugin] - The rolling mode requires the redeploy in place deployment mode.");
+			IOUtils.closeQuietly(deploymentLogOut);
+			throw new DeploymentTaskException(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.ABORTED, convertParameters(task, envVars), fullArtifactFinalName));
+		}
+		
+		// Registre des deploiements : le deploiement est ignore si l'artefact n'a pas change
+		String ledgerKey = null;
+		String artifactDigest = null;
+		if(StringUtils.isBlank(task.getCommandLine())){
+			String deploymentName = StringUtils.isNotBlank(task.getDeploymentName()) ? task.getDeploymentName() : artifactName;
+			ledgerKey = DeploymentLedger.getKey(task.getWeblogicEnvironmentTargetedName(), ParameterValueResolver.resolve(deploymentName, envVars),
+					ParameterValueResolver.resolve(task.getDeploymentTargets(), envVars));
+			if(task.getSkipIfUnchanged()){
+				try {
+					artifactDigest = FileDigestUtils.sha256(archivedArtifact);
+					DeploymentLedger.Entry lastDeployment = DeploymentLedger.get().getEntry(ledgerKey);
+					if(lastDeployment != null && artifactDigest.equals(lastDeployment.getSha256())){
+						listener.getLogger().println("[WeblogicDeploymentPlugin] - The artifact " + fullArtifactFinalName + " (sha256=" + artifactDigest + ") is the one deployed by " + lastDeployment.getBuildId() + ". The deployment is skipped.");
+						deploymentLogOut.write(("ARTIFACT UNCHANGED (sha256=" + artifactDigest + ", deployed by " + lastDeployment.getBuildId() + "). DEPLOYMENT SKIPPED.\r\n").getBytes());
+						IOUtils.closeQuietly(deploymentLogOut);
+						return new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.UNCHANGED, convertParameters(task, envVars), fullArtifactFinalName);
+					}
+				} catch (Exception e) {
+					listener.getLogger().println("[WeblogicDeploymentPlugin] - Unable to compare the artifact with the last one deployed (" + e.getMessage() + "). The artifact will be deployed.");
+					artifactDigest = null;
+				}
 			}
+		}
+		timer.stop();
+		
+		// Deploiement
+		try {
 			
 			// copie des libraries sur le remote node
 			if(! StringUtils.EMPTY.equalsIgnoreCase(build.getBuiltOnStr())){
+				timer.start(DeploymentPhase.LIBRARY_COPY);
 				copyWeblogicLibraries(build, listener, launcher, getDescriptor().getExtraClasspath());
 			}
 			
 			//Deploiement
 			listener.getLogger().println("[WeblogicDeploymentPlugin] - Deploying the artifact on the following target : (name="+task.getWeblogicEnvironmentTargetedName()+") (host=" + weblogicEnvironmentTargeted.getHost() + ") (port=" +weblogicEnvironmentTargeted.getPort()+ ")");
-			if(StringUtils.isBlank(task.getCommandLine())){
+			if(task.getRollingMode() && (task.getIsLibrary() || StringUtils.isNotBlank(task.getCommandLine()))){
+				listener.getLogger().println("[WeblogicDeploymentPlugin] - The rolling mode doesn't apply to the libraries and the command lines. All the targets are deployed at once.");
+			}
+			if(StringUtils.isBlank(task.getCommandLine()) && task.getRollingMode() && ! task.getIsLibrary()){
+				// Deploiement par vagues sur les membres des clusters
+				waveResults = new ArrayList<DeploymentTaskResult>();
+				rollingDeploy(task, build, listener, launcher, weblogicEnvironmentTargeted, selectedJdk, artifactName, deploymentLogOut, archivedArtifact, fullArtifactFinalName, envVars, waveResults, timer);
+			} else if(StringUtils.isBlank(task.getCommandLine()) && WebLogicDeploymentMode.REDEPLOY.equals(task.getDeploymentMode()) && ! task.getIsLibrary()){
+				// Redeploiement sur place si l'application existe deja
+				timer.start(DeploymentPhase.DEPLOY);
+				WebLogicCommand command = isDeployed(task, build, listener, launcher, weblogicEnvironmentTargeted, selectedJdk, artifactName, deploymentLogOut, envVars) ?
+						WebLogicCommand.REDEPLOY : WebLogicCommand.DEPLOY;
+				transfertResults = deploy(task, build, listener, launcher, weblogicEnvironmentTargeted, 
+						selectedJdk, artifactName, deploymentLogOut, archivedArtifact, fullArtifactFinalName, envVars, command, timer);
+			} else if(StringUtils.isBlank(task.getCommandLine())){
 				// undeploy task
-				undeploy(task, build, listener, launcher, weblogicEnvironmentTargeted, selectedJdk, artifactName, deploymentLogOut, envVars);
+				undeploy(task, build, listener, launcher, weblogicEnvironmentTargeted, selectedJdk, artifactName, deploymentLogOut, envVars, timer);
 		        
 		        //Execution commande deploy
-				deploy(task, build, listener, launcher, weblogicEnvironmentTargeted, 
-						selectedJdk, artifactName, deploymentLogOut, archivedArtifact, fullArtifactFinalName, envVars);
+				transfertResults = deploy(task, build, listener, launcher, weblogicEnvironmentTargeted, 
+						selectedJdk, artifactName, deploymentLogOut, archivedArtifact, fullArtifactFinalName, envVars, WebLogicCommand.DEPLOY, timer);
 			} else {
 				// Execution commande specifique
-				customize(task, build, listener, launcher, weblogicEnvironmentTargeted, selectedJdk, artifactName, deploymentLogOut, archivedArtifact, fullArtifactFinalName, envVars);
+				transfertResults = customize(task, build, listener, launcher, weblogicEnvironmentTargeted, selectedJdk, artifactName, deploymentLogOut, archivedArtifact, fullArtifactFinalName, envVars, timer);
 			}
 			
         } catch (Throwable e) {
+        	timer.stop();
+        	// etat du deploiement inconnu
+        	if(ledgerKey != null){
+        		DeploymentLedger.get().remove(ledgerKey);
+        	}
         	e.printStackTrace(listener.getLogger());
         	listener.error("[WeblogicDeploymentPlugin] - Failed to deploy.");
-            throw new DeploymentTaskException(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.FAILED, convertParameters(task, envVars), fullArtifactFinalName));
+        	DeploymentTaskResult failedResult = new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.FAILED, convertParameters(task, envVars), fullArtifactFinalName);
+        	failedResult.setWaveResults(waveResults);
+            throw new DeploymentTaskException(failedResult);
         } finally {
         	IOUtils.closeQuietly(deploymentLogOut);
         }
 		
-		return new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.SUCCEEDED, convertParameters(task, envVars), fullArtifactFinalName);
+		// Mise a jour du registre (sans empreinte, le deploiement precedent enregistre n'est plus celui en place)
+		if(ledgerKey != null && artifactDigest != null){
+			DeploymentLedger.get().record(ledgerKey, new DeploymentLedger.Entry(artifactDigest, fullArtifactFinalName, build.getParent().getFullName() + "#" + build.getNumber(), System.currentTimeMillis()));
+		} else if(ledgerKey != null){
+			DeploymentLedger.get().remove(ledgerKey);
+		}
+		
+		DeploymentTaskResult result = new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.SUCCEEDED, convertParameters(task, envVars), fullArtifactFinalName);
+		result.setTransfertResults(transfertResults);
+		result.setWaveResults(waveResults);
+		return result;
+	}
+	
+	/**
+	 * 
+	 * @param weblogicEnvironmentTargeted
+	 * @param fullArtifactFinalName
+	 * @return the path of the library on the FTP server
+	 */
+	private String getLibraryRemoteFilePath(WeblogicEnvironment weblogicEnvironmentTargeted, String fullArtifactFinalName) {
+		return weblogicEnvironmentTargeted.getRemoteDir() + "/" + fullArtifactFinalName;
+	}
+	
+	/**
+	 * Streams the library to the FTP server(s) from the node holding it, on sessions shared by the tasks of the build.
+	 * Several FTP hosts (comma separated) are served concurrently from a single read of the library.
+	 * 
+	 * @param build
+	 * @param weblogicEnvironmentTargeted
+	 * @param archivedArtifact
+	 * @param remoteFilePath
+	 * @param fullArtifactFinalName
+	 * @param listener
+	 * @return the result of the transfer for each host
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private List<TransfertResult> transfertLibrary(AbstractBuild<?, ?> build, WeblogicEnvironment weblogicEnvironmentTargeted, FilePath archivedArtifact, String remoteFilePath,
+			String fullArtifactFinalName, BuildListener listener) throws IOException, InterruptedException {
+		//Par defaut si ftp n'est pas renseigne on prend le host
+		String ftpHost = StringUtils.isBlank(weblogicEnvironmentTargeted.getFtpHost()) ? weblogicEnvironmentTargeted.getHost() : weblogicEnvironmentTargeted.getFtpHost();
+		listener.getLogger().println("[WeblogicDeploymentPlugin] - TRANSFERING LIBRARY : (local=" +fullArtifactFinalName+ ") (remote=" + remoteFilePath + ") to (ftp=" +ftpHost + "@" +weblogicEnvironmentTargeted.getFtpUser()+ ") ...");
+		
+		List<TransfertConfiguration> transfertConfigurations = new ArrayList<TransfertConfiguration>();
+		for(String host : StringUtils.split(ftpHost, ',')){
+			if(StringUtils.isBlank(host)){
+				continue;
+			}
+			TransfertConfiguration transfertConfiguration = new TransfertConfiguration(StringUtils.trim(host), weblogicEnvironmentTargeted.getFtpUser(), weblogicEnvironmentTargeted.getFtpPassowrd(), archivedArtifact.getRemote(), remoteFilePath);
+			transfertConfiguration.setPassiveMode(weblogicEnvironmentTargeted.getFtpPassiveMode());
+			transfertConfiguration.setBufferSize(weblogicEnvironmentTargeted.getFtpBufferSize());
+			transfertConfigurations.add(transfertConfiguration);
+		}
+		
+		List<TransfertResult> transfertResults;
+		if(transfertConfigurations.size() > 1){
+			transfertResults = FTPUtils.transfertFile(archivedArtifact, transfertConfigurations, weblogicEnvironmentTargeted.getFtpMaxConcurrentTransfers(), FTPUtils.getSessionScope(build), listener);
+		} else {
+			TransfertConfiguration transfertConfiguration = transfertConfigurations.get(0);
+			TransfertStatistics transfertStatistics = FTPUtils.transfertFile(archivedArtifact, transfertConfiguration, FTPUtils.getSessionScope(build), listener);
+			transfertResults = new ArrayList<TransfertResult>();
+			transfertResults.add(new TransfertResult(transfertConfiguration.getHost(), transfertStatistics, null));
+		}
+		
+		for(TransfertResult transfertResult : transfertResults){
+			if(! transfertResult.isSucceeded()){
+				throw new TransfertFileException("Failed to transfert the library to " + transfertResult);
+			}
+		}
+		listener.getLogger().println("[WeblogicDeploymentPlugin] - LIBRARY TRANSFERED SUCCESSFULLY.");
+		return transfertResults;
 	}
 
     /**
@@ -210,51 +412,99 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
      * @param archivedArtifact
      * @param fullArtifactFinalName
      * @param envVars
+     * @param command DEPLOY or REDEPLOY
+     * @param timer
+     * @return the results of the library transfer, null if the artifact is not a library
      * @throws IOException
      * @throws InterruptedException
      */
-	private void deploy(DeploymentTask task, AbstractBuild<?, ?> build, BuildListener listener, Launcher launcher, 
+	private List<TransfertResult> deploy(DeploymentTask task, AbstractBuild<?, ?> build, BuildListener listener, Launcher launcher, 
 			WeblogicEnvironment weblogicEnvironmentTargeted, JDK selectedJdk, String artifactName, OutputStream deploymentLogOut,
-			FilePath archivedArtifact, String fullArtifactFinalName, EnvVars envVars)  throws IOException, InterruptedException {
+			FilePath archivedArtifact, String fullArtifactFinalName, EnvVars envVars, WebLogicCommand command, DeploymentPhaseTimer timer)  throws IOException, InterruptedException {
 		
 		String sourceFile = null;
-		String remoteFilePath = null;
+		List<TransfertResult> transfertResults = null;
 		
 		//Transfert FTP pour les librairies (contrainte weblogic)
-        if(task.getIsLibrary()){
-        	//Par defaut si ftp n'est pas renseigne on prend le host
-        	String ftpHost = StringUtils.isBlank(weblogicEnvironmentTargeted.getFtpHost()) ? weblogicEnvironmentTargeted.getHost() : weblogicEnvironmentTargeted.getFtpHost();
-        	// path to remote resource
-            remoteFilePath = weblogicEnvironmentTargeted.getRemoteDir() + "/" + fullArtifactFinalName;
-            String localFilePath = archivedArtifact.getRemote();
-            listener.getLogger().println("[WeblogicDeploymentPlugin] - TRANSFERING LIBRARY : (local=" +fullArtifactFinalName+ ") (remote=" + remoteFilePath + ") to (ftp=" +ftpHost + "@" +weblogicEnvironmentTargeted.getFtpUser()+ ") ...");
-            FTPUtils.transfertFile(new TransfertConfiguration(ftpHost, weblogicEnvironmentTargeted.getFtpUser(), weblogicEnvironmentTargeted.getFtpPassowrd(), localFilePath, remoteFilePath),listener.getLogger());
-        	listener.getLogger().println("[WeblogicDeploymentPlugin] - LIBRARY TRANSFERED SUCCESSFULLY.");
-        }
-        
 		//source file correspond au remote file pour les librairies
         if(task.getIsLibrary()){
-        	sourceFile = remoteFilePath;
+        	sourceFile = getLibraryRemoteFilePath(weblogicEnvironmentTargeted, fullArtifactFinalName);
+        	timer.start(DeploymentPhase.FTP_TRANSFER);
+        	transfertResults = transfertLibrary(build, weblogicEnvironmentTargeted, archivedArtifact, sourceFile, fullArtifactFinalName, listener);
         } else {
         	sourceFile = archivedArtifact.getRemote();
         }
         
+        timer.start(DeploymentPhase.DEPLOY);
         WebLogicDeployerParameters deployWebLogicDeployerParameters = new WebLogicDeployerParameters(
         		build,launcher,listener, selectedJdk, task.getDeploymentName(), task.getIsLibrary(), task.getDeploymentTargets(),
-        		weblogicEnvironmentTargeted, artifactName, sourceFile, WebLogicCommand.DEPLOY, false,
+        		weblogicEnvironmentTargeted, artifactName, sourceFile, command, false,
         		getDescriptor().getJavaOpts(),getDescriptor().getExtraClasspath(), task.getStageMode(), task.getDeploymentPlan(), task.getProtocol());
+        deployWebLogicDeployerParameters.setNoWait(task.getAsyncMode());
         String[] deployCommand = WebLogicDeployer.getWebLogicCommandLine(deployWebLogicDeployerParameters, envVars);
-        listener.getLogger().println("[WeblogicDeploymentPlugin] - DEPLOYING ARTIFACT...");
-        deploymentLogOut.write("------------------------------------  ARTIFACT DEPLOYMENT ------------------------------------------------\r\n".getBytes());
-        int exitStatus = launcher.launch().cmds(deployCommand).envs(envVars).stdout(deploymentLogOut).join();
+        if(WebLogicCommand.REDEPLOY.equals(command)){
+        	listener.getLogger().println("[WeblogicDeploymentPlugin] - REDEPLOYING ARTIFACT...");
+        	deploymentLogOut.write("------------------------------------  ARTIFACT REDEPLOYMENT ------------------------------------------------\r\n".getBytes());
+        } else {
+        	listener.getLogger().println("[WeblogicDeploymentPlugin] - DEPLOYING ARTIFACT...");
+        	deploymentLogOut.write("------------------------------------  ARTIFACT DEPLOYMENT ------------------------------------------------\r\n".getBytes());
+        }
+        ByteArrayOutputStream submitOut = new ByteArrayOutputStream();
+        int exitStatus = getDeployerEngine().execute(deployWebLogicDeployerParameters, deployCommand, envVars, 
+        		task.getAsyncMode() ? new TeeOutputStream(deploymentLogOut, submitOut) : deploymentLogOut);
         if(exitStatus != 0){
 //        	listener.error("[WeblogicDeploymentPlugin] - Command " +StringUtils.join(deployCommand, '|')+" completed abnormally (exit code = "+exitStatus+")");
         	throw new RuntimeException("task completed abnormally (exit code = "+exitStatus+")");
         }
+        if(task.getAsyncMode()){
+        	awaitWebLogicTask(task, build, listener, weblogicEnvironmentTargeted, selectedJdk, deploymentLogOut, envVars, submitOut.toString());
+        }
         listener.getLogger().println("[WeblogicDeploymentPlugin] - ARTIFACT DEPLOYED SUCCESSFULLY.");
+        return transfertResults;
 	}
 	
 	/**
+	 * Waits for the end of the WebLogic task initiated by a command submitted with -nowait. The task is polled by
+	 * {@link AsyncDeploymentPoller} : no deployer JVM runs in the meantime.
+	 * 
+	 * @param task
+	 * @param build
+	 * @param listener
+	 * @param weblogicEnvironmentTargeted
+	 * @param selectedJdk
+	 * @param deploymentLogOut
+	 * @param envVars
+	 * @param submitOutput the output of the command submitted
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private void awaitWebLogicTask(DeploymentTask task, AbstractBuild<?, ?> build, BuildListener listener, WeblogicEnvironment weblogicEnvironmentTargeted, 
+			JDK selectedJdk, OutputStream deploymentLogOut, EnvVars envVars, String submitOutput) throws IOException, InterruptedException {
+		String weblogicTaskId = WebLogicDeployer.getInitiatedTaskId(submitOutput);
+		if(weblogicTaskId == null){
+			throw new RuntimeException("no WebLogic task initiated found in the deployer output");
+		}
+		
+		AsyncDeploymentRegistry.Entry entry = new AsyncDeploymentRegistry.Entry(build.getParent().getFullName(), build.getNumber(), task.getId(), weblogicTaskId,
+				weblogicEnvironmentTargeted.getName(), ParameterValueResolver.resolve(task.getDeploymentTargets(), envVars), task.getProtocol(),
+				selectedJdk.getName(), selectedJdk.getHome());
+		listener.getLogger().println("[WeblogicDeploymentPlugin] - WEBLOGIC TASK "+weblogicTaskId+" INITIATED. Waiting for its end (polled with -listtask) ...");
+		long start = System.currentTimeMillis();
+		AsyncDeploymentRegistry.get().submit(entry);
+		WebLogicTaskState state = AsyncDeploymentRegistry.get().await(entry.getKey());
+		
+		String outcome = "WEBLOGIC TASK "+weblogicTaskId+" : "+state+" ("+entry.getPolls()+" polls, "+(System.currentTimeMillis() - start)+" ms)";
+		deploymentLogOut.write((outcome+"\r\n").getBytes());
+		listener.getLogger().println("[WeblogicDeploymentPlugin] - "+outcome);
+		if(! WebLogicTaskState.COMPLETED.equals(state)){
+			throw new RuntimeException("the WebLogic task "+weblogicTaskId+" ended with the state "+state);
+		}
+	}
+	
+	/**
+	 * Redeploys the members of the clusters targeted wave by wave : the next wave starts once the members of the
+	 * current one are ready (see {@link DeploymentReadinessCheck}). Requires the {@link WebLogicDeploymentMode#REDEPLOY} mode,
+	 * an application not deployed yet is deployed on all the targets at once.
 	 * 
 	 * @param task
 	 * @param build
@@ -264,13 +514,155 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
 	 * @param selectedJdk
 	 * @param artifactName
 	 * @param deploymentLogOut
+	 * @param archivedArtifact
+	 * @param fullArtifactFinalName
+	 * @param envVars
+	 * @param waveResults the result of each wave started (filled)
+	 * @param timer
 	 * @throws IOException
 	 * @throws InterruptedException
 	 */
-	private void undeploy(DeploymentTask task, AbstractBuild<?, ?> build, BuildListener listener, Launcher launcher, 
+	private void rollingDeploy(DeploymentTask task, AbstractBuild<?, ?> build, BuildListener listener, Launcher launcher, 
+			WeblogicEnvironment weblogicEnvironmentTargeted, JDK selectedJdk, String artifactName, OutputStream deploymentLogOut,
+			FilePath archivedArtifact, String fullArtifactFinalName, EnvVars envVars, List<DeploymentTaskResult> waveResults, DeploymentPhaseTimer timer) throws IOException, InterruptedException {
+		
+		List<List<WeblogicClusterMember>> waves = RollingDeploymentPlan.getWaves(weblogicEnvironmentTargeted, 
+				ParameterValueResolver.resolve(task.getDeploymentTargets(), envVars), task.getRollingWavePercentage());
+		if(waves.isEmpty()){
+			throw new RuntimeException("no target to deploy");
+		}
+		listener.getLogger().println("[WeblogicDeploymentPlugin] - ROLLING DEPLOYMENT IN "+waves.size()+" WAVES ("+task.getRollingWavePercentage()+"% of the members each) ...");
+		
+		// l'application est recherchee une seule fois : les vagues suivantes la trouveraient toujours
+		timer.start(DeploymentPhase.DEPLOY);
+		if(! isDeployed(task, build, listener, launcher, weblogicEnvironmentTargeted, selectedJdk, artifactName, deploymentLogOut, envVars)){
+			// premiere installation : rien a garder disponible, toutes les targets en une fois
+			listener.getLogger().println("[WeblogicDeploymentPlugin] - The application is not deployed yet. All the targets are deployed at once.");
+			DeploymentTask allTargetsTask = convertParameters(task, envVars);
+			DeploymentTaskResult result = new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.FAILED, allTargetsTask, fullArtifactFinalName);
+			waveResults.add(result);
+			deploy(allTargetsTask, build, listener, launcher, weblogicEnvironmentTargeted, 
+					selectedJdk, artifactName, deploymentLogOut, archivedArtifact, fullArtifactFinalName, envVars, WebLogicCommand.DEPLOY, timer);
+			result.setStatus(WebLogicDeploymentStatus.SUCCEEDED);
+			return;
+		}
+		
+		for(int i = 0; i < waves.size(); i++){
+			DeploymentTask waveTask = convertParameters(task, envVars);
+			waveTask.setDeploymentTargets(StringUtils.join(waves.get(i), ','));
+			DeploymentTaskResult waveResult = new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.FAILED, waveTask, fullArtifactFinalName);
+			waveResults.add(waveResult);
+			
+			listener.getLogger().println("[WeblogicDeploymentPlugin] - WAVE "+(i+1)+"/"+waves.size()+" : (targets="+waveTask.getDeploymentTargets()+")");
+			deploymentLogOut.write(("------------------------------------  WAVE "+(i+1)+"/"+waves.size()+" ("+waveTask.getDeploymentTargets()+") ------------------------------------------------\r\n").getBytes());
+			deploy(waveTask, build, listener, launcher, weblogicEnvironmentTargeted, 
+					selectedJdk, artifactName, deploymentLogOut, archivedArtifact, fullArtifactFinalName, envVars, WebLogicCommand.REDEPLOY, timer);
+			
+			// disponibilite de la vague comptee dans la phase de deploiement
+			waitUntilReady(weblogicEnvironmentTargeted, waves.get(i), task.getReadinessTimeout(), listener);
+			waveResult.setStatus(WebLogicDeploymentStatus.SUCCEEDED);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param weblogicEnvironmentTargeted
+	 * @param members
+	 * @param readinessTimeout in seconds
+	 * @param listener
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private void waitUntilReady(WeblogicEnvironment weblogicEnvironmentTargeted, List<WeblogicClusterMember> members, int readinessTimeout, 
+			BuildListener listener) throws IOException, InterruptedException {
+		List<DeploymentReadinessCheck> checks = DeploymentReadinessCheck.all();
+		List<WeblogicClusterMember> pendingMembers = new ArrayList<WeblogicClusterMember>(members);
+		long start = System.currentTimeMillis();
+		long deadline = start + readinessTimeout * 1000L;
+		while(true){
+			for(Iterator<WeblogicClusterMember> it = pendingMembers.iterator(); it.hasNext();){
+				WeblogicClusterMember member = it.next();
+				boolean ready = true;
+				for(DeploymentReadinessCheck check : checks){
+					if(! check.isReady(weblogicEnvironmentTargeted, member, listener)){
+						ready = false;
+						break;
+					}
+				}
+				if(ready){
+					it.remove();
+				}
+			}
+			if(pendingMembers.isEmpty()){
+				listener.getLogger().println("[WeblogicDeploymentPlugin] - Members "+members+" ready in "+(System.currentTimeMillis() - start)+" ms.");
+				return;
+			}
+			if(System.currentTimeMillis() >= deadline){
+				throw new RuntimeException("the members "+pendingMembers+" are not ready after "+readinessTimeout+" s. The next waves are not deployed.");
+			}
+			Thread.sleep(READINESS_POLL_PERIOD);
+		}
+	}
+	
+	/**
+	 * Lists the applications deployed on the environment.
+	 * 
+	 * @param task
+	 * @param build
+	 * @param listener
+	 * @param launcher
+	 * @param weblogicEnvironmentTargeted
+	 * @param selectedJdk
+	 * @param artifactName
+	 * @param deploymentLogOut
+	 * @param envVars
+	 * @return true if the application is already deployed
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private boolean isDeployed(DeploymentTask task, AbstractBuild<?, ?> build, BuildListener listener, Launcher launcher, 
 			WeblogicEnvironment weblogicEnvironmentTargeted,
 			JDK selectedJdk, String artifactName, OutputStream deploymentLogOut, EnvVars envVars) throws IOException, InterruptedException {
+		WebLogicDeployerParameters listappsWebLogicDeployerParameters = new WebLogicDeployerParameters(
+				build, launcher, listener, selectedJdk, task.getDeploymentName(), task.getIsLibrary(), task.getDeploymentTargets(),
+				weblogicEnvironmentTargeted, artifactName, null, WebLogicCommand.LISTAPPS, true,
+				getDescriptor().getJavaOpts(), getDescriptor().getExtraClasspath(), task.getStageMode(), null, task.getProtocol());
+		String[] listappsCommand = WebLogicDeployer.getWebLogicCommandLine(listappsWebLogicDeployerParameters, envVars);
+		
+		deploymentLogOut.write("------------------------------------  DEPLOYED APPLICATIONS ------------------------------------------------\r\n".getBytes());
+		listener.getLogger().println("[WeblogicDeploymentPlugin] - LISTING DEPLOYED APPLICATIONS...");
+		ByteArrayOutputStream listappsOut = new ByteArrayOutputStream();
+		int exitStatus = getDeployerEngine().execute(listappsWebLogicDeployerParameters, listappsCommand, envVars, new TeeOutputStream(deploymentLogOut, listappsOut));
+		if(exitStatus != 0){
+			throw new RuntimeException("listing of the deployed applications completed abnormally (exit code = "+exitStatus+")");
+		}
+		
+		String deploymentName = WebLogicDeployer.getTargetedDeploymentName(listappsWebLogicDeployerParameters, envVars);
+		boolean deployed = WebLogicDeployer.isDeploymentListed(listappsOut.toString(), deploymentName);
+		listener.getLogger().println("[WeblogicDeploymentPlugin] - The application "+deploymentName+(deployed ? " is already deployed : it will be redeployed in place." : " is not deployed yet."));
+		return deployed;
+	}
+	
+	/**
+	 * 
+	 * @param task
+	 * @param build
+	 * @param listener
+	 * @param launcher
+	 * @param weblogicEnvironmentTargeted
+	 * @param selectedJdk
+	 * @param artifactName
+	 * @param deploymentLogOut
+	 * @param envVars
+	 * @param timer
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private void undeploy(DeploymentTask task, AbstractBuild<?, ?> build, BuildListener listener, Launcher launcher, 
+			WeblogicEnvironment weblogicEnvironmentTargeted,
+			JDK selectedJdk, String artifactName, OutputStream deploymentLogOut, EnvVars envVars, DeploymentPhaseTimer timer) throws IOException, InterruptedException {
 		//Execution commande undeploy
+		timer.start(DeploymentPhase.UNDEPLOY);
 		WebLogicDeployerParameters undeployWebLogicDeployerParameters = new WebLogicDeployerParameters(
 				build, launcher, listener, selectedJdk, task.getDeploymentName(), task.getIsLibrary(), task.getDeploymentTargets(),
 				weblogicEnvironmentTargeted, artifactName, null, WebLogicCommand.UNDEPLOY, true,
@@ -279,8 +671,7 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
         
         deploymentLogOut.write("------------------------------------  ARTIFACT UNDEPLOYMENT ------------------------------------------------\r\n".getBytes());
         listener.getLogger().println("[WeblogicDeploymentPlugin] - UNDEPLOYING ARTIFACT...");
-        final Proc undeploymentProc = launcher.launch().cmds(undeployCommand).envs(envVars).stdout(deploymentLogOut).start();
-        undeploymentProc.join();
+        getDeployerEngine().execute(undeployWebLogicDeployerParameters, undeployCommand, envVars, deploymentLogOut);
         listener.getLogger().println("[WeblogicDeploymentPlugin] - ARTIFACT UNDEPLOYED SUCCESSFULLY.");
 	}
 	
@@ -294,61 +685,67 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
 	 * @param selectedJdk
 	 * @param artifactName
 	 * @param deploymentLogOut
+	 * @param archivedArtifact
+	 * @param fullArtifactFinalName
+	 * @param envVars
+	 * @param timer
+	 * @return the results of the library transfer, null if the artifact is not a library
 	 * @throws IOException
 	 * @throws InterruptedException
 	 */
-	private void customize(DeploymentTask task, AbstractBuild<?, ?> build, BuildListener listener, Launcher launcher, 
+	private List<TransfertResult> customize(DeploymentTask task, AbstractBuild<?, ?> build, BuildListener listener, Launcher launcher, 
 			WeblogicEnvironment weblogicEnvironmentTargeted,
 			JDK selectedJdk, String artifactName, OutputStream deploymentLogOut,
-			FilePath archivedArtifact, String fullArtifactFinalName, EnvVars envVars) throws IOException, InterruptedException {
+			FilePath archivedArtifact, String fullArtifactFinalName, EnvVars envVars, DeploymentPhaseTimer timer) throws IOException, InterruptedException {
 		
 		String sourceFile = null;
-		String remoteFilePath = null;
+		List<TransfertResult> transfertResults = null;
 		
 		//Transfert FTP pour les librairies (contrainte weblogic)
-        if(task.getIsLibrary()){
-        	//Par defaut si ftp n'est pas renseigne on prend le host
-        	String ftpHost = StringUtils.isBlank(weblogicEnvironmentTargeted.getFtpHost()) ? weblogicEnvironmentTargeted.getHost() : weblogicEnvironmentTargeted.getFtpHost();
-        	// path to remote resource
-            remoteFilePath = weblogicEnvironmentTargeted.getRemoteDir() + "/" + fullArtifactFinalName;
-            String localFilePath = archivedArtifact.getRemote();
-            listener.getLogger().println("[WeblogicDeploymentPlugin] - TRANSFERING LIBRARY : (local=" +fullArtifactFinalName+ ") (remote=" + remoteFilePath + ") to (ftp=" +ftpHost + "@" +weblogicEnvironmentTargeted.getFtpUser()+ ") ...");
-            FTPUtils.transfertFile(new TransfertConfiguration(ftpHost, weblogicEnvironmentTargeted.getFtpUser(), weblogicEnvironmentTargeted.getFtpPassowrd(), localFilePath, remoteFilePath),listener.getLogger());
-        	listener.getLogger().println("[WeblogicDeploymentPlugin] - LIBRARY TRANSFERED SUCCESSFULLY.");
-        }
-        
 		//source file correspond au remote file pour les librairies
         if(task.getIsLibrary()){
-        	sourceFile = remoteFilePath;
+        	sourceFile = getLibraryRemoteFilePath(weblogicEnvironmentTargeted, fullArtifactFinalName);
+        	timer.start(DeploymentPhase.FTP_TRANSFER);
+        	transfertResults = transfertLibrary(build, weblogicEnvironmentTargeted, archivedArtifact, sourceFile, fullArtifactFinalName, listener);
         } else {
         	sourceFile = archivedArtifact.getRemote();
         }
 		
+		timer.start(DeploymentPhase.DEPLOY);
 		WebLogicDeployerParameters executionDeployerParameters = new WebLogicDeployerParameters(
 				build, launcher, listener, selectedJdk, task.getDeploymentName(), task.getIsLibrary(), task.getDeploymentTargets(),
 				weblogicEnvironmentTargeted, artifactName, sourceFile, null, true,
 				getDescriptor().getJavaOpts(), getDescriptor().getExtraClasspath(), task.getStageMode(), task.getDeploymentPlan(), task.getProtocol());
 		
 		
-		String[] commandLines = StringUtils.split(task.getCommandLine(), WebLogicDeploymentPluginConstantes.WL_DEPLOYMENT_CMD_LINE_SEPARATOR);
+		// ligne de commande compilee a l'enregistrement de la tache
+		CommandLineTemplate commandLineTemplate = task.getCommandLineTemplate();
+		List<String[]> executionCommands = new ArrayList<String[]>(commandLineTemplate.size());
 		
-        for(String command: commandLines) {
-        	
-        	if(StringUtils.isBlank(command)){
-        		continue;
+        for(int i = 0; i < commandLineTemplate.size(); i++) {
+        	List<String> arguments = commandLineTemplate.render(i, executionDeployerParameters, tokenResolver, envVars);
+        	executionCommands.add(WebLogicDeployer.getWebLogicCommandLine(executionDeployerParameters, arguments));
+        }
+        
+        // Mode batch : toutes les commandes dans une seule JVM
+        if(task.getBatchMode() && executionCommands.size() > 1){
+        	listener.getLogger().println("[WeblogicDeploymentPlugin] - EXECUTING "+executionCommands.size()+" TASKS IN A SINGLE DEPLOYER JVM ...");
+        	int exitStatus = getDeployerEngine().executeBatch(executionDeployerParameters, executionCommands, envVars, deploymentLogOut);
+        	if(exitStatus != 0){
+        		throw new RuntimeException("task completed abnormally (exit code = "+exitStatus+"). Check your Weblogic Deployment logs.");
+        	}
+        } else {
+        	for(String[] executionCommand : executionCommands) {
+        		deploymentLogOut.write("------------------------------------  TASK EXECUTION ------------------------------------------------\r\n".getBytes());
+        		listener.getLogger().println("[WeblogicDeploymentPlugin] - EXECUTING TASK ...");
+        		int exitStatus = getDeployerEngine().execute(executionDeployerParameters, executionCommand, envVars, deploymentLogOut);
+        		if(exitStatus != 0){
+        			throw new RuntimeException("task completed abnormally (exit code = "+exitStatus+"). Check your Weblogic Deployment logs.");
+        		}
         	}
-        	
-        	String newCommand = replaceTokens(StringUtils.trim(command), executionDeployerParameters);
-        	String[] executionCommand = WebLogicDeployer.getWebLogicCommandLine(executionDeployerParameters, newCommand, envVars);
-        	
-        	deploymentLogOut.write("------------------------------------  TASK EXECUTION ------------------------------------------------\r\n".getBytes());
-            listener.getLogger().println("[WeblogicDeploymentPlugin] - EXECUTING TASK ...");
-	        int exitStatus = launcher.launch().cmds(executionCommand).envs(envVars).stdout(deploymentLogOut).join();
-	        if(exitStatus != 0){
-	        	throw new RuntimeException("task completed abnormally (exit code = "+exitStatus+"). Check your Weblogic Deployment logs.");
-	        }
         }
         listener.getLogger().println("[WeblogicDeploymentPlugin] - ARTIFACT DEPLOYED SUCCESSFULLY.");
+        return transfertResults;
 	}
 
 	/**
@@ -358,57 +755,10 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
 	 */
 	private DeploymentTask convertParameters(DeploymentTask task, EnvVars envVars) {
 		DeploymentTask taskHistory = new DeploymentTask(task);
-		taskHistory.setDeploymentTargets(ParameterValueResolver.resolveEnvVar(task.getDeploymentTargets(), envVars));
+		taskHistory.setDeploymentTargets(ParameterValueResolver.resolve(task.getDeploymentTargets(), envVars));
 		return taskHistory;
 	}
 	
-	/**
-	 * 
-	 * @param text
-	 * @return
-	 */
-	private String replaceTokens(String text, WebLogicDeployerParameters parameters){
-		Pattern pattern = Pattern.compile(WebLogicDeploymentPluginConstantes.COMMAND_LINE_TOKEN);
-		StringBuilder output = new StringBuilder();
-		Matcher tokenMatcher = pattern.matcher(text);
-		int cursor = 0;
-        while (tokenMatcher.find()) {
-            int tokenStart = tokenMatcher.start();
-            int tokenEnd = tokenMatcher.end();
-            int keyStart = tokenMatcher.start(1);
-            int keyEnd = tokenMatcher.end(1);
-
-            output.append(text.substring(cursor, tokenStart));
-
-            String token = text.substring(tokenStart, tokenEnd);
-            String key = text.substring(keyStart, keyEnd);
-
-            // find token value
-            String value = findValue(key, parameters);
-            if (value != null) {
-                output.append(value);
-            } else {
-                output.append(token);
-            }
-
-            cursor = tokenEnd;
-        }
-        output.append(text.substring(cursor));
-
-        return output.toString();
-	}
-	
-	private String findValue(String key, WebLogicDeployerParameters parameters) {
-		String result =  key;
-		
-		// Variables specifiques
-		if(key.startsWith(WebLogicDeployerTokenResolver.WL_DEPLOYMENT_CMD_TOKEN_PREF)){
-			return tokenResolver.resolveKey(key, parameters);
-		}
-		
-		return result;
-	}
-	
 	/**
 	 * 
 	 * @param weblogicEnvironmentTargetedName
@@ -417,41 +767,31 @@ public class DeploymentTaskServiceImpl implements DeploymentTaskService {
 	 */
 	private WeblogicEnvironment getWeblogicEnvironmentTargeted(String weblogicEnvironmentTargetedName,BuildListener listener) {
 		
-		WeblogicEnvironment out = null;
-		WeblogicEnvironment[] targets = getDescriptor().getWeblogicEnvironments();
-		
-		if(targets == null){
-			return out;
-		}
-		
-		for (int i = 0;i< targets.length;i++) {
-			if(weblogicEnvironmentTargetedName.equalsIgnoreCase(targets[i].getName())){
-				out = targets[i];
-				break;
-			}
-		}
-		
-		return out;
+		// recherche indexee (insensible a la casse) dans la configuration chargee
+		return getDescriptor().getWeblogicEnvironmentSnapshot().getByName(weblogicEnvironmentTargetedName);
 	}
 	
 	private void copyWeblogicLibraries(AbstractBuild<?, ?> build, BuildListener listener, Launcher launcher, String classpath) throws IOException, InterruptedException{
-		FilePath fp = null;
 		if(build.getWorkspace().isRemote()) {
-		    VirtualChannel channel = build.getWorkspace().getChannel();
-		    for(String path : classpath.split(File.pathSeparator)){
-		    	FilePath srcFile = new FilePath(new File(path));
-		    	fp = new FilePath(channel, build.getWorkspace() + "/"+srcFile.getName());
-		    	if(! fp.exists()){
-		    		listener.getLogger().println("[WeblogicDeploymentPlugin] - copying file "+srcFile.getName()+" on node "+build.getBuiltOnStr()+" ...");
-		    		fp.copyFrom(srcFile);
-		    	} else {
-		    		listener.getLogger().println("[WeblogicDeploymentPlugin] - file "+srcFile.getName()+" already exists in workspace on node "+build.getBuiltOnStr()+".");
-		    	}
-		    }
+			// librairies partagees par les jobs du noeud : seules celles absentes du cache (empreinte SHA-256) sont copiees
+			DeployerToolchainCache.install(classpath, DeployerToolchainCache.getRoot(build.getBuiltOn()), listener);
 		}
 	}
 	
 
+	/**
+	 * 
+	 * @return the engine executing the weblogic.Deployer commands
+	 */
+	private WebLogicDeployerEngine getDeployerEngine() {
+		switch(getDescriptor().getDeployerEngineMode() != null ? getDescriptor().getDeployerEngineMode() : WebLogicDeployerEngineMode.FORKED){
+			case POOLED:
+				return new PooledWebLogicDeployerEngineImpl(getDescriptor().getDeployerPoolMaxSize(), getDescriptor().getDeployerPoolIdleTimeout());
+			default:
+				return forkedDeployerEngine;
+		}
+	}
+
 	/**
 	 * @return the descriptor
 	 */
@@ -0,0 +1,55 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import hudson.Extension;
+import hudson.model.BuildListener;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.deploy.weblogic.configuration.HttpConfigurationSource;
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicClusterMember;
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment;
+
+/**
+ * The member is ready when its health check URL (see {@link WeblogicClusterMember#getHealthCheckUrl()}) answers 2xx.
+ * A member without URL is considered ready once deployed.
+ * 
+ * @author rchaumie
+ *
+ */
+@Extension
+public class HttpDeploymentReadinessCheck extends DeploymentReadinessCheck {
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.jenkinsci.plugins.deploy.weblogic.task.DeploymentReadinessCheck#isReady(org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment, org.jenkinsci.plugins.deploy.weblogic.data.WeblogicClusterMember, hudson.model.BuildListener)
+	 */
+	@Override
+	public boolean isReady(WeblogicEnvironment environment, WeblogicClusterMember member, BuildListener listener) throws IOException, InterruptedException {
+		if(StringUtils.isBlank(member.getHealthCheckUrl())){
+			return true;
+		}
+		
+		HttpURLConnection connection = null;
+		try {
+			connection = (HttpURLConnection) new URL(member.getHealthCheckUrl()).openConnection();
+			connection.setConnectTimeout(HttpConfigurationSource.CONNECT_TIMEOUT);
+			connection.setReadTimeout(HttpConfigurationSource.READ_TIMEOUT);
+			connection.setInstanceFollowRedirects(false);
+			int responseCode = connection.getResponseCode();
+			return responseCode >= 200 && responseCode < 300;
+		} catch (IOException ioe) {
+			// serveur pas encore demarre
+			return false;
+		} finally {
+			if(connection != null){
+				connection.disconnect();
+			}
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicCluster;
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicClusterMember;
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment;
+
+/**
+ * Splits the targets of a rolling deployment into waves : each cluster declared on the environment is expanded
+ * into its members, the other targets (standalone servers) are kept as is.
+ * 
+ * @author rchaumie
+ *
+ */
+public final class RollingDeploymentPlan {
+	
+	private RollingDeploymentPlan() {}
+
+	/**
+	 * 
+	 * @param environment
+	 * @param targets the targets resolved (separated by commas)
+	 * @param wavePercentage percentage of the members deployed by each wave
+	 * @return the members of each wave (at least one member by wave)
+	 */
+	public static List<List<WeblogicClusterMember>> getWaves(WeblogicEnvironment environment, String targets, int wavePercentage) {
+		List<WeblogicClusterMember> members = expand(environment, targets);
+		int waveSize = Math.max(1, (int) Math.ceil(members.size() * Math.min(Math.max(wavePercentage, 1), 100) / 100d));
+		
+		List<List<WeblogicClusterMember>> waves = new ArrayList<List<WeblogicClusterMember>>();
+		for(int i = 0; i < members.size(); i += waveSize){
+			waves.add(new ArrayList<WeblogicClusterMember>(members.subList(i, Math.min(i + waveSize, members.size()))));
+		}
+		return waves;
+	}
+	
+	/**
+	 * 
+	 * @param environment
+	 * @param targets
+	 * @return the servers targeted (without duplicates)
+	 */
+	static List<WeblogicClusterMember> expand(WeblogicEnvironment environment, String targets) {
+		List<WeblogicClusterMember> members = new ArrayList<WeblogicClusterMember>();
+		Set<String> names = new HashSet<String>();
+		for(String target : StringUtils.split(StringUtils.defaultString(targets), ',')){
+			if(StringUtils.isBlank(target)){
+				continue;
+			}
+			WeblogicCluster cluster = environment.getCluster(target);
+			if(cluster == null){
+				add(members, names, new WeblogicClusterMember(target.trim(), null));
+				continue;
+			}
+			for(WeblogicClusterMember member : cluster.getMembers()){
+				add(members, names, member);
+			}
+		}
+		return members;
+	}
+	
+	/**
+	 * 
+	 * @param members
+	 * @param names
+	 * @param member
+	 */
+	private static void add(List<WeblogicClusterMember> members, Set<String> names, WeblogicClusterMember member) {
+		if(StringUtils.isNotBlank(member.getName()) && names.add(member.getName().trim().toLowerCase(Locale.ENGLISH))){
+			members.add(member);
+		}
+	}
+}
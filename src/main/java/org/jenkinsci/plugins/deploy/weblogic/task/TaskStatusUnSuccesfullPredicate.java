@@ -18,7 +18,8 @@ public class TaskStatusUnSuccesfullPredicate implements Predicate {
 	 */
 	public boolean evaluate(Object arg0) {
 		DeploymentTaskResult elt = (DeploymentTaskResult)  arg0;
-		return ! WebLogicDeploymentStatus.SUCCEEDED.equals(elt.getStatus());
+		// un deploiement ignore car inchange est un succes
+		return ! WebLogicDeploymentStatus.SUCCEEDED.equals(elt.getStatus()) && ! WebLogicDeploymentStatus.UNCHANGED.equals(elt.getStatus());
 	}
 
 }
@@ -8,6 +8,7 @@ import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.plugins.deploy.weblogic.properties.WebLogicDeploymentPluginConstantes;
 
 import hudson.FilePath;
+import hudson.FilePath.FileCallable;
 import hudson.model.AbstractBuild;
 import hudson.model.BuildListener;
 import hudson.model.Run.RunnerAbortedException;
@@ -15,6 +16,9 @@ import hudson.remoting.VirtualChannel;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author rchaumie
@@ -56,21 +60,21 @@ public class DeployerClassPathUtils {
 	}
 	
 	private static String formatAndCheckClasspathForNode(final String classpath, AbstractBuild<?, ?> build,  BuildListener listener){
-		StringBuilder fromWorkspaceClassPath = new StringBuilder();
 		try {
-			VirtualChannel channel = build.getWorkspace().getChannel();
+			// librairies copiees dans le cache du noeud (voir DeployerToolchainCache)
+			FilePath toolchainRoot = DeployerToolchainCache.getRoot(build.getBuiltOn());
+			List<String> entries = new ArrayList<String>();
 			for(String path : classpath.split(File.pathSeparator)){
-				FilePath srcFile = new FilePath(new File(path));
-		    	FilePath fp = new FilePath(channel, build.getWorkspace() + "/"+srcFile.getName());
-		    	String remotePath = fp.getRemote();
-		    	if(! fp.exists()){
-					listener.error("[WeblogicDeploymentPlugin] - The following library '"+remotePath+"' declared on classpath is missing on node '"+build.getBuiltOnStr()+"'.");
-					throw new RunnerAbortedException();
-				}
-		    	
-		    	// TODO il y a toujours un dernier separator
-		    	fromWorkspaceClassPath.append(remotePath).append(isUnix(channel, remotePath) ? ":" : ";");
+				entries.add(DeployerToolchainCache.getEntryName(new File(path)));
 			}
+			
+			// un seul appel distant pour l'ensemble du classpath
+			RemoteClasspath remoteClasspath = toolchainRoot.act(new RemoteClasspathCallable(entries));
+			if(! remoteClasspath.getMissingEntries().isEmpty()){
+				listener.error("[WeblogicDeploymentPlugin] - The following libraries "+remoteClasspath.getMissingEntries()+" declared on classpath are missing on node '"+build.getBuiltOnStr()+"'.");
+				throw new RunnerAbortedException();
+			}
+			return remoteClasspath.getClasspath();
 		} catch (IOException e) {
 			listener.error("[WeblogicDeploymentPlugin] - Unable to compute classpath for remote invocation.", e);
 			throw new RunnerAbortedException();
@@ -78,7 +82,6 @@ public class DeployerClassPathUtils {
 			listener.error("[WeblogicDeploymentPlugin] - Unable to compute classpath for remote invocation.", e);
 			throw new RunnerAbortedException();
 		}
-		return fromWorkspaceClassPath.toString();
 	}
 	
 	public static void checkClasspath(final String classpath, AbstractBuild<?, ?> build,  BuildListener listener){
@@ -99,23 +102,76 @@ public class DeployerClassPathUtils {
 		}
 	}
 	
-    /**
-     * Checks if the remote path is Unix. 
-     * Recuperer de la classe FilePath car methode non acessible en dehors du package
-     */
-    private static boolean isUnix(VirtualChannel channel, String remote) {
-        // if the path represents a local path, there' no need to guess.
-        if(channel == null)
-            return File.pathSeparatorChar!=';';
-            
-        // note that we can't use the usual File.pathSeparator and etc., as the OS of
-        // the machine where this code runs and the OS that this FilePath refers to may be different.
+	/**
+	 * Classpath computed on a node.
+	 */
+	public static final class RemoteClasspath implements Serializable {
+		
+		private static final long serialVersionUID = -4930512465208934513L;
 
-        // Windows absolute path is 'X:\...', so this is usually a good indication of Windows path
-        if(remote.length()>3 && remote.charAt(1)==':' && remote.charAt(2)=='\\')
-            return false;
-        // Windows can handle '/' as a path separator but Unix can't,
-        // so err on Unix side
-        return remote.indexOf("\\")==-1;
-    }
+		private final String classpath;
+		
+		private final List<String> missingEntries;
+		
+		private final String separator;
+		
+		public RemoteClasspath(String classpath, List<String> missingEntries, String separator) {
+			this.classpath = classpath;
+			this.missingEntries = missingEntries;
+			this.separator = separator;
+		}
+		
+		/**
+		 * @return the libraries found separated by the path separator of the node
+		 */
+		public String getClasspath() {
+			return classpath;
+		}
+		
+		/**
+		 * @return the libraries missing on the node
+		 */
+		public List<String> getMissingEntries() {
+			return missingEntries;
+		}
+		
+		/**
+		 * @return the path separator of the node
+		 */
+		public String getSeparator() {
+			return separator;
+		}
+	}
+	
+	/**
+	 * Resolves the libraries (relative to the directory) on the node : paths, missing libraries and path separator.
+	 * The date of the libraries found is updated : the cache doesn't evict the libraries of a command being prepared
+	 * (see {@link DeployerToolchainCache#MIN_IDLE_TIME_BEFORE_EVICTION}).
+	 */
+	private static final class RemoteClasspathCallable implements FileCallable<RemoteClasspath> {
+		
+		private static final long serialVersionUID = 7157096530946180723L;
+		
+		private final List<String> entries;
+		
+		private RemoteClasspathCallable(List<String> entries) {
+			this.entries = entries;
+		}
+		
+		public RemoteClasspath invoke(File directory, VirtualChannel channel) throws IOException, InterruptedException {
+			List<String> paths = new ArrayList<String>();
+			List<String> missingEntries = new ArrayList<String>();
+			long now = System.currentTimeMillis();
+			for(String entry : entries){
+				File library = new File(directory, entry);
+				if(library.isFile()){
+					library.setLastModified(now);
+					paths.add(library.getAbsolutePath());
+				} else {
+					missingEntries.add(library.getAbsolutePath());
+				}
+			}
+			return new RemoteClasspath(StringUtils.join(paths, File.pathSeparator), missingEntries, File.pathSeparator);
+		}
+	}
 }
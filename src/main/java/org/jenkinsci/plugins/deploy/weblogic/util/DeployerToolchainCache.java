@@ -0,0 +1,315 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.util;
+
+import hudson.FilePath;
+import hudson.FilePath.FileCallable;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.RandomStringUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Deployer libraries (extra classpath of the master) shared by all the jobs of a node.
+ * <p>
+ * The libraries are stored in <code>&lt;node root&gt;/weblogic-deployer-toolchain/&lt;sha256&gt;/&lt;name&gt;</code> :
+ * a library is transferred once per node and content, whatever the workspace. A library is copied into a temporary
+ * directory, then installed under lock by an atomic rename once its digest checked. The entries not used recently
+ * are evicted beyond {@link #MAX_ENTRIES}.
+ *
+ * @author rchaumie
+ *
+ */
+public class DeployerToolchainCache {
+
+	public static final String CACHE_DIRECTORY_NAME = "weblogic-deployer-toolchain";
+
+	/**
+	 * Nombre d'entrees (librairie, contenu) conservees par noeud
+	 */
+	public static final int MAX_ENTRIES = 16;
+
+	/**
+	 * Une entree utilisee recemment n'est jamais supprimee (elle peut etre dans le classpath d'une commande en cours).
+	 * La date d'une entree est mise a jour a chaque installation et a chaque classpath construit a partir d'elle.
+	 */
+	public static final long MIN_IDLE_TIME_BEFORE_EVICTION = 60 * 60 * 1000L;
+
+	private static final String LOCK_FILE_NAME = ".lock";
+
+	private static final String TMP_DIRECTORY_PREFIX = ".tmp-";
+
+	/**
+	 * Verrou des threads de la JVM du noeud (le verrou fichier protege des autres processus)
+	 */
+	private static final Object LOCK = new Object();
+
+	/**
+	 * Empreintes des librairies du maitre (cle : chemin, taille et date)
+	 */
+	private static final Map<String, String> LOCAL_DIGESTS = new HashMap<String, String>();
+
+	/**
+	 *
+	 * @param node
+	 * @return the cache directory of the node
+	 * @throws IOException if the node is offline
+	 */
+	public static FilePath getRoot(Node node) throws IOException {
+		FilePath rootPath = node == null ? null : node.getRootPath();
+		if(rootPath == null){
+			throw new IOException("The node " + (node == null ? "" : node.getNodeName()) + " is offline.");
+		}
+		return rootPath.child(CACHE_DIRECTORY_NAME);
+	}
+
+	/**
+	 * Installs the missing libraries in the cache of the node. A single remote call is made if all the libraries are installed.
+	 *
+	 * @param classpath the libraries of the master (separated by {@link File#pathSeparator})
+	 * @param root the cache directory of the node
+	 * @param listener
+	 * @return the number of libraries transferred
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static int install(String classpath, FilePath root, TaskListener listener) throws IOException, InterruptedException {
+		List<File> libraries = new ArrayList<File>();
+		List<String> entries = new ArrayList<String>();
+		for(String path : StringUtils.split(StringUtils.defaultString(classpath), File.pathSeparator)){
+			File library = new File(path);
+			if(! library.isFile()){
+				listener.getLogger().println("[WeblogicDeploymentPlugin] - library "+path+" not found on master. It is not copied.");
+				continue;
+			}
+			libraries.add(library);
+			entries.add(getEntryName(library));
+		}
+		if(entries.isEmpty()){
+			return 0;
+		}
+
+		List<String> missingEntries = root.act(new LookupCallable(entries));
+		for(int i = 0; i < libraries.size(); i++){
+			String entry = entries.get(i);
+			if(! missingEntries.contains(entry)){
+				continue;
+			}
+			File library = libraries.get(i);
+			listener.getLogger().println("[WeblogicDeploymentPlugin] - copying file "+library.getName()+" to "+root+" ...");
+			String tmpDirectoryName = TMP_DIRECTORY_PREFIX + RandomStringUtils.randomAlphanumeric(8);
+			FilePath tmpDirectory = root.child(tmpDirectoryName);
+			try {
+				tmpDirectory.child(library.getName()).copyFrom(new FilePath(library));
+				root.act(new InstallCallable(entry, tmpDirectoryName));
+			} finally {
+				tmpDirectory.deleteRecursive();
+			}
+		}
+		listener.getLogger().println("[WeblogicDeploymentPlugin] - "+(libraries.size() - missingEntries.size())+" libraries already in "+root+", "+missingEntries.size()+" copied.");
+		return missingEntries.size();
+	}
+
+	/**
+	 *
+	 * @param library a library of the master
+	 * @param root the cache directory of the node
+	 * @return the library in the cache of the node
+	 * @throws IOException
+	 */
+	public static FilePath getEntry(File library, FilePath root) throws IOException {
+		return root.child(getEntryName(library));
+	}
+
+	/**
+	 *
+	 * @param library
+	 * @return the path of the library relative to the cache : sha256/name
+	 * @throws IOException
+	 */
+	static String getEntryName(File library) throws IOException {
+		return getDigest(library) + "/" + library.getName();
+	}
+
+	/**
+	 *
+	 * @param library
+	 * @return the SHA-256 of the library (computed again only if its size or date changed)
+	 * @throws IOException
+	 */
+	private static String getDigest(File library) throws IOException {
+		String key = library.getAbsolutePath() + "|" + library.length() + "|" + library.lastModified();
+		synchronized (LOCAL_DIGESTS) {
+			String digest = LOCAL_DIGESTS.get(key);
+			if(digest == null){
+				digest = FileDigestUtils.sha256(library);
+				LOCAL_DIGESTS.put(key, digest);
+			}
+			return digest;
+		}
+	}
+
+	/**
+	 * Execution sous verrou (threads de la JVM et processus partageant le repertoire)
+	 *
+	 * @param root
+	 * @param action
+	 * @return
+	 * @throws IOException
+	 */
+	private static <T> T withLock(File root, LockedAction<T> action) throws IOException {
+		synchronized (LOCK) {
+			root.mkdirs();
+			RandomAccessFile lockFile = new RandomAccessFile(new File(root, LOCK_FILE_NAME), "rw");
+			try {
+				FileLock lock = lockFile.getChannel().lock();
+				try {
+					return action.run();
+				} finally {
+					lock.release();
+				}
+			} finally {
+				lockFile.close();
+			}
+		}
+	}
+
+	/**
+	 * Removes the entries least recently used beyond {@link #MAX_ENTRIES}.
+	 *
+	 * @param root
+	 */
+	private static void evict(File root) {
+		File[] digestDirectories = root.listFiles(new FileFilter() {
+			public boolean accept(File file) {
+				return file.isDirectory() && ! file.getName().startsWith(".");
+			}
+		});
+		List<File> entries = new ArrayList<File>();
+		for(File digestDirectory : digestDirectories == null ? new File[0] : digestDirectories){
+			File[] libraries = digestDirectory.listFiles();
+			if(libraries == null || libraries.length == 0){
+				FileUtils.deleteQuietly(digestDirectory);
+				continue;
+			}
+			entries.addAll(Arrays.asList(libraries));
+		}
+		if(entries.size() <= MAX_ENTRIES){
+			return;
+		}
+
+		// du plus recemment utilise au plus ancien
+		File[] sorted = entries.toArray(new File[entries.size()]);
+		Arrays.sort(sorted, new Comparator<File>() {
+			public int compare(File f1, File f2) {
+				long l1 = f1.lastModified();
+				long l2 = f2.lastModified();
+				return l1 > l2 ? -1 : (l1 == l2 ? 0 : 1);
+			}
+		});
+		long evictionTime = System.currentTimeMillis() - MIN_IDLE_TIME_BEFORE_EVICTION;
+		for(int i = MAX_ENTRIES; i < sorted.length; i++){
+			if(sorted[i].lastModified() < evictionTime){
+				FileUtils.deleteQuietly(sorted[i]);
+				File digestDirectory = sorted[i].getParentFile();
+				String[] remaining = digestDirectory.list();
+				if(remaining == null || remaining.length == 0){
+					FileUtils.deleteQuietly(digestDirectory);
+				}
+			}
+		}
+	}
+
+	/**
+	 *
+	 */
+	private interface LockedAction<T> {
+
+		T run() throws IOException;
+	}
+
+	/**
+	 * Returns the entries missing in the cache. The date of the entries found is updated (LRU).
+	 */
+	private static final class LookupCallable implements FileCallable<List<String>> {
+
+		private static final long serialVersionUID = -2146874420287398061L;
+
+		private final List<String> entries;
+
+		private LookupCallable(List<String> entries) {
+			this.entries = entries;
+		}
+
+		public List<String> invoke(File root, VirtualChannel channel) throws IOException, InterruptedException {
+			List<String> missingEntries = new ArrayList<String>();
+			long now = System.currentTimeMillis();
+			for(String entry : entries){
+				File library = new File(root, entry);
+				if(library.isFile()){
+					library.setLastModified(now);
+				} else {
+					missingEntries.add(entry);
+				}
+			}
+			return missingEntries;
+		}
+	}
+
+	/**
+	 * Installs a library copied into a temporary directory (same file system) : digest checked, then atomic rename under lock.
+	 */
+	private static final class InstallCallable implements FileCallable<Void> {
+
+		private static final long serialVersionUID = 5209731526095743184L;
+
+		private final String entry;
+
+		private final String tmpDirectoryName;
+
+		private InstallCallable(String entry, String tmpDirectoryName) {
+			this.entry = entry;
+			this.tmpDirectoryName = tmpDirectoryName;
+		}
+
+		public Void invoke(final File root, VirtualChannel channel) throws IOException, InterruptedException {
+			String digest = StringUtils.substringBefore(entry, "/");
+			final File tmpLibrary = new File(new File(root, tmpDirectoryName), StringUtils.substringAfter(entry, "/"));
+			if(! digest.equals(FileDigestUtils.sha256(tmpLibrary))){
+				throw new IOException("The library " + tmpLibrary + " copied is corrupted.");
+			}
+
+			return withLock(root, new LockedAction<Void>() {
+				public Void run() throws IOException {
+					File library = new File(root, entry);
+					// sauf si installee entre temps par un autre build
+					if(! library.isFile()){
+						library.getParentFile().mkdirs();
+						if(! tmpLibrary.renameTo(library)){
+							throw new IOException("Unable to rename " + tmpLibrary + " to " + library);
+						}
+					}
+					library.setLastModified(System.currentTimeMillis());
+					evict(root);
+					return null;
+				}
+			});
+		}
+	}
+}
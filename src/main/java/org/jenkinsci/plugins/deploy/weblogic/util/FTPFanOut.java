@@ -0,0 +1,354 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.util;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.net.ftp.FTPClient;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertConfiguration;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertResult;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertStatistics;
+import org.jenkinsci.plugins.deploy.weblogic.exception.TransfertFileException;
+
+/**
+ * Transfers one local file to several FTP hosts at once.
+ * <p>
+ * The destinations are processed by waves of at most <code>maxConcurrentTransfers</code> hosts : during a wave,
+ * the file is read once and each block read is handed to every upload of the wave (bounded queues, the slowest
+ * host sets the pace). A host whose streamed upload fails is retried alone with the resumable transfer of {@link FTPUtils}.
+ * <p>
+ * Each upload is claimed in the {@link FTPSessionPool} before being streamed : a destination being uploaded
+ * by another task of the build is waited for (without holding any claim) and skipped once transfered.
+ *
+ * @author rchaumie
+ *
+ */
+public class FTPFanOut {
+
+	public static final int DEFAULT_MAX_CONCURRENT_TRANSFERS = 4;
+
+	/**
+	 * Nombre de blocs en attente par destination
+	 */
+	private static final int QUEUE_CAPACITY = 16;
+
+	private static final long OFFER_TIMEOUT = 1;
+
+	private final FTPSessionPool sessionPool;
+
+	private final int maxConcurrentTransfers;
+
+	/**
+	 *
+	 * @param sessionPool
+	 * @param maxConcurrentTransfers (the default value is used if lower than 1)
+	 */
+	public FTPFanOut(FTPSessionPool sessionPool, int maxConcurrentTransfers) {
+		this.sessionPool = sessionPool;
+		this.maxConcurrentTransfers = maxConcurrentTransfers > 0 ? maxConcurrentTransfers : DEFAULT_MAX_CONCURRENT_TRANSFERS;
+	}
+
+	/**
+	 *
+	 * @param transfertConfigurations one configuration per host, all sharing the same local file
+	 * @param log
+	 * @return the result for each host, in the order of the configurations
+	 * @throws InterruptedException
+	 */
+	public List<TransfertResult> transfert(List<TransfertConfiguration> transfertConfigurations, PrintStream log) throws InterruptedException {
+		TransfertResult[] results = new TransfertResult[transfertConfigurations.size()];
+
+		List<Integer> remaining = new ArrayList<Integer>();
+		for(int i = 0; i < transfertConfigurations.size(); i++){
+			remaining.add(i);
+		}
+		while(! remaining.isEmpty()){
+			// Destinations reservees (deja transferees pendant le build exclues, en cours par une autre tache differees)
+			List<Integer> claimed = new ArrayList<Integer>();
+			List<Integer> busy = new ArrayList<Integer>();
+			for(Integer index : remaining){
+				TransfertConfiguration transfertConfiguration = transfertConfigurations.get(index);
+				if(sessionPool.tryClaim(transfertConfiguration)){
+					claimed.add(index);
+					continue;
+				}
+				TransfertStatistics statistics = sessionPool.getUploaded(transfertConfiguration, log);
+				if(statistics != null){
+					results[index] = new TransfertResult(transfertConfiguration.getHost(), statistics, null);
+				} else {
+					busy.add(index);
+				}
+			}
+
+			transfertClaimed(transfertConfigurations, claimed, results, log);
+
+			if(! busy.isEmpty()){
+				sessionPool.awaitUpload(transfertConfigurations.get(busy.get(0)));
+			}
+			remaining = busy;
+		}
+
+		for(TransfertResult result : results){
+			log.println("[WeblogicDeploymentPlugin] - " + result);
+		}
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Uploads the destinations claimed by waves. Each claim is ended (with the result of the upload) once its wave done.
+	 *
+	 * @param transfertConfigurations
+	 * @param claimed the indexes of the destinations claimed
+	 * @param results
+	 * @param log
+	 * @throws InterruptedException
+	 */
+	private void transfertClaimed(List<TransfertConfiguration> transfertConfigurations, List<Integer> claimed, TransfertResult[] results,
+			PrintStream log) throws InterruptedException {
+		int start = 0;
+		try {
+			for(; start < claimed.size(); start += maxConcurrentTransfers){
+				List<Integer> wave = claimed.subList(start, Math.min(start + maxConcurrentTransfers, claimed.size()));
+				List<TransfertConfiguration> waveConfigurations = new ArrayList<TransfertConfiguration>();
+				for(Integer index : wave){
+					waveConfigurations.add(transfertConfigurations.get(index));
+				}
+				List<TransfertResult> waveResults = transfertWave(waveConfigurations, log);
+				for(int i = 0; i < wave.size(); i++){
+					results[wave.get(i)] = waveResults.get(i);
+					sessionPool.endUpload(transfertConfigurations.get(wave.get(i)), waveResults.get(i).getStatistics());
+				}
+			}
+		} finally {
+			// reservations non terminees (interruption) : liberees sans resultat
+			for(int i = start; i < claimed.size(); i++){
+				TransfertResult result = results[claimed.get(i)];
+				if(result == null){
+					sessionPool.endUpload(transfertConfigurations.get(claimed.get(i)), null);
+				}
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param transfertConfigurations
+	 * @param log
+	 * @return
+	 * @throws InterruptedException
+	 */
+	private List<TransfertResult> transfertWave(List<TransfertConfiguration> transfertConfigurations, PrintStream log) throws InterruptedException {
+		File localFile = new File(transfertConfigurations.get(0).getLocalFilePath());
+
+		ExecutorService executor = Executors.newFixedThreadPool(transfertConfigurations.size(),
+				new NamingThreadFactory(new DaemonThreadFactory(), "WeblogicDeploymentPlugin FTP fan-out"));
+		List<Destination> destinations = new ArrayList<Destination>();
+		try {
+			for(TransfertConfiguration transfertConfiguration : transfertConfigurations){
+				Destination destination = new Destination(transfertConfiguration);
+				destination.future = executor.submit(new Upload(destination));
+				destinations.add(destination);
+			}
+
+			// Lecture unique du fichier local
+			InputStream in = null;
+			try {
+				in = new BufferedInputStream(new FileInputStream(localFile), transfertConfigurations.get(0).getBufferSize());
+				byte[] buffer = new byte[transfertConfigurations.get(0).getBufferSize()];
+				int read;
+				while((read = in.read(buffer)) > 0 && publish(destinations, Arrays.copyOf(buffer, read))){
+					// bloc transmis a chaque destination
+				}
+			} catch (IOException ioe) {
+				log.println("[WeblogicDeploymentPlugin] - Unable to read " + localFile.getName() + " : " + ioe.getMessage());
+				for(Destination destination : destinations){
+					destination.future.cancel(true);
+				}
+			} finally {
+				IOUtils.closeQuietly(in);
+			}
+			publish(destinations, ChunkInputStream.EOF);
+
+			List<TransfertResult> results = new ArrayList<TransfertResult>();
+			for(Destination destination : destinations){
+				results.add(getResult(destination, log));
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Hands a block to the uploads still running.
+	 *
+	 * @param destinations
+	 * @param chunk
+	 * @return false if no upload is running anymore
+	 * @throws InterruptedException
+	 */
+	private boolean publish(List<Destination> destinations, byte[] chunk) throws InterruptedException {
+		boolean running = false;
+		for(Destination destination : destinations){
+			while(! destination.future.isDone()){
+				if(destination.stream.chunks.offer(chunk, OFFER_TIMEOUT, TimeUnit.SECONDS)){
+					running = true;
+					break;
+				}
+			}
+		}
+		return running;
+	}
+
+	/**
+	 *
+	 * @param destination
+	 * @param log
+	 * @return
+	 * @throws InterruptedException
+	 */
+	private TransfertResult getResult(Destination destination, PrintStream log) throws InterruptedException {
+		TransfertConfiguration transfertConfiguration = destination.transfertConfiguration;
+		TransfertStatistics statistics;
+		try {
+			statistics = destination.future.get();
+			return new TransfertResult(transfertConfiguration.getHost(), statistics, null);
+		} catch (ExecutionException ee) {
+			log.println("[WeblogicDeploymentPlugin] - Streamed upload to " + transfertConfiguration.getHost() + " failed (" + ee.getCause().getMessage() + "). Retrying alone ...");
+		} catch (CancellationException ce) {
+			log.println("[WeblogicDeploymentPlugin] - Streamed upload to " + transfertConfiguration.getHost() + " cancelled. Retrying alone ...");
+		}
+
+		// Reprise individuelle (relecture du fichier pour cet hote uniquement)
+		try {
+			statistics = FTPUtils.transfertFile(sessionPool, transfertConfiguration, log);
+			return new TransfertResult(transfertConfiguration.getHost(), statistics, null);
+		} catch (TransfertFileException tfe) {
+			String cause = tfe.getCause() != null ? tfe.getMessage() + " : " + tfe.getCause().getMessage() : tfe.getMessage();
+			return new TransfertResult(transfertConfiguration.getHost(), null, cause);
+		}
+	}
+
+	/**
+	 *
+	 */
+	private static final class Destination {
+
+		private final TransfertConfiguration transfertConfiguration;
+
+		private final ChunkInputStream stream = new ChunkInputStream();
+
+		private Future<TransfertStatistics> future;
+
+		Destination(TransfertConfiguration transfertConfiguration) {
+			this.transfertConfiguration = transfertConfiguration;
+		}
+	}
+
+	/**
+	 * Upload d'une destination a partir des blocs recus
+	 */
+	private final class Upload implements Callable<TransfertStatistics> {
+
+		private final Destination destination;
+
+		Upload(Destination destination) {
+			this.destination = destination;
+		}
+
+		public TransfertStatistics call() throws IOException {
+			TransfertConfiguration transfertConfiguration = destination.transfertConfiguration;
+			long start = System.currentTimeMillis();
+			FTPClient ftpClient = sessionPool.borrow(transfertConfiguration);
+			boolean succeeded = false;
+			try {
+				if(! ftpClient.storeFile(transfertConfiguration.getRemoteFilePath(), destination.stream)){
+					throw new TransfertFileException("Unable to transfert file " + transfertConfiguration.getLocalFilePath() + " on " + transfertConfiguration.getHost()
+							+ " : " + StringUtils.trim(ftpClient.getReplyString()));
+				}
+				if(! destination.stream.eof){
+					throw new TransfertFileException("The transfer to " + transfertConfiguration.getHost() + " ended before the end of the file.");
+				}
+				sessionPool.giveBack(transfertConfiguration, ftpClient);
+				succeeded = true;
+				return new TransfertStatistics(destination.stream.count, 0, System.currentTimeMillis() - start, 1);
+			} finally {
+				if(! succeeded){
+					FTPUtils.disconnect(ftpClient);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Flux alimente par le lecteur unique du fichier local
+	 */
+	private static final class ChunkInputStream extends InputStream {
+
+		private static final byte[] EOF = new byte[0];
+
+		private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<byte[]>(QUEUE_CAPACITY);
+
+		private byte[] current;
+
+		private int position;
+
+		private volatile boolean eof;
+
+		private long count;
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if(eof){
+				return -1;
+			}
+			if(current == null || position >= current.length){
+				try {
+					current = chunks.take();
+				} catch (InterruptedException ie) {
+					throw (InterruptedIOException) new InterruptedIOException("The transfer has been interrupted.").initCause(ie);
+				}
+				position = 0;
+				if(current == EOF){
+					eof = true;
+					return -1;
+				}
+			}
+			int n = Math.min(len, current.length - position);
+			System.arraycopy(current, position, b, off, n);
+			position += n;
+			count += n;
+			return n;
+		}
+	}
+}
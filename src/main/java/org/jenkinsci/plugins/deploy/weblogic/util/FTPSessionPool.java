@@ -0,0 +1,382 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.util;
+
+import hudson.remoting.Callable;
+import hudson.remoting.VirtualChannel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.net.ftp.FTPClient;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertConfiguration;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertStatistics;
+
+/**
+ * Logged-in FTP sessions kept open for the duration of a scope (a build), keyed by host and user.
+ * <p>
+ * A session is lent to one transfer at a time and given back once the transfer succeeded, so the library
+ * tasks of a build (even run in parallel) pay the connection and login handshakes once per host and user.
+ * The uploads of the same remote file to the same host are done once per scope : an upload is claimed before
+ * the file is streamed, a second task uploading the same file waits for the result of the first one.
+ * <p>
+ * The pools live in the JVM which reads the files (master or node) and are closed by {@link #release(String)}.
+ *
+ * @author rchaumie
+ *
+ */
+public class FTPSessionPool {
+
+	private static final ConcurrentMap<String, FTPSessionPool> SCOPES = new ConcurrentHashMap<String, FTPSessionPool>();
+
+	/**
+	 * Sessions inactives par cle host|user
+	 */
+	private final Map<String, LinkedList<FTPClient>> idleSessions = new HashMap<String, LinkedList<FTPClient>>();
+
+	/**
+	 * Fichiers deja transferes par cle host|remoteFilePath
+	 */
+	private final ConcurrentMap<String, Upload> uploads = new ConcurrentHashMap<String, Upload>();
+
+	private final AtomicInteger opened = new AtomicInteger();
+
+	private final AtomicInteger reused = new AtomicInteger();
+
+	private final AtomicInteger skippedUploads = new AtomicInteger();
+
+	/**
+	 *
+	 * @param scope
+	 * @return the pool of the scope (created if needed)
+	 */
+	public static FTPSessionPool forScope(String scope) {
+		FTPSessionPool pool = SCOPES.get(scope);
+		if(pool == null){
+			FTPSessionPool newPool = new FTPSessionPool();
+			pool = SCOPES.putIfAbsent(scope, newPool);
+			if(pool == null){
+				pool = newPool;
+			}
+		}
+		return pool;
+	}
+
+	/**
+	 * Closes the sessions of the scope.
+	 *
+	 * @param scope
+	 * @return a summary of the use of the pool, null if no pool has been used in this JVM
+	 */
+	public static String release(String scope) {
+		FTPSessionPool pool = SCOPES.remove(scope);
+		if(pool == null){
+			return null;
+		}
+		pool.close();
+		return pool.toString();
+	}
+
+	/**
+	 * Closes the sessions of the scope in the JVM of the channel.
+	 *
+	 * @param channel
+	 * @param scope
+	 * @return a summary of the use of the pool, null if no pool has been used in this JVM
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static String release(VirtualChannel channel, String scope) throws IOException, InterruptedException {
+		return channel.call(new ReleaseCallable(scope));
+	}
+
+	/**
+	 * Transfers the file unless the same file has already been transfered to the same remote path of the host in this scope.
+	 *
+	 * @param transfertConfiguration
+	 * @param log
+	 * @return the measures of the transfer (the ones of the first transfer if skipped)
+	 * @throws InterruptedException
+	 */
+	public TransfertStatistics transfertOnce(TransfertConfiguration transfertConfiguration, PrintStream log) throws InterruptedException {
+		while(! tryClaim(transfertConfiguration)){
+			TransfertStatistics statistics = getUploaded(transfertConfiguration, log);
+			if(statistics != null){
+				return statistics;
+			}
+			awaitUpload(transfertConfiguration);
+		}
+
+		TransfertStatistics statistics = null;
+		try {
+			statistics = FTPUtils.transfertFile(this, transfertConfiguration, log);
+			return statistics;
+		} finally {
+			endUpload(transfertConfiguration, statistics);
+		}
+	}
+
+	/**
+	 * Claims the upload of the file to the remote path of the host. The caller has to transfer the file
+	 * then to call {@link #endUpload(TransfertConfiguration, TransfertStatistics)}.
+	 *
+	 * @param transfertConfiguration
+	 * @return false if the file has already been transfered or is being transfered
+	 */
+	boolean tryClaim(TransfertConfiguration transfertConfiguration) {
+		Upload upload = getUpload(transfertConfiguration);
+		synchronized (upload) {
+			if(upload.inProgress || (upload.statistics != null && getSignature(transfertConfiguration).equals(upload.signature))){
+				return false;
+			}
+			upload.inProgress = true;
+			return true;
+		}
+	}
+
+	/**
+	 * Waits for the end of the upload being done to the remote path of the host (if any).
+	 * The caller must not hold any claim, otherwise two tasks could wait for each other.
+	 *
+	 * @param transfertConfiguration
+	 * @throws InterruptedException
+	 */
+	void awaitUpload(TransfertConfiguration transfertConfiguration) throws InterruptedException {
+		Upload upload = getUpload(transfertConfiguration);
+		synchronized (upload) {
+			while(upload.inProgress){
+				upload.wait();
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param transfertConfiguration
+	 * @param log
+	 * @return the measures of the transfer of the same file to the same remote path of the host in this scope, null if not transfered yet
+	 */
+	TransfertStatistics getUploaded(TransfertConfiguration transfertConfiguration, PrintStream log) {
+		Upload upload = getUpload(transfertConfiguration);
+		synchronized (upload) {
+			if(upload.statistics == null || ! getSignature(transfertConfiguration).equals(upload.signature)){
+				return null;
+			}
+			skippedUploads.incrementAndGet();
+			log.println("[WeblogicDeploymentPlugin] - " + transfertConfiguration.getRemoteFilePath() + " has already been transfered to " + transfertConfiguration.getHost() + " during this build. Upload skipped.");
+			return upload.statistics;
+		}
+	}
+
+	/**
+	 * Ends the upload claimed and wakes up the tasks waiting for it.
+	 *
+	 * @param transfertConfiguration
+	 * @param statistics the measures of the successful transfer, null if it failed
+	 */
+	void endUpload(TransfertConfiguration transfertConfiguration, TransfertStatistics statistics) {
+		Upload upload = getUpload(transfertConfiguration);
+		synchronized (upload) {
+			if(statistics != null){
+				upload.signature = getSignature(transfertConfiguration);
+				upload.statistics = statistics;
+			}
+			upload.inProgress = false;
+			upload.notifyAll();
+		}
+	}
+
+	/**
+	 * Lends an idle session still alive or opens a new one.
+	 *
+	 * @param transfertConfiguration
+	 * @return a logged-in session
+	 * @throws IOException
+	 */
+	FTPClient borrow(TransfertConfiguration transfertConfiguration) throws IOException {
+		String key = getSessionKey(transfertConfiguration);
+		FTPClient ftpClient;
+		while((ftpClient = pollIdle(key)) != null){
+			if(isAlive(ftpClient)){
+				reused.incrementAndGet();
+				FTPUtils.configure(ftpClient, transfertConfiguration);
+				return ftpClient;
+			}
+			FTPUtils.disconnect(ftpClient);
+		}
+
+		ftpClient = new FTPClient();
+		try {
+			FTPUtils.connect(ftpClient, transfertConfiguration);
+		} catch (IOException ioe) {
+			FTPUtils.disconnect(ftpClient);
+			throw ioe;
+		} catch (RuntimeException re) {
+			FTPUtils.disconnect(ftpClient);
+			throw re;
+		}
+		opened.incrementAndGet();
+		return ftpClient;
+	}
+
+	/**
+	 * Gives back a session after a successful transfer.
+	 *
+	 * @param transfertConfiguration
+	 * @param ftpClient
+	 */
+	synchronized void giveBack(TransfertConfiguration transfertConfiguration, FTPClient ftpClient) {
+		String key = getSessionKey(transfertConfiguration);
+		LinkedList<FTPClient> sessions = idleSessions.get(key);
+		if(sessions == null){
+			sessions = new LinkedList<FTPClient>();
+			idleSessions.put(key, sessions);
+		}
+		sessions.addFirst(ftpClient);
+	}
+
+	/**
+	 * Logs out and closes the idle sessions.
+	 */
+	public void close() {
+		List<FTPClient> sessions = new ArrayList<FTPClient>();
+		synchronized (this) {
+			for(LinkedList<FTPClient> idle : idleSessions.values()){
+				sessions.addAll(idle);
+			}
+			idleSessions.clear();
+		}
+		for(FTPClient ftpClient : sessions){
+			try {
+				ftpClient.logout();
+			} catch (IOException ioe) {
+				// do nothing
+			}
+			FTPUtils.disconnect(ftpClient);
+		}
+	}
+
+	/**
+	 * @return the number of sessions opened
+	 */
+	public int getOpened() {
+		return opened.get();
+	}
+
+	/**
+	 * @return the number of transfers done on an already opened session
+	 */
+	public int getReused() {
+		return reused.get();
+	}
+
+	/**
+	 * @return the number of uploads skipped
+	 */
+	public int getSkippedUploads() {
+		return skippedUploads.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "FTP sessions : " + opened.get() + " opened, " + reused.get() + " reused, " + skippedUploads.get() + " duplicate upload(s) skipped.";
+	}
+
+	/**
+	 *
+	 * @param key
+	 * @return
+	 */
+	private synchronized FTPClient pollIdle(String key) {
+		LinkedList<FTPClient> sessions = idleSessions.get(key);
+		return sessions == null ? null : sessions.poll();
+	}
+
+	/**
+	 *
+	 * @param ftpClient
+	 * @return
+	 */
+	private boolean isAlive(FTPClient ftpClient) {
+		try {
+			return ftpClient.isConnected() && ftpClient.sendNoOp();
+		} catch (IOException ioe) {
+			return false;
+		}
+	}
+
+	/**
+	 *
+	 * @param transfertConfiguration
+	 * @return
+	 */
+	private Upload getUpload(TransfertConfiguration transfertConfiguration) {
+		String key = transfertConfiguration.getHost() + "|" + transfertConfiguration.getRemoteFilePath();
+		Upload upload = new Upload();
+		Upload existing = uploads.putIfAbsent(key, upload);
+		return existing != null ? existing : upload;
+	}
+
+	/**
+	 *
+	 * @param transfertConfiguration
+	 * @return
+	 */
+	private String getSignature(TransfertConfiguration transfertConfiguration) {
+		File localFile = new File(transfertConfiguration.getLocalFilePath());
+		return localFile.getAbsolutePath() + "|" + localFile.length() + "|" + localFile.lastModified();
+	}
+
+	/**
+	 *
+	 * @param transfertConfiguration
+	 * @return
+	 */
+	private String getSessionKey(TransfertConfiguration transfertConfiguration) {
+		return transfertConfiguration.getHost() + "|" + transfertConfiguration.getUser();
+	}
+
+	/**
+	 *
+	 */
+	private static final class Upload {
+
+		private boolean inProgress;
+
+		private String signature;
+
+		private TransfertStatistics statistics;
+	}
+
+	/**
+	 *
+	 */
+	private static final class ReleaseCallable implements Callable<String, IOException> {
+
+		private static final long serialVersionUID = -3325849716024531587L;
+
+		private final String scope;
+
+		ReleaseCallable(String scope) {
+			this.scope = scope;
+		}
+
+		public String call() throws IOException {
+			return release(scope);
+		}
+	}
+}
@@ -1,17 +1,34 @@
 /**
- * 
+ *
  */
 package org.jenkinsci.plugins.deploy.weblogic.util;
 
+import hudson.FilePath;
+import hudson.FilePath.FileCallable;
+import hudson.model.AbstractBuild;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
 import org.apache.commons.net.ftp.FTPReply;
 import org.jenkinsci.plugins.deploy.weblogic.data.TransfertConfiguration;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertResult;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertStatistics;
 import org.jenkinsci.plugins.deploy.weblogic.exception.TransfertFileException;
 
 
@@ -20,55 +37,347 @@ import org.jenkinsci.plugins.deploy.weblogic.exception.TransfertFileException;
  *
  */
 public class FTPUtils {
-	
-	
-	public static final void transfertFile(TransfertConfiguration transfertConfiguration, PrintStream log) throws TransfertFileException {
-		
-		FTPClient ftpClient = new FTPClient();
-    	FileInputStream localFileToTransfert = null;
-    	
+
+	private static final int CONNECT_TIMEOUT = 20000;
+
+	private static final int FTP_REPLY_FILE_STATUS = 213;
+
+	/**
+	 * Transfers a file located on the node which owns it (the file is read only once, where it is).
+	 *
+	 * @param localFile
+	 * @param transfertConfiguration the local file path is replaced by the one of localFile
+	 * @param listener
+	 * @return the measures of the transfer
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static final TransfertStatistics transfertFile(FilePath localFile, TransfertConfiguration transfertConfiguration, TaskListener listener) throws IOException, InterruptedException {
+		return transfertFile(localFile, transfertConfiguration, null, listener);
+	}
+
+	/**
+	 * Transfers a file located on the node which owns it, reusing the FTP sessions of the scope (see {@link FTPSessionPool}).
+	 *
+	 * @param localFile
+	 * @param transfertConfiguration the local file path is replaced by the one of localFile
+	 * @param sessionScope the scope of the FTP sessions (see {@link #getSessionScope(AbstractBuild)}), null to use a new session
+	 * @param listener
+	 * @return the measures of the transfer
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static final TransfertStatistics transfertFile(FilePath localFile, TransfertConfiguration transfertConfiguration, String sessionScope, TaskListener listener) throws IOException, InterruptedException {
+		return localFile.act(new TransfertCallable(transfertConfiguration, sessionScope, listener));
+	}
+
+	/**
+	 * Transfers a file located on the node which owns it to several hosts, reading it once (see {@link FTPFanOut}).
+	 *
+	 * @param localFile
+	 * @param transfertConfigurations one configuration per host (the local file path is replaced by the one of localFile)
+	 * @param maxConcurrentTransfers
+	 * @param sessionScope the scope of the FTP sessions (see {@link #getSessionScope(AbstractBuild)})
+	 * @param listener
+	 * @return the result for each host
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static final List<TransfertResult> transfertFile(FilePath localFile, List<TransfertConfiguration> transfertConfigurations, int maxConcurrentTransfers,
+			String sessionScope, TaskListener listener) throws IOException, InterruptedException {
+		return localFile.act(new FanOutCallable(transfertConfigurations, maxConcurrentTransfers, sessionScope, listener));
+	}
+
+	/**
+	 *
+	 * @param build
+	 * @return the scope of the FTP sessions shared by the tasks of the build
+	 */
+	public static final String getSessionScope(AbstractBuild<?, ?> build) {
+		return build.getParent().getFullName() + "#" + build.getNumber();
+	}
+
+	/**
+	 * Closes the FTP sessions opened during the build (on the master and on the node the build ran on).
+	 *
+	 * @param build
+	 * @param listener
+	 */
+	public static final void releaseSessions(AbstractBuild<?, ?> build, TaskListener listener) {
+		String scope = getSessionScope(build);
+		String summary = FTPSessionPool.release(scope);
+		if(summary != null){
+			listener.getLogger().println("[WeblogicDeploymentPlugin] - " + summary);
+		}
+
+		Node node = build.getBuiltOn();
+		VirtualChannel channel = node != null ? node.getChannel() : null;
+		if(channel == null){
+			return;
+		}
+		try {
+			summary = FTPSessionPool.release(channel, scope);
+			if(summary != null){
+				listener.getLogger().println("[WeblogicDeploymentPlugin] - " + summary);
+			}
+		} catch (IOException ioe) {
+			listener.getLogger().println("[WeblogicDeploymentPlugin] - Unable to close the FTP sessions of the node : " + ioe.getMessage());
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Streams the local file to the FTP server. If the connection breaks, the transfer is resumed
+	 * (REST) from the size already received by the server, up to {@link TransfertConfiguration#getMaxResumeAttempts()} times.
+	 * The remote file is trusted only up to the bytes sent by this transfer : a file left by a previous deployment
+	 * (when the first attempt fails before sending anything) is replaced from the beginning.
+	 *
+	 * @param transfertConfiguration
+	 * @param log
+	 * @return the measures of the transfer
+	 * @throws TransfertFileException
+	 */
+	public static final TransfertStatistics transfertFile(TransfertConfiguration transfertConfiguration, PrintStream log) throws TransfertFileException {
+		FTPSessionPool sessionPool = new FTPSessionPool();
+		try {
+			return transfertFile(sessionPool, transfertConfiguration, log);
+		} finally {
+			sessionPool.close();
+		}
+	}
+
+	/**
+	 *
+	 * @param sessionPool the pool lending the sessions (a session is given back only after a successful transfer)
+	 * @param transfertConfiguration
+	 * @param log
+	 * @return the measures of the transfer
+	 * @throws TransfertFileException
+	 */
+	static TransfertStatistics transfertFile(FTPSessionPool sessionPool, TransfertConfiguration transfertConfiguration, PrintStream log) throws TransfertFileException {
+
+		File localFile = new File(transfertConfiguration.getLocalFilePath());
+		if(! localFile.isFile()){
+			throw new TransfertFileException("The file to transfert " + transfertConfiguration.getLocalFilePath() + " doesn't exist.");
+		}
+		long size = localFile.length();
+		long start = System.currentTimeMillis();
+		long offset = 0;
+		int attempts = 0;
+		// position la plus avancee du fichier envoyee par ce transfert
+		long sentPosition = 0;
+
+		while(true){
+			attempts++;
+			FTPClient ftpClient = null;
+			CountingInputStream localFileToTransfert = null;
+			try {
+				ftpClient = sessionPool.borrow(transfertConfiguration);
+
+				// Reprise a partir de ce que le serveur a deja recu (de ce transfert uniquement)
+				offset = 0;
+				if(attempts > 1 && sentPosition > 0){
+					long received = getRemoteSize(ftpClient, transfertConfiguration.getRemoteFilePath());
+					offset = received > 0 && received <= Math.min(size, sentPosition) ? received : 0;
+					log.println("[WeblogicDeploymentPlugin] - Resuming the transfer of " + localFile.getName() + " at byte " + offset + "/" + size + " ...");
+				}
+
+				localFileToTransfert = new CountingInputStream(new BufferedInputStream(new FileInputStream(localFile), transfertConfiguration.getBufferSize()));
+				skipFully(localFileToTransfert, offset);
+				localFileToTransfert.resetByteCount();
+				if(offset > 0){
+					ftpClient.setRestartOffset(offset);
+				}
+
+				// store local file to remote server
+				if(! ftpClient.storeFile(transfertConfiguration.getRemoteFilePath(), localFileToTransfert)) {
+					throw new TransfertFileException("Unable to transfert file " +transfertConfiguration.getLocalFilePath()+ " on " + transfertConfiguration.getHost()
+							+ " : " + StringUtils.trim(ftpClient.getReplyString()));
+				}
+				sessionPool.giveBack(transfertConfiguration, ftpClient);
+				ftpClient = null;
+				break;
+			} catch (IOException ioe) {
+				// connexion rompue : nouvelle tentative
+				if(attempts > transfertConfiguration.getMaxResumeAttempts()){
+					throw new TransfertFileException("Failed to transfert file completely", ioe);
+				}
+				log.println("[WeblogicDeploymentPlugin] - FTP connection broken (" + ioe.getMessage() + "). Attempt " + attempts + "/" + (transfertConfiguration.getMaxResumeAttempts() + 1) + " failed.");
+			} finally {
+				if(localFileToTransfert != null){
+					sentPosition = Math.max(sentPosition, offset + localFileToTransfert.getByteCount());
+				}
+				IOUtils.closeQuietly(localFileToTransfert);
+				if(ftpClient != null){
+					disconnect(ftpClient);
+				}
+			}
+		}
+
+		TransfertStatistics statistics = new TransfertStatistics(size, offset, System.currentTimeMillis() - start, attempts);
+		log.println("[WeblogicDeploymentPlugin] - " + localFile.getName() + " transfered : " + statistics);
+		return statistics;
+	}
+
+	/**
+	 *
+	 * @param ftpClient
+	 * @param transfertConfiguration
+	 * @throws IOException
+	 */
+	static void connect(FTPClient ftpClient, TransfertConfiguration transfertConfiguration) throws IOException {
+		ftpClient.setConnectTimeout(CONNECT_TIMEOUT);
+
+		// host ou host:port
+		String host = transfertConfiguration.getHost();
+		if(StringUtils.contains(host, ':')){
+			ftpClient.connect(StringUtils.substringBefore(host, ":"), Integer.parseInt(StringUtils.substringAfter(host, ":")));
+		} else {
+			ftpClient.connect(host);
+		}
+
+		// After connection attempt, you should check the reply code to verify success.
+		int reply = ftpClient.getReplyCode();
+		if(!FTPReply.isPositiveCompletion(reply)) {
+			throw new TransfertFileException("FTP SERVER REFUSED CONNECTION. ERROR CODE = " + reply);
+		}
+
+		// attempt login
+		if (!ftpClient.login(transfertConfiguration.getUser(), transfertConfiguration.getPassword())) {
+			throw new TransfertFileException("Failed to login to FTP");
+		}
+
+		if(!ftpClient.setFileType(FTP.BINARY_FILE_TYPE)) {
+			throw new TransfertFileException("Unable to set the file type to BINARY");
+		}
+
+		configure(ftpClient, transfertConfiguration);
+	}
+
+	/**
+	 * Applies the transfer settings (local to the client) to a connected session.
+	 *
+	 * @param ftpClient
+	 * @param transfertConfiguration
+	 */
+	static void configure(FTPClient ftpClient, TransfertConfiguration transfertConfiguration) {
+		ftpClient.setBufferSize(transfertConfiguration.getBufferSize());
+		ftpClient.setSendDataSocketBufferSize(transfertConfiguration.getBufferSize());
+		// NOOP sur la connexion de controle pendant le transfert (evite la coupure par un firewall)
+		ftpClient.setControlKeepAliveTimeout(transfertConfiguration.getKeepAliveTimeout());
+		if(transfertConfiguration.isPassiveMode()){
+			ftpClient.enterLocalPassiveMode();
+		} else {
+			ftpClient.enterLocalActiveMode();
+		}
+	}
+
+	/**
+	 *
+	 * @param ftpClient
+	 * @param remoteFilePath
+	 * @return the size of the remote file, -1 if unknown
+	 * @throws IOException
+	 */
+	private static long getRemoteSize(FTPClient ftpClient, String remoteFilePath) throws IOException {
+		if(ftpClient.sendCommand("SIZE", remoteFilePath) != FTP_REPLY_FILE_STATUS){
+			return -1;
+		}
 		try {
-        	int reply;
-        	ftpClient.setConnectTimeout(20000); // set timeout to 20s
-        	ftpClient.connect(transfertConfiguration.getHost());
-        	
-        	reply = ftpClient.getReplyCode();
-        	
-        	// After connection attempt, you should check the reply code to verify success.
-            if(!FTPReply.isPositiveCompletion(reply)) {
-            	throw new TransfertFileException("FTP SERVER REFUSED CONNECTION. ERROR CODE = " + reply);
-            }
-            
-            
-            // attempt login
-            if (!ftpClient.login(transfertConfiguration.getUser(), transfertConfiguration.getPassword())) {
-                throw new TransfertFileException("Failed to login to FTP");
-            }
-            
-            if(!ftpClient.setFileType(FTP.BINARY_FILE_TYPE)) {
-        		throw new TransfertFileException("Unable to set the file type to BINARY");
-        	}
-            
-            // create local result file object
-            localFileToTransfert = new FileInputStream(transfertConfiguration.getLocalFilePath());
-
-            // store local file to remote server
-            if(! ftpClient.storeFile(transfertConfiguration.getRemoteFilePath(), localFileToTransfert)) {
-            	throw new TransfertFileException("Unable to transfert file " +transfertConfiguration.getLocalFilePath()+ " on " + transfertConfiguration.getHost());
-            }
-        	ftpClient.disconnect();
-    	} catch (Exception e) {
-    		throw new TransfertFileException("Failed to download file completely", e);
-    	} finally {
-    		IOUtils.closeQuietly(localFileToTransfert);
-    		if(ftpClient.isConnected()) {
-    	        try {
-    	        	ftpClient.disconnect();
-    	        } catch(IOException ioe) {
-    	          // do nothing
-    	        }
-    	      }
-    	}
+			return Long.parseLong(StringUtils.trim(StringUtils.substring(ftpClient.getReplyString(), 4)));
+		} catch (NumberFormatException nfe) {
+			return -1;
+		}
+	}
+
+	/**
+	 *
+	 * @param in
+	 * @param count
+	 * @throws IOException
+	 */
+	private static void skipFully(InputStream in, long count) throws IOException {
+		long remaining = count;
+		while(remaining > 0){
+			long skipped = in.skip(remaining);
+			if(skipped <= 0){
+				throw new EOFException("Unable to skip " + count + " bytes of the local file.");
+			}
+			remaining -= skipped;
+		}
+	}
+
+	/**
+	 *
+	 * @param ftpClient
+	 */
+	static void disconnect(FTPClient ftpClient) {
+		if(ftpClient.isConnected()) {
+			try {
+				ftpClient.disconnect();
+			} catch(IOException ioe) {
+				// do nothing
+			}
+		}
+	}
+
+	/**
+	 * Transfert execute sur le noeud possedant le fichier
+	 */
+	private static final class TransfertCallable implements FileCallable<TransfertStatistics> {
+
+		private static final long serialVersionUID = 2468210935671190847L;
+
+		private final TransfertConfiguration transfertConfiguration;
+
+		private final String sessionScope;
+
+		private final TaskListener listener;
+
+		TransfertCallable(TransfertConfiguration transfertConfiguration, String sessionScope, TaskListener listener) {
+			this.transfertConfiguration = transfertConfiguration;
+			this.sessionScope = sessionScope;
+			this.listener = listener;
+		}
+
+		public TransfertStatistics invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+			transfertConfiguration.setLocalFilePath(f.getAbsolutePath());
+			if(sessionScope == null){
+				return transfertFile(transfertConfiguration, listener.getLogger());
+			}
+			return FTPSessionPool.forScope(sessionScope).transfertOnce(transfertConfiguration, listener.getLogger());
+		}
+	}
+
+	/**
+	 * Transfert multi-destinations execute sur le noeud possedant le fichier
+	 */
+	private static final class FanOutCallable implements FileCallable<List<TransfertResult>> {
+
+		private static final long serialVersionUID = -8061573720482276139L;
+
+		private final List<TransfertConfiguration> transfertConfigurations;
+
+		private final int maxConcurrentTransfers;
+
+		private final String sessionScope;
+
+		private final TaskListener listener;
+
+		FanOutCallable(List<TransfertConfiguration> transfertConfigurations, int maxConcurrentTransfers, String sessionScope, TaskListener listener) {
+			this.transfertConfigurations = transfertConfigurations;
+			this.maxConcurrentTransfers = maxConcurrentTransfers;
+			this.sessionScope = sessionScope;
+			this.listener = listener;
+		}
+
+		public List<TransfertResult> invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+			for(TransfertConfiguration transfertConfiguration : transfertConfigurations){
+				transfertConfiguration.setLocalFilePath(f.getAbsolutePath());
+			}
+			return new ArrayList<TransfertResult>(new FTPFanOut(FTPSessionPool.forScope(sessionScope), maxConcurrentTransfers).transfert(transfertConfigurations, listener.getLogger()));
+		}
 	}
 
 }
@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.util;
+
+import hudson.FilePath;
+import hudson.FilePath.FileCallable;
+import hudson.Util;
+import hudson.remoting.VirtualChannel;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class FileDigestUtils {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Computes the SHA-256 of a file on the node which owns it. The file is streamed.
+	 *
+	 * @param file
+	 * @return the SHA-256 (hexadecimal)
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static final String sha256(FilePath file) throws IOException, InterruptedException {
+		return file.act(new Sha256Callable());
+	}
+
+	/**
+	 *
+	 * @param file
+	 * @return the SHA-256 (hexadecimal)
+	 * @throws IOException
+	 */
+	public static final String sha256(File file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException nsae) {
+			throw new IOException("SHA-256 is not supported by the JVM : " + nsae.getMessage());
+		}
+
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while((read = in.read(buffer)) > 0){
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+		return Util.toHexString(digest.digest());
+	}
+
+	/**
+	 *
+	 */
+	private static final class Sha256Callable implements FileCallable<String> {
+
+		private static final long serialVersionUID = -1370923516844620373L;
+
+		public String invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+			return sha256(f);
+		}
+	}
+}
@@ -3,9 +3,6 @@
  */
 package org.jenkinsci.plugins.deploy.weblogic.util;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import hudson.EnvVars;
 
 /**
@@ -14,28 +11,18 @@ import hudson.EnvVars;
  */
 public class ParameterValueResolver {
 
-	private static final Pattern ENV_VAR_PATTERN = Pattern.compile("\\$\\{?([\\S&&[^}]]*)\\}?");
+	private static final char VAR_PREFIX = '$';
 	
+	private static final String DEFAULT_VALUE_SEPARATOR = ":-";
 	
 	/**
-	 * 
-	 * @param label
-	 * @param envars all of the environment variable
-	 * @return
-	 */
-	public static String resolveEnvVar(String label, EnvVars envars) {
-		Matcher matcher = ENV_VAR_PATTERN.matcher(label);
-		if(matcher.matches()){
-            String key = matcher.group(1);
-            return envars.get(key, label);
-		}
-
-		return label;
-		
-	}
-	
-	/**
-	 * Resolve zero or more Jenkins enviroment variables in label, like:
+	 * Resolves in a single pass the Jenkins environment variables of the label :
+	 * <ul>
+	 * <li><code>${VAR}</code> and <code>$VAR</code> (letters, digits and <code>_</code>)</li>
+	 * <li><code>${VAR:-default}</code> : the default value is used when the variable is undefined or empty</li>
+	 * <li><code>$$</code> : a <code>$</code> character</li>
+	 * </ul>
+	 * An undefined variable (without default value) is kept as is. The values are not resolved again.
 	 * 
 	 * <code>
 	 * String myVar = "artifact-${NAME}-$VERSION"; // when ${NAME} and $VERSION are env. variables.
@@ -44,17 +31,102 @@ public class ParameterValueResolver {
 	 * @param label Name containing zero or more variables to resolve.
 	 * @param envars All of the environment variable.
 	 * @return Name with resolved variables.
-	 * @author ecavinat
 	 */
-	public static String resolveEnvVars(String label, EnvVars envars) {
-		if (label != null) {
-			Matcher m = ENV_VAR_PATTERN.matcher(label);
-			if (m != null) {
-				while (m.find()) {
-					label = label.replace(m.group(), resolveEnvVar(m.group(), envars));
+	public static String resolve(String label, EnvVars envars) {
+		if(label == null){
+			return null;
+		}
+		int next = label.indexOf(VAR_PREFIX);
+		// aucune variable : pas de copie
+		if(next < 0){
+			return label;
+		}
+		
+		int length = label.length();
+		StringBuilder out = new StringBuilder(length + 16);
+		int cursor = 0;
+		while(next >= 0){
+			out.append(label, cursor, next);
+			cursor = next + 1;
+			
+			if(cursor < length && label.charAt(cursor) == VAR_PREFIX){
+				// $$ : caractere echappe
+				out.append(VAR_PREFIX);
+				cursor++;
+			} else if(cursor < length && label.charAt(cursor) == '{'){
+				int end = label.indexOf('}', cursor + 1);
+				if(end < 0){
+					// accolade non fermee : texte conserve
+					out.append(label, next, length);
+					cursor = length;
+					break;
+				}
+				String expression = label.substring(cursor + 1, end);
+				int separator = expression.indexOf(DEFAULT_VALUE_SEPARATOR);
+				String name = separator < 0 ? expression : expression.substring(0, separator);
+				String value = envars == null ? null : envars.get(name);
+				if(value != null && (separator < 0 || value.length() > 0)){
+					out.append(value);
+				} else if(separator >= 0){
+					out.append(expression, separator + DEFAULT_VALUE_SEPARATOR.length(), expression.length());
+				} else {
+					out.append(label, next, end + 1);
+				}
+				cursor = end + 1;
+			} else {
+				int end = cursor;
+				while(end < length && isNameChar(label.charAt(end))){
+					end++;
+				}
+				String value = end == cursor || envars == null ? null : envars.get(label.substring(cursor, end));
+				if(value != null){
+					out.append(value);
+				} else {
+					out.append(label, next, end);
 				}
+				cursor = end;
 			}
+			next = label.indexOf(VAR_PREFIX, cursor);
 		}
-		return label;		
+		out.append(label, cursor, length);
+		return out.toString();
+	}
+	
+	/**
+	 * Resolves the label only if it is made of a single variable (<code>${VAR}</code> or <code>$VAR</code>) :
+	 * any other label, like a password containing <code>$</code>, is kept as is.
+	 * 
+	 * @param label
+	 * @param envars all of the environment variable
+	 * @return the value of the variable, the label otherwise
+	 */
+	public static String resolveWholeValue(String label, EnvVars envars) {
+		if(label == null || envars == null || label.length() < 2 || label.charAt(0) != VAR_PREFIX){
+			return label;
+		}
+		String name;
+		if(label.charAt(1) == '{'){
+			if(label.charAt(label.length() - 1) != '}'){
+				return label;
+			}
+			name = label.substring(2, label.length() - 1);
+		} else {
+			name = label.substring(1);
+		}
+		for(int i = 0; i < name.length(); i++){
+			if(! isNameChar(name.charAt(i))){
+				return label;
+			}
+		}
+		return name.length() == 0 ? label : envars.get(name, label);
+	}
+	
+	/**
+	 * 
+	 * @param c
+	 * @return true if the character can be part of the name of a variable in <code>$VAR</code>
+	 */
+	private static boolean isNameChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
 	}
 }
@@ -6,6 +6,8 @@ package org.jenkinsci.plugins.deploy.weblogic.util;
 import java.net.HttpURLConnection;
 import java.net.URL;
 
+import org.jenkinsci.plugins.deploy.weblogic.configuration.HttpConfigurationSource;
+
 /**
  * @author rchaumie
  *
@@ -23,6 +25,8 @@ public class URLUtils {
 	    try {
 	      HttpURLConnection.setFollowRedirects(false);
 	      HttpURLConnection con = (HttpURLConnection) new URL(URLName).openConnection();
+	      con.setConnectTimeout(HttpConfigurationSource.CONNECT_TIMEOUT);
+	      con.setReadTimeout(HttpConfigurationSource.READ_TIMEOUT);
 	      con.setRequestMethod("HEAD");
 	      return (con.getResponseCode() == HttpURLConnection.HTTP_OK);
 	    }
@@ -0,0 +1,41 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.configuration;
+
+import java.io.File;
+
+import javax.xml.validation.Schema;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class ConfigurationFileWatcherTestCase {
+
+	private static final String RESOURCES_DIR = System.getProperty("user.dir")+"/src/test/resources/";
+
+	@Test
+	public void validate() throws Exception {
+		Schema schema = ConfigurationFileWatcher.loadSchema(new File(RESOURCES_DIR + "plugin-configuration.xsd").toURI().toURL());
+		ConfigurationFileWatcher.validate(new File(RESOURCES_DIR + "default.xml"), schema);
+
+		File invalid = File.createTempFile("plugin-configuration", ".xml");
+		try {
+			FileUtils.writeStringToFile(invalid, FileUtils.readFileToString(new File(RESOURCES_DIR + "default.xml"), "UTF-8")
+					.replaceFirst("<port>25000</port>", "<port>port</port>"), "UTF-8");
+			ConfigurationFileWatcher.validate(invalid, schema);
+			Assert.fail("The port is not a number");
+		} catch (SAXException se) {
+			// attendu
+		} finally {
+			FileUtils.deleteQuietly(invalid);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.configuration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class HttpConfigurationSourceTestCase {
+
+	private static final String ETAG = "\"v1\"";
+
+	private HttpServer server;
+
+	private File cacheDirectory;
+
+	private final AtomicInteger downloads = new AtomicInteger();
+
+	@Before
+	public void setUp() throws Exception {
+		final byte[] content = FileUtils.readFileToByteArray(new File(System.getProperty("user.dir")+"/src/test/resources/default.xml"));
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/config.xml", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				exchange.getResponseHeaders().add("ETag", ETAG);
+				if(ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))){
+					exchange.sendResponseHeaders(304, -1);
+				} else {
+					downloads.incrementAndGet();
+					exchange.sendResponseHeaders(200, content.length);
+					OutputStream out = exchange.getResponseBody();
+					out.write(content);
+					out.close();
+				}
+				exchange.close();
+			}
+		});
+		server.start();
+
+		cacheDirectory = File.createTempFile("weblogic-configuration-cache", "");
+		FileUtils.deleteQuietly(cacheDirectory);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if(server != null){
+			server.stop(0);
+		}
+		FileUtils.deleteQuietly(cacheDirectory);
+	}
+
+	@Test
+	public void conditionalRefresh() throws Exception {
+		HttpConfigurationSource source = new HttpConfigurationSource(getUrl(), cacheDirectory);
+		Assert.assertEquals(6, source.get().getWeblogicEnvironments().length);
+		Assert.assertEquals(1, downloads.get());
+
+		// revalidation : 304
+		Assert.assertFalse(source.refresh());
+		Assert.assertEquals(1, downloads.get());
+	}
+
+	@Test
+	public void lastGoodCopyWhenServerIsDown() throws Exception {
+		String url = getUrl();
+		new HttpConfigurationSource(url, cacheDirectory).get();
+		server.stop(0);
+		server = null;
+
+		HttpConfigurationSource source = new HttpConfigurationSource(url, cacheDirectory);
+		Assert.assertEquals(6, source.get().getWeblogicEnvironments().length);
+		try {
+			source.refresh();
+			Assert.fail("The server is down");
+		} catch (IOException ioe) {
+			// attendu
+		}
+		Assert.assertEquals(6, source.get().getWeblogicEnvironments().length);
+	}
+
+	private String getUrl() {
+		return "http://localhost:" + server.getAddress().getPort() + "/config.xml";
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.configuration;
+
+import junit.framework.Assert;
+
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment;
+import org.junit.Test;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class WeblogicEnvironmentSnapshotTestCase {
+
+	@Test
+	public void indexes() throws Exception {
+		WeblogicEnvironment recette = new WeblogicEnvironment("Recette", "host1", "7001", "weblogic", "weblogic");
+		recette.setTags("front, batch");
+		WeblogicEnvironment production = new WeblogicEnvironment("PRODUCTION", "HOST1", "7002", "weblogic", "weblogic");
+		production.setTags("front");
+		WeblogicEnvironmentSnapshot snapshot = new WeblogicEnvironmentSnapshot(new WeblogicEnvironment[]{recette, production});
+
+		Assert.assertSame(recette, snapshot.getByName("recette"));
+		Assert.assertSame(production, snapshot.getByName("Production"));
+		Assert.assertNull(snapshot.getByName("integration"));
+		Assert.assertEquals(2, snapshot.getByHost("host1").size());
+		Assert.assertEquals(2, snapshot.getByTag("FRONT").size());
+		Assert.assertEquals(1, snapshot.getByTag("batch").size());
+		Assert.assertTrue(snapshot.getByTag("unknown").isEmpty());
+	}
+
+	@Test
+	public void environmentsAreCopied() throws Exception {
+		WeblogicEnvironment[] environments = new WeblogicEnvironment[]{new WeblogicEnvironment("recette", "host1", "7001", "weblogic", "weblogic")};
+		WeblogicEnvironmentSnapshot snapshot = new WeblogicEnvironmentSnapshot(environments);
+		environments[0] = null;
+		snapshot.getEnvironments()[0] = null;
+		Assert.assertNotNull(snapshot.getEnvironments()[0]);
+		Assert.assertTrue(WeblogicEnvironmentSnapshot.EMPTY.isEmpty());
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import hudson.EnvVars;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment;
+import org.junit.Test;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class CommandLineTemplateTestCase {
+
+	@Test
+	public void render() {
+		WebLogicDeployerParameters parameters = new WebLogicDeployerParameters();
+		parameters.setDeploymentName("myapp");
+		parameters.setEnvironment(new WeblogicEnvironment("recette", "host1", "7001", "weblogic", "secret"));
+		EnvVars envVars = new EnvVars("TARGETS", "AdminServer");
+		
+		CommandLineTemplate template = CommandLineTemplate.compile(
+				"-adminurl t3://{wl.host}:{wl.PORT} -user {wl.login}  -name {wl.deployment_name} -targets $TARGETS {other} {wl.unknown} ; ; -listapps");
+		Assert.assertEquals(2, template.size());
+		
+		WebLogicDeployerTokenResolver resolver = new WebLogicDeployerTokenResolverImpl();
+		Assert.assertEquals(Arrays.asList("-adminurl", "t3://host1:7001", "-user", "weblogic", "-name", "myapp", "-targets", "AdminServer", "other", "{wl.unknown}"),
+				template.render(0, parameters, resolver, envVars));
+		Assert.assertEquals(Arrays.asList("-listapps"), template.render(1, parameters, resolver, envVars));
+	}
+	
+	@Test
+	public void valueWithSpaces() {
+		WebLogicDeployerParameters parameters = new WebLogicDeployerParameters();
+		parameters.setDeploymentTargets("ms1, ms2");
+		
+		CommandLineTemplate template = CommandLineTemplate.compile("-targets {wl.targets}");
+		Assert.assertEquals(Arrays.asList("-targets", "ms1,", "ms2"),
+				template.render(0, parameters, new WebLogicDeployerTokenResolverImpl(), new EnvVars()));
+	}
+	
+	@Test
+	public void credentialsAreNotResolved() {
+		WebLogicDeployerParameters parameters = new WebLogicDeployerParameters();
+		parameters.setEnvironment(new WeblogicEnvironment("recette", "host1", "7001", "$WL_USER", "Welc0me$$1$NAME"));
+		EnvVars envVars = new EnvVars("WL_USER", "deployer", "NAME", "myapp");
+		
+		CommandLineTemplate template = CommandLineTemplate.compile("-user {wl.login} -password {wl.password} -name $NAME-{wl.port}");
+		Assert.assertEquals(Arrays.asList("-user", "deployer", "-password", "Welc0me$$1$NAME", "-name", "myapp-7001"),
+				template.render(0, parameters, new WebLogicDeployerTokenResolverImpl(), envVars));
+	}
+	
+	@Test
+	public void variablesWithBraces() {
+		WebLogicDeployerParameters parameters = new WebLogicDeployerParameters();
+		parameters.setDeploymentName("myapp");
+		EnvVars envVars = new EnvVars("TARGETS", "ms1");
+		
+		CommandLineTemplate template = CommandLineTemplate.compile("-targets ${TARGETS:-AdminServer} -plan ${UNDEFINED:-x} -name ${TARGETS}_{wl.deployment_name}");
+		Assert.assertEquals(Arrays.asList("-targets", "ms1", "-plan", "x", "-name", "ms1_myapp"),
+				template.render(0, parameters, new WebLogicDeployerTokenResolverImpl(), envVars));
+	}
+}
@@ -0,0 +1,48 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.deployer;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class WebLogicDeployerTestCase {
+
+	private static final String LISTAPPS_OUTPUT = "weblogic.Deployer invoked with options:  -adminurl t3://localhost:7001 -user weblogic -listapps\r\n"
+			+ " myapp\r\n"
+			+ " otherapp [Version=1.0]\r\n"
+			+ " versioned#2.0\r\n"
+			+ "Number of Applications Found : 3\r\n";
+	
+	@Test
+	public void isDeploymentListed() {
+		Assert.assertTrue(WebLogicDeployer.isDeploymentListed(LISTAPPS_OUTPUT, "myapp"));
+		Assert.assertTrue(WebLogicDeployer.isDeploymentListed(LISTAPPS_OUTPUT, "otherapp"));
+		Assert.assertTrue(WebLogicDeployer.isDeploymentListed(LISTAPPS_OUTPUT, "versioned"));
+		Assert.assertFalse(WebLogicDeployer.isDeploymentListed(LISTAPPS_OUTPUT, "my"));
+		Assert.assertFalse(WebLogicDeployer.isDeploymentListed(LISTAPPS_OUTPUT, "absent"));
+		Assert.assertFalse(WebLogicDeployer.isDeploymentListed(null, "myapp"));
+	}
+	
+	@Test
+	public void getInitiatedTaskId() {
+		Assert.assertEquals("12", WebLogicDeployer.getInitiatedTaskId("<Info> <J2EE Deployment SPI>\r\nTask 12 initiated: [Deployer:149026]deploy application myapp on ms1.\r\n"));
+		Assert.assertNull(WebLogicDeployer.getInitiatedTaskId("Deployment of myapp completed"));
+	}
+	
+	@Test
+	public void getTaskState() {
+		String running = "weblogic.Deployer invoked with options:  -adminurl t3://localhost:7001 -listtask 3\r\n"
+				+ "Task 3 initiated: [Deployer:149026]deploy application myapp on ms1.\r\n";
+		Assert.assertEquals(WebLogicTaskState.RUNNING, WebLogicDeployer.getTaskState(running, "3"));
+		Assert.assertEquals(WebLogicTaskState.COMPLETED, WebLogicDeployer.getTaskState(running + "Task 3 completed: [Deployer:149026]deploy application myapp on ms1.\r\n", "3"));
+		Assert.assertEquals(WebLogicTaskState.FAILED, WebLogicDeployer.getTaskState(running + "Task 3 failed: [Deployer:149026]deploy application myapp on ms1.\r\n", "3"));
+		Assert.assertEquals(WebLogicTaskState.COMPLETED, WebLogicDeployer.getTaskState(" 3   deploy   completed   ms1   Server\r\n", "3"));
+		Assert.assertEquals(WebLogicTaskState.UNKNOWN, WebLogicDeployer.getTaskState(running, "31"));
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import java.io.File;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.plugins.deploy.weblogic.deployer.WebLogicTaskState;
+import org.junit.Test;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class AsyncDeploymentRegistryTestCase {
+
+	@Test
+	public void pollDelay() throws Exception {
+		Assert.assertEquals(10 * 1000L, AsyncDeploymentRegistry.getPollDelay(1));
+		Assert.assertEquals(AsyncDeploymentRegistry.MAX_POLL_DELAY, AsyncDeploymentRegistry.getPollDelay(100));
+	}
+
+	@Test
+	public void resumeAfterReload() throws Exception {
+		File registryFile = File.createTempFile("weblogic-async-deployments", ".xml");
+		FileUtils.deleteQuietly(registryFile);
+		try {
+			AsyncDeploymentRegistry registry = AsyncDeploymentRegistry.load(registryFile);
+			AsyncDeploymentRegistry.Entry entry = new AsyncDeploymentRegistry.Entry("job", 12, "task1", "3", "recette", "ms1", null, "jdk", "/opt/jdk");
+			registry.submit(entry);
+			Assert.assertTrue(registry.getDueEntries(System.currentTimeMillis()).isEmpty());
+			Assert.assertFalse(registry.update(entry, WebLogicTaskState.RUNNING, System.currentTimeMillis()));
+
+			// redemarrage : la tache est toujours suivie
+			AsyncDeploymentRegistry reloaded = AsyncDeploymentRegistry.load(registryFile);
+			AsyncDeploymentRegistry.Entry reloadedEntry = reloaded.getDueEntries(Long.MAX_VALUE).get(0);
+			Assert.assertEquals("job#12|task1|3", reloadedEntry.getKey());
+			Assert.assertEquals(1, reloadedEntry.getPolls());
+
+			Assert.assertTrue(reloaded.update(reloadedEntry, WebLogicTaskState.COMPLETED, System.currentTimeMillis()));
+			// aucun build n'attend la tache : son issue est a enregistrer
+			Assert.assertFalse(reloaded.complete(reloadedEntry));
+			Assert.assertTrue(AsyncDeploymentRegistry.load(registryFile).getDueEntries(Long.MAX_VALUE).isEmpty());
+		} finally {
+			FileUtils.deleteQuietly(registryFile);
+		}
+	}
+
+	@Test
+	public void unknownTask() throws Exception {
+		File registryFile = File.createTempFile("weblogic-async-deployments", ".xml");
+		FileUtils.deleteQuietly(registryFile);
+		try {
+			AsyncDeploymentRegistry registry = AsyncDeploymentRegistry.load(registryFile);
+			AsyncDeploymentRegistry.Entry entry = new AsyncDeploymentRegistry.Entry("job", 12, "task1", "3", "recette", "ms1", null, "jdk", "/opt/jdk");
+			registry.submit(entry);
+			for(int i = 1; i < AsyncDeploymentRegistry.MAX_UNKNOWN_POLLS; i++){
+				Assert.assertFalse(registry.update(entry, WebLogicTaskState.UNKNOWN, System.currentTimeMillis()));
+				// echec de la scrutation : ne compte pas
+				Assert.assertFalse(registry.update(entry, null, System.currentTimeMillis()));
+			}
+			Assert.assertTrue(registry.update(entry, WebLogicTaskState.UNKNOWN, System.currentTimeMillis()));
+			Assert.assertEquals(WebLogicTaskState.UNKNOWN, entry.getState());
+		} finally {
+			FileUtils.deleteQuietly(registryFile);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import java.io.File;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class DeploymentLedgerTestCase {
+
+	@Test
+	public void getKey() throws Exception {
+		Assert.assertEquals("recette|myapp|ms1,ms2", DeploymentLedger.getKey("recette", "myapp", "ms2, ms1"));
+		Assert.assertEquals("recette|myapp|", DeploymentLedger.getKey("recette", "myapp", null));
+	}
+
+	@Test
+	public void recordAndReload() throws Exception {
+		File ledgerFile = File.createTempFile("weblogic-deployment-ledger", ".xml");
+		FileUtils.deleteQuietly(ledgerFile);
+		try {
+			String key = DeploymentLedger.getKey("recette", "myapp", "AdminServer");
+			DeploymentLedger ledger = DeploymentLedger.load(ledgerFile);
+			Assert.assertNull(ledger.getEntry(key));
+
+			ledger.record(key, new DeploymentLedger.Entry("abcdef", "myapp.ear", "job#12", 1L));
+
+			DeploymentLedger reloaded = DeploymentLedger.load(ledgerFile);
+			Assert.assertEquals("abcdef", reloaded.getEntry(key).getSha256());
+			Assert.assertEquals("job#12", reloaded.getEntry(key).getBuildId());
+
+			reloaded.remove(key);
+			Assert.assertNull(DeploymentLedger.load(ledgerFile).getEntry(key));
+		} finally {
+			FileUtils.deleteQuietly(ledgerFile);
+		}
+	}
+}
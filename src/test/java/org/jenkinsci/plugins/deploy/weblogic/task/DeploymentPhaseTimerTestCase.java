@@ -0,0 +1,115 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentPhase;
+import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTaskTimeouts;
+import org.junit.Test;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class DeploymentPhaseTimerTestCase {
+
+	@Test
+	public void phaseTimeoutInterruptsTheThread() throws Exception {
+		DeploymentPhaseTimer timer = new DeploymentPhaseTimer(new DeploymentTaskTimeouts(0, 0, 0, 0, 0, 0, 1));
+		timer.start(DeploymentPhase.UNDEPLOY);
+		timer.start(DeploymentPhase.DEPLOY);
+		try {
+			Thread.sleep(10 * 1000);
+			Assert.fail("The phase should have been interrupted");
+		} catch (InterruptedException ie) {
+			// attendu
+		}
+		timer.close();
+
+		Assert.assertTrue(timer.isExpired());
+		Assert.assertFalse(timer.isTaskExpired());
+		Assert.assertEquals(DeploymentPhase.DEPLOY, timer.getExpiredPhase());
+		Assert.assertFalse(Thread.currentThread().isInterrupted());
+
+		Map<DeploymentPhase, Long> durations = timer.getDurations();
+		Assert.assertEquals(2, durations.size());
+		Assert.assertEquals(DeploymentPhase.UNDEPLOY, durations.keySet().iterator().next());
+		Assert.assertTrue(durations.get(DeploymentPhase.DEPLOY) >= 900);
+
+		try {
+			timer.start(DeploymentPhase.DEPLOY);
+			Assert.fail("No phase should start once a budget expired");
+		} catch (InterruptedException ie) {
+			// attendu
+		}
+	}
+
+	@Test
+	public void taskTimeoutAppliesToEachPhase() throws Exception {
+		DeploymentPhaseTimer timer = new DeploymentPhaseTimer(new DeploymentTaskTimeouts(1, 0, 0, 0, 0, 0, 60));
+		timer.start(DeploymentPhase.DEPLOY);
+		try {
+			Thread.sleep(10 * 1000);
+			Assert.fail("The task should have been interrupted");
+		} catch (InterruptedException ie) {
+			// attendu
+		}
+		timer.close();
+
+		Assert.assertTrue(timer.isTaskExpired());
+		Assert.assertEquals(DeploymentPhase.DEPLOY, timer.getExpiredPhase());
+	}
+
+	@Test
+	public void abortAfterTheTimeoutIsKept() throws Exception {
+		DeploymentPhaseTimer timer = new DeploymentPhaseTimer(new DeploymentTaskTimeouts(0, 0, 0, 0, 0, 0, 1));
+		timer.start(DeploymentPhase.DEPLOY);
+		try {
+			Thread.sleep(10 * 1000);
+			Assert.fail("The phase should have been interrupted");
+		} catch (InterruptedException ie) {
+			timer.stop();
+		}
+		// abandon du build apres l'expiration
+		Thread.currentThread().interrupt();
+		timer.close();
+
+		Assert.assertTrue(timer.isExpired());
+		Assert.assertTrue(timer.isAborted());
+		Assert.assertTrue(Thread.interrupted());
+	}
+
+	@Test
+	public void abortHasPrecedenceOverTheTimeout() throws Exception {
+		DeploymentPhaseTimer timer = new DeploymentPhaseTimer(new DeploymentTaskTimeouts(0, 0, 0, 0, 0, 0, 1));
+		timer.start(DeploymentPhase.DEPLOY);
+		Thread.currentThread().interrupt();
+		// attente active : l'interruption n'est pas consommee
+		long end = System.currentTimeMillis() + 1500;
+		while(System.currentTimeMillis() < end){
+			Thread.yield();
+		}
+		timer.close();
+
+		Assert.assertFalse(timer.isExpired());
+		Assert.assertTrue(timer.isAborted());
+		Assert.assertTrue(Thread.interrupted());
+	}
+
+	@Test
+	public void noTimeout() throws Exception {
+		DeploymentPhaseTimer timer = new DeploymentPhaseTimer(null);
+		timer.start(DeploymentPhase.JDK_CHECK);
+		timer.start(DeploymentPhase.DEPLOY);
+		timer.start(DeploymentPhase.DEPLOY);
+		timer.close();
+
+		Assert.assertFalse(timer.isExpired());
+		Assert.assertEquals(2, timer.getDurations().size());
+		Assert.assertEquals(0, timer.getTimeout(DeploymentPhase.DEPLOY));
+	}
+}
@@ -0,0 +1,199 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.StreamBuildListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTask;
+import org.jenkinsci.plugins.deploy.weblogic.data.DeploymentTaskResult;
+import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicDeploymentStatus;
+import org.jenkinsci.plugins.deploy.weblogic.data.WebLogicPreRequisteStatus;
+import org.jenkinsci.plugins.deploy.weblogic.exception.DeploymentTaskException;
+import org.junit.Test;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class DeploymentTaskExecutorTestCase {
+
+	private final BuildListener listener = new StreamBuildListener(System.out);
+
+	@Test
+	public void resultsFollowTheTaskOrder() throws Exception {
+		List<DeploymentTask> tasks = new ArrayList<DeploymentTask>();
+		tasks.add(newTask("slow", "int"));
+		tasks.add(newTask("medium", "qualif"));
+		tasks.add(newTask("fast", "prod"));
+
+		StubDeploymentTaskService service = new StubDeploymentTaskService();
+		service.durations.put("slow", 300L);
+		service.durations.put("medium", 150L);
+
+		List<DeploymentTaskResult> results = new DeploymentTaskExecutor(service, 3, 0, false).execute(tasks, null, null, listener, null);
+
+		Assert.assertEquals(3, results.size());
+		for(int i = 0; i < tasks.size(); i++){
+			Assert.assertSame(tasks.get(i), results.get(i).getTask());
+			Assert.assertEquals(WebLogicDeploymentStatus.SUCCEEDED, results.get(i).getStatus());
+		}
+		Assert.assertTrue(service.getMaxRunning() > 1);
+	}
+
+	@Test
+	public void environmentCapIsEnforced() throws Exception {
+		List<DeploymentTask> tasks = new ArrayList<DeploymentTask>();
+		for(int i = 0; i < 4; i++){
+			tasks.add(newTask("int" + i, i % 2 == 0 ? "int" : "INT"));
+		}
+		tasks.add(newTask("prod", "prod"));
+
+		StubDeploymentTaskService service = new StubDeploymentTaskService();
+		for(DeploymentTask task : tasks){
+			service.durations.put(task.getId(), 100L);
+		}
+
+		List<DeploymentTaskResult> results = new DeploymentTaskExecutor(service, 5, 1, false).execute(tasks, null, null, listener, null);
+
+		Assert.assertEquals(5, results.size());
+		// le nom d'environnement est insensible a la casse
+		Assert.assertEquals(1, service.getMaxRunning("int"));
+	}
+
+	@Test
+	public void firstFailureCancelsTheRemainingTasks() throws Exception {
+		List<DeploymentTask> tasks = new ArrayList<DeploymentTask>();
+		tasks.add(newTask("failing", "int"));
+		tasks.add(newTask("blocked", "qualif"));
+		tasks.add(newTask("pending", "prod"));
+
+		StubDeploymentTaskService service = new StubDeploymentTaskService();
+		service.failures.add("failing");
+		service.durations.put("failing", 100L);
+		service.durations.put("blocked", 60 * 1000L);
+		service.durations.put("pending", 60 * 1000L);
+
+		long start = System.currentTimeMillis();
+		List<DeploymentTaskResult> results = new DeploymentTaskExecutor(service, 2, 0, true).execute(tasks, null, null, listener, null);
+
+		Assert.assertTrue(System.currentTimeMillis() - start < 30 * 1000L);
+		Assert.assertEquals(3, results.size());
+		Assert.assertEquals(WebLogicDeploymentStatus.FAILED, results.get(0).getStatus());
+		Assert.assertEquals(WebLogicDeploymentStatus.ABORTED, results.get(1).getStatus());
+		Assert.assertEquals(WebLogicDeploymentStatus.ABORTED, results.get(2).getStatus());
+		// la tache en cours est interrompue, la tache en attente n'est jamais lancee
+		Assert.assertTrue(service.interrupted.await(10, TimeUnit.SECONDS));
+		Assert.assertFalse(service.hasStarted("pending"));
+	}
+
+	@Test
+	public void sequentialExecutionStopsOnFirstFailure() throws Exception {
+		List<DeploymentTask> tasks = new ArrayList<DeploymentTask>();
+		tasks.add(newTask("first", "int"));
+		tasks.add(newTask("failing", "int"));
+		tasks.add(newTask("last", "int"));
+
+		StubDeploymentTaskService service = new StubDeploymentTaskService();
+		service.failures.add("failing");
+
+		List<DeploymentTaskResult> results = new DeploymentTaskExecutor(service, 1, 1, true).execute(tasks, null, null, listener, null);
+
+		Assert.assertEquals(2, results.size());
+		Assert.assertEquals(WebLogicDeploymentStatus.SUCCEEDED, results.get(0).getStatus());
+		Assert.assertEquals(WebLogicDeploymentStatus.FAILED, results.get(1).getStatus());
+		Assert.assertFalse(service.hasStarted("last"));
+	}
+
+	private static DeploymentTask newTask(String id, String environment) {
+		return new DeploymentTask(id, id, environment, id, null, false, null, null, null, null, null, null, null, null,
+				false, null, false, false, 0, 0, false, null);
+	}
+
+	/**
+	 * Simule le deploiement : chaque tache dure le temps configure et echoue si demande.
+	 */
+	private static class StubDeploymentTaskService implements DeploymentTaskService {
+
+		private final Map<String, Long> durations = new HashMap<String, Long>();
+
+		private final List<String> failures = new ArrayList<String>();
+
+		private final List<String> started = new ArrayList<String>();
+
+		private final Map<String, Integer> runningPerEnvironment = new HashMap<String, Integer>();
+
+		private final Map<String, Integer> maxRunningPerEnvironment = new HashMap<String, Integer>();
+
+		private final CountDownLatch interrupted = new CountDownLatch(1);
+
+		private int running;
+
+		private int maxRunning;
+
+		public DeploymentTaskResult perform(DeploymentTask task, String globalJdk, AbstractBuild<?, ?> build, BuildListener listener,
+				Launcher launcher) throws DeploymentTaskException {
+			String environment = task.getWeblogicEnvironmentTargetedName().toLowerCase();
+			begin(task.getId(), environment);
+			try {
+				Long duration = durations.get(task.getId());
+				if(duration != null){
+					Thread.sleep(duration);
+				}
+			} catch (InterruptedException ie) {
+				interrupted.countDown();
+				throw new DeploymentTaskException(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.ABORTED, task, null));
+			} finally {
+				end(environment);
+			}
+
+			if(failures.contains(task.getId())){
+				throw new DeploymentTaskException(new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.FAILED, task, null));
+			}
+			return new DeploymentTaskResult(WebLogicPreRequisteStatus.OK, WebLogicDeploymentStatus.SUCCEEDED, task, null);
+		}
+
+		private synchronized void begin(String id, String environment) {
+			started.add(id);
+			running++;
+			maxRunning = Math.max(maxRunning, running);
+			int current = getCount(runningPerEnvironment, environment) + 1;
+			runningPerEnvironment.put(environment, current);
+			maxRunningPerEnvironment.put(environment, Math.max(getCount(maxRunningPerEnvironment, environment), current));
+		}
+
+		private synchronized void end(String environment) {
+			running--;
+			runningPerEnvironment.put(environment, getCount(runningPerEnvironment, environment) - 1);
+		}
+
+		private synchronized boolean hasStarted(String id) {
+			return started.contains(id);
+		}
+
+		private synchronized int getMaxRunning() {
+			return maxRunning;
+		}
+
+		private synchronized int getMaxRunning(String environment) {
+			return getCount(maxRunningPerEnvironment, environment);
+		}
+
+		private static int getCount(Map<String, Integer> counts, String environment) {
+			Integer count = counts.get(environment);
+			return count != null ? count : 0;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.task;
+
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicCluster;
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicClusterMember;
+import org.jenkinsci.plugins.deploy.weblogic.data.WeblogicEnvironment;
+import org.junit.Test;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class RollingDeploymentPlanTestCase {
+
+	private static WeblogicEnvironment getEnvironment() {
+		WeblogicEnvironment environment = new WeblogicEnvironment("recette", "host1", "7001", "weblogic", "weblogic");
+		environment.setClusters(new WeblogicCluster[]{new WeblogicCluster("cluster1",
+				new WeblogicClusterMember("ms1", null), new WeblogicClusterMember("ms2", null),
+				new WeblogicClusterMember("ms3", null), new WeblogicClusterMember("ms4", null),
+				new WeblogicClusterMember("ms5", null))});
+		return environment;
+	}
+
+	@Test
+	public void waves() throws Exception {
+		List<List<WeblogicClusterMember>> waves = RollingDeploymentPlan.getWaves(getEnvironment(), "Cluster1", 25);
+		Assert.assertEquals(3, waves.size());
+		Assert.assertEquals("[ms1, ms2]", waves.get(0).toString());
+		Assert.assertEquals("[ms5]", waves.get(2).toString());
+
+		Assert.assertEquals(1, RollingDeploymentPlan.getWaves(getEnvironment(), "cluster1", 100).size());
+		Assert.assertEquals(5, RollingDeploymentPlan.getWaves(getEnvironment(), "cluster1", 1).size());
+	}
+
+	@Test
+	public void standaloneTargets() throws Exception {
+		List<List<WeblogicClusterMember>> waves = RollingDeploymentPlan.getWaves(getEnvironment(), "AdminServer, cluster1, ms2", 50);
+		Assert.assertEquals("[AdminServer, ms1, ms2]", waves.get(0).toString());
+		Assert.assertEquals("[ms3, ms4, ms5]", waves.get(1).toString());
+		Assert.assertTrue(RollingDeploymentPlan.getWaves(getEnvironment(), " ", 25).isEmpty());
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.util;
+
+import hudson.FilePath;
+import hudson.util.StreamTaskListener;
+
+import java.io.File;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class DeployerToolchainCacheTestCase {
+
+	private File master;
+	
+	private File node;
+	
+	@Before
+	public void setUp() throws Exception {
+		master = File.createTempFile("weblogic-libraries-master", "");
+		FileUtils.deleteQuietly(master);
+		master.mkdirs();
+		node = File.createTempFile("weblogic-deployer-toolchain", "");
+		FileUtils.deleteQuietly(node);
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteQuietly(master);
+		FileUtils.deleteQuietly(node);
+	}
+	
+	@Test
+	public void install() throws Exception {
+		File weblogic = new File(master, "weblogic.jar");
+		File helper = new File(master, "helper.jar");
+		FileUtils.writeStringToFile(weblogic, "weblogic 10.3");
+		FileUtils.writeStringToFile(helper, "helper");
+		String classpath = weblogic.getPath() + File.pathSeparator + helper.getPath();
+		FilePath root = new FilePath(node);
+		StreamTaskListener listener = new StreamTaskListener(System.out);
+		
+		Assert.assertEquals(2, DeployerToolchainCache.install(classpath, root, listener));
+		FilePath weblogic103 = DeployerToolchainCache.getEntry(weblogic, root);
+		Assert.assertEquals("weblogic 10.3", weblogic103.readToString());
+		
+		// deja installees
+		Assert.assertEquals(0, DeployerToolchainCache.install(classpath, root, listener));
+		
+		// nouvelle version de weblogic.jar : les deux versions sont conservees
+		FileUtils.writeStringToFile(weblogic, "weblogic 12.1");
+		weblogic.setLastModified(weblogic.lastModified() + 2000);
+		Assert.assertEquals(1, DeployerToolchainCache.install(classpath, root, listener));
+		Assert.assertEquals("weblogic 12.1", DeployerToolchainCache.getEntry(weblogic, root).readToString());
+		Assert.assertTrue(weblogic103.exists());
+		
+		// aucun fichier temporaire restant
+		Assert.assertEquals(3, root.listDirectories().size());
+	}
+}
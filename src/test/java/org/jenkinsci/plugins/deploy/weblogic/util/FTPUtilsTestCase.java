@@ -0,0 +1,285 @@
+/**
+ *
+ */
+package org.jenkinsci.plugins.deploy.weblogic.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertConfiguration;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertResult;
+import org.jenkinsci.plugins.deploy.weblogic.data.TransfertStatistics;
+import org.jenkinsci.plugins.deploy.weblogic.exception.TransfertFileException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockftpserver.core.command.Command;
+import org.mockftpserver.core.command.CommandHandler;
+import org.mockftpserver.core.session.Session;
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+
+/**
+ * @author rchaumie
+ *
+ */
+public class FTPUtilsTestCase {
+
+	private FakeFtpServer ftpServer;
+
+	private UnixFakeFileSystem fileSystem;
+
+	private File localFile;
+
+	@Before
+	public void setUp() throws Exception {
+		fileSystem = new UnixFakeFileSystem();
+		fileSystem.add(new DirectoryEntry("/libs"));
+
+		ftpServer = new FakeFtpServer();
+		ftpServer.setServerControlPort(0);
+		ftpServer.addUserAccount(new UserAccount("deployer", "secret", "/libs"));
+		ftpServer.setFileSystem(fileSystem);
+		ftpServer.start();
+
+		localFile = File.createTempFile("library", ".war");
+		byte[] content = new byte[300 * 1024];
+		for(int i = 0; i < content.length; i++){
+			content[i] = (byte) i;
+		}
+		FileUtils.writeByteArrayToFile(localFile, content);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		ftpServer.stop();
+		FileUtils.deleteQuietly(localFile);
+	}
+
+	@Test
+	public void transfertFile() throws Exception {
+		TransfertConfiguration configuration = new TransfertConfiguration("localhost:" + ftpServer.getServerControlPort(), "deployer", "secret", localFile.getAbsolutePath(), "/libs/library.war");
+		configuration.setPassiveMode(true);
+		configuration.setBufferSize(8 * 1024);
+		ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+		TransfertStatistics statistics = FTPUtils.transfertFile(configuration, new PrintStream(log, true));
+
+		FileEntry remoteFile = (FileEntry) fileSystem.getEntry("/libs/library.war");
+		Assert.assertNotNull(remoteFile);
+		Assert.assertTrue(IOUtils.contentEquals(FileUtils.openInputStream(localFile), remoteFile.createInputStream()));
+		Assert.assertEquals(localFile.length(), statistics.getSize());
+		Assert.assertEquals(1, statistics.getAttempts());
+		Assert.assertEquals(0, statistics.getResumedOffset());
+		Assert.assertTrue(log.toString().contains("transfered"));
+	}
+
+	@Test
+	public void transfertWithSessionPool() throws Exception {
+		FTPSessionPool pool = FTPSessionPool.forScope("job#1");
+		PrintStream log = new PrintStream(new ByteArrayOutputStream());
+		try {
+			pool.transfertOnce(new TransfertConfiguration("localhost:" + ftpServer.getServerControlPort(), "deployer", "secret", localFile.getAbsolutePath(), "/libs/library.war"), log);
+			pool.transfertOnce(new TransfertConfiguration("localhost:" + ftpServer.getServerControlPort(), "deployer", "secret", localFile.getAbsolutePath(), "/libs/library.war"), log);
+			pool.transfertOnce(new TransfertConfiguration("localhost:" + ftpServer.getServerControlPort(), "deployer", "secret", localFile.getAbsolutePath(), "/libs/library-copy.war"), log);
+		} finally {
+			Assert.assertNotNull(FTPSessionPool.release("job#1"));
+		}
+
+		Assert.assertEquals(1, pool.getOpened());
+		Assert.assertEquals(1, pool.getReused());
+		Assert.assertEquals(1, pool.getSkippedUploads());
+		Assert.assertNotNull(fileSystem.getEntry("/libs/library-copy.war"));
+		Assert.assertNull(FTPSessionPool.release("job#1"));
+	}
+
+	@Test
+	public void transfertFanOut() throws Exception {
+		UnixFakeFileSystem otherFileSystem = new UnixFakeFileSystem();
+		otherFileSystem.add(new DirectoryEntry("/libs"));
+		FakeFtpServer otherFtpServer = new FakeFtpServer();
+		otherFtpServer.setServerControlPort(0);
+		otherFtpServer.addUserAccount(new UserAccount("deployer", "secret", "/libs"));
+		otherFtpServer.setFileSystem(otherFileSystem);
+		otherFtpServer.start();
+
+		FTPSessionPool pool = new FTPSessionPool();
+		try {
+			List<TransfertConfiguration> configurations = new ArrayList<TransfertConfiguration>();
+			configurations.add(new TransfertConfiguration("localhost:" + ftpServer.getServerControlPort(), "deployer", "secret", localFile.getAbsolutePath(), "/libs/library.war"));
+			configurations.add(new TransfertConfiguration("localhost:" + otherFtpServer.getServerControlPort(), "deployer", "secret", localFile.getAbsolutePath(), "/libs/library.war"));
+			configurations.add(new TransfertConfiguration("localhost:" + otherFtpServer.getServerControlPort(), "deployer", "wrong", localFile.getAbsolutePath(), "/libs/library-other.war"));
+
+			List<TransfertResult> results = new FTPFanOut(pool, 2).transfert(configurations, new PrintStream(new ByteArrayOutputStream()));
+
+			Assert.assertEquals(3, results.size());
+			Assert.assertTrue(results.get(0).isSucceeded());
+			Assert.assertTrue(results.get(1).isSucceeded());
+			Assert.assertFalse(results.get(2).isSucceeded());
+			Assert.assertEquals(localFile.length(), results.get(1).getStatistics().getSize());
+			Assert.assertTrue(IOUtils.contentEquals(FileUtils.openInputStream(localFile), ((FileEntry) fileSystem.getEntry("/libs/library.war")).createInputStream()));
+			Assert.assertTrue(IOUtils.contentEquals(FileUtils.openInputStream(localFile), ((FileEntry) otherFileSystem.getEntry("/libs/library.war")).createInputStream()));
+		} finally {
+			pool.close();
+			otherFtpServer.stop();
+		}
+	}
+
+	@Test
+	public void concurrentFanOutsUploadOnce() throws Exception {
+		final FTPSessionPool pool = new FTPSessionPool();
+		final List<TransfertConfiguration> configurations = new ArrayList<TransfertConfiguration>();
+		configurations.add(new TransfertConfiguration("localhost:" + ftpServer.getServerControlPort(), "deployer", "secret", localFile.getAbsolutePath(), "/libs/library.war"));
+		final List<List<TransfertResult>> results = new ArrayList<List<TransfertResult>>();
+		try {
+			// deux taches du meme build transferent la meme librairie au meme moment
+			List<Thread> tasks = new ArrayList<Thread>();
+			for(int i = 0; i < 2; i++){
+				tasks.add(new Thread() {
+					@Override
+					public void run() {
+						try {
+							List<TransfertResult> taskResults = new FTPFanOut(pool, 2).transfert(configurations, new PrintStream(new ByteArrayOutputStream()));
+							synchronized (results) {
+								results.add(taskResults);
+							}
+						} catch (InterruptedException ie) {
+							// resultat absent : echec de l'assertion
+						}
+					}
+				});
+			}
+			for(Thread task : tasks){
+				task.start();
+			}
+			for(Thread task : tasks){
+				task.join(30 * 1000);
+			}
+
+			Assert.assertEquals(2, results.size());
+			Assert.assertTrue(results.get(0).get(0).isSucceeded());
+			Assert.assertTrue(results.get(1).get(0).isSucceeded());
+			Assert.assertEquals(1, pool.getSkippedUploads());
+			Assert.assertTrue(IOUtils.contentEquals(FileUtils.openInputStream(localFile), ((FileEntry) fileSystem.getEntry("/libs/library.war")).createInputStream()));
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void transfertResumedAfterBrokenConnection() throws Exception {
+		installResumableStore(true);
+		TransfertConfiguration configuration = new TransfertConfiguration("localhost:" + ftpServer.getServerControlPort(), "deployer", "secret", localFile.getAbsolutePath(), "/libs/library.war");
+		configuration.setPassiveMode(true);
+
+		TransfertStatistics statistics = FTPUtils.transfertFile(configuration, new PrintStream(new ByteArrayOutputStream()));
+
+		Assert.assertEquals(2, statistics.getAttempts());
+		Assert.assertEquals(localFile.length() / 2, statistics.getResumedOffset());
+		Assert.assertTrue(IOUtils.contentEquals(FileUtils.openInputStream(localFile), ((FileEntry) fileSystem.getEntry("/libs/library.war")).createInputStream()));
+	}
+
+	@Test
+	public void previousRemoteFileIsNotResumed() throws Exception {
+		// bibliotheque du deploiement precedent, plus petite que la nouvelle
+		FileEntry previousLibrary = new FileEntry("/libs/library.war");
+		previousLibrary.setContents(new byte[100 * 1024]);
+		fileSystem.add(previousLibrary);
+		installResumableStore(false);
+		// premiere connexion coupee avant tout envoi
+		final CommandHandler userCommandHandler = ftpServer.getCommandHandler("USER");
+		ftpServer.setCommandHandler("USER", new CommandHandler() {
+			private boolean broken;
+			public void handleCommand(Command command, Session session) throws Exception {
+				if(! broken){
+					broken = true;
+					session.close();
+					return;
+				}
+				userCommandHandler.handleCommand(command, session);
+			}
+		});
+		TransfertConfiguration configuration = new TransfertConfiguration("localhost:" + ftpServer.getServerControlPort(), "deployer", "secret", localFile.getAbsolutePath(), "/libs/library.war");
+		configuration.setPassiveMode(true);
+
+		TransfertStatistics statistics = FTPUtils.transfertFile(configuration, new PrintStream(new ByteArrayOutputStream()));
+
+		Assert.assertEquals(2, statistics.getAttempts());
+		Assert.assertEquals(0, statistics.getResumedOffset());
+		Assert.assertTrue(IOUtils.contentEquals(FileUtils.openInputStream(localFile), ((FileEntry) fileSystem.getEntry("/libs/library.war")).createInputStream()));
+	}
+
+	/**
+	 * SIZE, REST and STOR handled on the fake file system. The first STOR keeps half of the data received, then the
+	 * connection is closed before the reply if breakFirstStore is set.
+	 *
+	 * @param breakFirstStore
+	 */
+	private void installResumableStore(final boolean breakFirstStore) {
+		ftpServer.setCommandHandler("SIZE", new CommandHandler() {
+			public void handleCommand(Command command, Session session) throws Exception {
+				FileEntry entry = (FileEntry) fileSystem.getEntry(command.getRequiredParameter(0));
+				if(entry == null){
+					session.sendReply(550, "No such file");
+				} else {
+					session.sendReply(213, String.valueOf(entry.getSize()));
+				}
+			}
+		});
+		ftpServer.setCommandHandler("REST", new CommandHandler() {
+			public void handleCommand(Command command, Session session) throws Exception {
+				session.setAttribute("REST", Integer.valueOf(command.getRequiredParameter(0)));
+				session.sendReply(350, "Restarting");
+			}
+		});
+		ftpServer.setCommandHandler("STOR", new CommandHandler() {
+			private boolean broken = ! breakFirstStore;
+			public void handleCommand(Command command, Session session) throws Exception {
+				String path = command.getRequiredParameter(0);
+				Integer restartOffset = (Integer) session.getAttribute("REST");
+				session.removeAttribute("REST");
+				session.sendReply(150, "Opening data connection");
+				session.openDataConnection();
+				byte[] data = session.readData();
+				session.closeDataConnection();
+
+				FileEntry entry = (FileEntry) fileSystem.getEntry(path);
+				if(entry == null){
+					entry = new FileEntry(path);
+					fileSystem.add(entry);
+				}
+				ByteArrayOutputStream contents = new ByteArrayOutputStream();
+				if(restartOffset != null){
+					byte[] previous = IOUtils.toByteArray(entry.createInputStream());
+					contents.write(previous, 0, restartOffset.intValue());
+				}
+				if(! broken){
+					broken = true;
+					contents.write(data, 0, data.length / 2);
+					entry.setContents(contents.toByteArray());
+					session.close();
+					return;
+				}
+				contents.write(data);
+				entry.setContents(contents.toByteArray());
+				session.sendReply(226, "Transfer complete");
+			}
+		});
+	}
+
+	@Test(expected=TransfertFileException.class)
+	public void transfertFileWithBadCredentials() throws Exception {
+		TransfertConfiguration configuration = new TransfertConfiguration("localhost:" + ftpServer.getServerControlPort(), "deployer", "wrong", localFile.getAbsolutePath(), "/libs/library.war");
+		FTPUtils.transfertFile(configuration, new PrintStream(new ByteArrayOutputStream()));
+	}
+}
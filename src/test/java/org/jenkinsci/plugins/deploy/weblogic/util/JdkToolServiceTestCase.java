@@ -28,4 +28,12 @@ public class JdkToolServiceTestCase {
 		
 //		System.out.println("[HudsonWeblogicDeploymentPlugin] - Displaying a warning about JDK version compatibility with WebLogic Deployer API {"+matcher.group(3)+"}");			
 	}
+	
+	@Test
+	public void parseJavaVersion() throws Exception{
+		String out = "P:/Outils/jdk1.5.0_22/bin/java -version\r\njava version \"1.5.0_22\"\r\nJava(TM) 2 Runtime Environment, Standard Edition (build 1.5.0_22-b03)\r\nJava HotSpot(TM) Client VM (build 1.5.0_22-b03, mixed mode, sharing)\r\n";
+		Assert.assertEquals("1.5.0_22", JdkToolService.parseJavaVersion(out));
+		Assert.assertEquals("1.8.0_112", JdkToolService.parseJavaVersion("openjdk version \"1.8.0_112\"\nOpenJDK Runtime Environment\n"));
+		Assert.assertNull(JdkToolService.parseJavaVersion("Error: could not find java.dll"));
+	}
 }
@@ -0,0 +1,55 @@
+/**
+ * 
+ */
+package org.jenkinsci.plugins.deploy.weblogic.util;
+
+import hudson.EnvVars;
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author RaphaelC
+ *
+ */
+public class ParameterValueResolverTestCase {
+
+	private final EnvVars envVars = new EnvVars("NAME", "myapp", "VERSION", "1.0", "EMPTY", "", "PRICE", "$HOME");
+	
+	@Test
+	public void resolve() {
+		Assert.assertEquals("myapp", ParameterValueResolver.resolve("$NAME", envVars));
+		Assert.assertEquals("myapp", ParameterValueResolver.resolve("${NAME}", envVars));
+		Assert.assertEquals("artifact-myapp-1.0.ear", ParameterValueResolver.resolve("artifact-${NAME}-$VERSION.ear", envVars));
+		Assert.assertEquals("no variable", ParameterValueResolver.resolve("no variable", envVars));
+		Assert.assertNull(ParameterValueResolver.resolve(null, envVars));
+	}
+	
+	@Test
+	public void defaultValue() {
+		Assert.assertEquals("myapp", ParameterValueResolver.resolve("${NAME:-other}", envVars));
+		Assert.assertEquals("other", ParameterValueResolver.resolve("${UNDEFINED:-other}", envVars));
+		Assert.assertEquals("other", ParameterValueResolver.resolve("${EMPTY:-other}", envVars));
+		Assert.assertEquals("", ParameterValueResolver.resolve("${UNDEFINED:-}", envVars));
+	}
+	
+	@Test
+	public void resolveWholeValue() {
+		Assert.assertEquals("myapp", ParameterValueResolver.resolveWholeValue("$NAME", envVars));
+		Assert.assertEquals("myapp", ParameterValueResolver.resolveWholeValue("${NAME}", envVars));
+		Assert.assertEquals("$UNDEFINED", ParameterValueResolver.resolveWholeValue("$UNDEFINED", envVars));
+		Assert.assertEquals("Welc0me$$1", ParameterValueResolver.resolveWholeValue("Welc0me$$1", envVars));
+		Assert.assertEquals("pa$NAME9", ParameterValueResolver.resolveWholeValue("pa$NAME9", envVars));
+		Assert.assertEquals("$$NAME", ParameterValueResolver.resolveWholeValue("$$NAME", envVars));
+		Assert.assertNull(ParameterValueResolver.resolveWholeValue(null, envVars));
+	}
+	
+	@Test
+	public void undefinedAndEscaped() {
+		Assert.assertEquals("$UNDEFINED-${UNDEFINED}", ParameterValueResolver.resolve("$UNDEFINED-${UNDEFINED}", envVars));
+		Assert.assertEquals("$NAME costs $", ParameterValueResolver.resolve("$$NAME costs $", envVars));
+		Assert.assertEquals("${NAME", ParameterValueResolver.resolve("${NAME", envVars));
+		// la valeur n'est pas resolue une seconde fois
+		Assert.assertEquals("$HOME", ParameterValueResolver.resolve("$PRICE", envVars));
+	}
+}